@@ -0,0 +1,369 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Armazenamento local de notícias particionado por mês de publicação e gravado em colunas
+//
+// Cada partição é um diretório data/colunar/AAAA-MM com um arquivo por coluna:
+//   data.col        quantidade + segundos desde a época (UTC), em ordem crescente
+//   tipo.col        dicionário de tipos + código (short) de cada linha
+//   id.col, titulo.col, introducao.col, link.col   textos UTF-8 com tamanho, compactados com Deflate
+// Uma consulta por período só abre as partições dos meses que se sobrepõem ao período e só lê as colunas pedidas.
+//
+// Uma partição é regravada em AAAA-MM.tmp e trocada em dois passos (AAAA-MM -> AAAA-MM.old, AAAA-MM.tmp -> AAAA-MM).
+// Se o programa cair no meio da troca, a primeira operação depois de abrir o armazém termina ou desfaz a troca
+// (ver recuperarTrocas), para nenhum mês sumir das consultas nem ser regravado vazio.
+//
+// Uso: java ArmazemColunar importar | periodo <AAAA-MM-DD> <AAAA-MM-DD>
+
+public class ArmazemColunar {
+    private static final String DIRETORIO = "data" + File.separator + "colunar";
+
+    // Arquivo de cada coluna e o campo da notícia que ele guarda
+    private enum Coluna {
+        ID("id.col", Noticia.Campo.ID), TITULO("titulo.col", Noticia.Campo.TITULO), INTRODUCAO("introducao.col", Noticia.Campo.INTRODUCAO),
+        LINK("link.col", Noticia.Campo.LINK), TIPO("tipo.col", Noticia.Campo.TIPO), DATA("data.col", Noticia.Campo.DATA);
+
+        private final String arquivo;
+        private final Noticia.Campo campo;
+
+        Coluna(String arquivo, Noticia.Campo campo) {
+            this.arquivo = arquivo;
+            this.campo = campo;
+        }
+    }
+
+    private final File diretorio;
+    private boolean recuperado;
+
+    public ArmazemColunar() {
+        this(new File(DIRETORIO));
+    }
+
+    public ArmazemColunar(File diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    /**
+     * Grava as notícias nas partições dos seus meses, juntando com o que já existe (por id).
+     * Notícias sem data de publicação não têm partição e são ignoradas.
+     * @return Quantas notícias foram gravadas.
+     * @throws IOException Se alguma partição não puder ser lida ou gravada.
+     */
+    public synchronized int gravar(Collection<Noticia> noticias) throws IOException {
+        recuperarTrocas();
+        Map<YearMonth, Map<String, Noticia>> porMes = new TreeMap<>();
+        int gravadas = 0;
+        for (Noticia n : noticias) {
+            if (n.getDataPublicacao() == null || n.getId() == null) {
+                continue;
+            }
+            porMes.computeIfAbsent(YearMonth.from(n.getDataPublicacao()), m -> new LinkedHashMap<>()).put(n.getId(), n);
+            gravadas++;
+        }
+        for (Map.Entry<YearMonth, Map<String, Noticia>> mes : porMes.entrySet()) {
+            File particao = particao(mes.getKey());
+            Map<String, Noticia> linhas = new LinkedHashMap<>();
+            if (particao.exists()) {
+                for (Noticia n : lerParticao(particao, null, Noticia.TODOS_OS_CAMPOS)) {
+                    linhas.put(n.getId(), n);
+                }
+            }
+            linhas.putAll(mes.getValue());
+            gravarParticao(particao, new ArrayList<>(linhas.values()));
+        }
+        return gravadas;
+    }
+
+    /**
+     * Busca as notícias publicadas entre as duas datas (inclusive), preenchendo só as colunas pedidas.
+     * @param dataInicial Primeiro dia do período.
+     * @param dataFinal Último dia do período.
+     * @param campos Campos a preencher (projeção); o id e a data são sempre lidos.
+     * @return Notícias do período em ordem crescente de publicação.
+     * @throws IOException Se uma partição estiver ilegível.
+     */
+    public synchronized List<Noticia> buscarPorData(LocalDate dataInicial, LocalDate dataFinal, Set<Noticia.Campo> campos) throws IOException {
+        recuperarTrocas();
+        long inicio = dataInicial.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long fim = dataFinal.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        List<Noticia> resultado = new ArrayList<>();
+        for (YearMonth mes = YearMonth.from(dataInicial); !mes.isAfter(YearMonth.from(dataFinal)); mes = mes.plusMonths(1)) {
+            File particao = particao(mes);
+            if (particao.exists()) {
+                resultado.addAll(lerParticao(particao, new long[] {inicio, fim}, campos));
+            }
+        }
+        return resultado;
+    }
+
+    // Termina as trocas de partição interrompidas por uma queda (uma vez, na primeira operação):
+    //   - AAAA-MM e AAAA-MM.old: a troca terminou, falta só apagar a antiga;
+    //   - só AAAA-MM.old e AAAA-MM.tmp: a nova já estava completa (a antiga só sai depois), então entra no lugar;
+    //   - só AAAA-MM.old: volta a ser a partição;
+    //   - AAAA-MM.tmp sem AAAA-MM.old: gravação interrompida antes da troca, descartada.
+    private void recuperarTrocas() throws IOException {
+        if (recuperado) {
+            return;
+        }
+        File[] arquivos = diretorio.listFiles((d, nome) -> nome.endsWith(".old"));
+        if (arquivos != null) {
+            for (File antiga : arquivos) {
+                String nome = antiga.getName();
+                File particao = new File(diretorio, nome.substring(0, nome.length() - ".old".length()));
+                File temporario = new File(particao.getPath() + ".tmp");
+                if (!particao.exists()) {
+                    File recuperada = temporario.exists() ? temporario : antiga;
+                    Files.move(recuperada.toPath(), particao.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                    System.err.println("Atenção: Troca interrompida da partição " + particao.getName()
+                            + " recuperada de " + recuperada.getName() + ".");
+                }
+                apagar(antiga);
+            }
+        }
+        arquivos = diretorio.listFiles((d, nome) -> nome.endsWith(".tmp"));
+        if (arquivos != null) {
+            for (File temporario : arquivos) {
+                apagar(temporario);
+            }
+        }
+        recuperado = true;
+    }
+
+    private File particao(YearMonth mes) {
+        return new File(diretorio, mes.toString());
+    }
+
+    // Lê as linhas da partição dentro do intervalo [inicio, fim) em segundos (todas, se intervalo for null)
+    private List<Noticia> lerParticao(File particao, long[] intervalo, Set<Noticia.Campo> campos) throws IOException {
+        long[] datas;
+        try (DataInputStream in = abrir(particao, Coluna.DATA)) {
+            datas = new long[in.readInt()];
+            for (int i = 0; i < datas.length; i++) {
+                datas[i] = in.readLong();
+            }
+        }
+        // As datas estão ordenadas, então o intervalo vira uma faixa contínua de linhas
+        int primeira = intervalo == null ? 0 : primeiraPosicao(datas, intervalo[0]);
+        int ultima = intervalo == null ? datas.length : primeiraPosicao(datas, intervalo[1]);
+        List<Noticia> linhas = new ArrayList<>(Math.max(0, ultima - primeira));
+        for (int i = primeira; i < ultima; i++) {
+            Noticia n = new Noticia();
+            n.setDataPublicacao(LocalDateTime.ofEpochSecond(datas[i], 0, ZoneOffset.UTC));
+            linhas.add(n);
+        }
+        if (linhas.isEmpty()) {
+            return linhas;
+        }
+
+        if (campos.contains(Noticia.Campo.TIPO)) {
+            try (DataInputStream in = abrir(particao, Coluna.TIPO)) {
+                String[] dicionario = new String[in.readInt()];
+                for (int i = 0; i < dicionario.length; i++) {
+                    dicionario[i] = in.readUTF();
+                }
+                in.skipNBytes(4 + 2L * primeira);
+                for (Noticia n : linhas) {
+                    short codigo = in.readShort();
+                    n.setTipo(codigo < 0 ? null : dicionario[codigo]);
+                }
+            }
+        }
+        for (Coluna coluna : new Coluna[] {Coluna.ID, Coluna.TITULO, Coluna.INTRODUCAO, Coluna.LINK}) {
+            if (coluna != Coluna.ID && !campos.contains(coluna.campo)) {
+                continue;
+            }
+            try (DataInputStream in = new DataInputStream(new InflaterInputStream(new BufferedInputStream(new FileInputStream(new File(particao, coluna.arquivo)))))) {
+                int quantidade = in.readInt();
+                for (int i = 0; i < Math.min(quantidade, ultima); i++) {
+                    String texto = lerTexto(in, i >= primeira);
+                    if (i >= primeira) {
+                        preencher(linhas.get(i - primeira), coluna, texto);
+                    }
+                }
+            }
+        }
+        return linhas;
+    }
+
+    private void gravarParticao(File particao, List<Noticia> linhas) throws IOException {
+        linhas.sort(Comparator.comparing(Noticia::getDataPublicacao));
+        File temporario = new File(particao.getPath() + ".tmp");
+        if (!temporario.exists() && !temporario.mkdirs()) {
+            throw new IOException("Não foi possível criar o diretório '" + temporario + "'.");
+        }
+
+        try (DataOutputStream out = criar(temporario, Coluna.DATA)) {
+            out.writeInt(linhas.size());
+            for (Noticia n : linhas) {
+                out.writeLong(n.getDataPublicacao().toEpochSecond(ZoneOffset.UTC));
+            }
+        }
+
+        Map<String, Short> dicionario = new LinkedHashMap<>();
+        for (Noticia n : linhas) {
+            if (n.getTipo() != null && !dicionario.containsKey(n.getTipo())) {
+                dicionario.put(n.getTipo(), (short) dicionario.size());
+            }
+        }
+        try (DataOutputStream out = criar(temporario, Coluna.TIPO)) {
+            out.writeInt(dicionario.size());
+            for (String tipo : dicionario.keySet()) {
+                out.writeUTF(tipo);
+            }
+            out.writeInt(linhas.size());
+            for (Noticia n : linhas) {
+                out.writeShort(n.getTipo() == null ? -1 : dicionario.get(n.getTipo()));
+            }
+        }
+
+        for (Coluna coluna : new Coluna[] {Coluna.ID, Coluna.TITULO, Coluna.INTRODUCAO, Coluna.LINK}) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(new File(temporario, coluna.arquivo))), deflater))) {
+                out.writeInt(linhas.size());
+                for (Noticia n : linhas) {
+                    escreverTexto(out, texto(n, coluna));
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+
+        // Troca a partição inteira de uma vez: o diretório antigo só é apagado depois que o novo está completo
+        File antiga = new File(particao.getPath() + ".old");
+        if (particao.exists()) {
+            Files.move(particao.toPath(), antiga.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(temporario.toPath(), particao.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        apagar(antiga);
+    }
+
+    private static DataInputStream abrir(File particao, Coluna coluna) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new FileInputStream(new File(particao, coluna.arquivo))));
+    }
+
+    private static DataOutputStream criar(File particao, Coluna coluna) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(particao, coluna.arquivo))));
+    }
+
+    // Primeira posição com data >= valor (busca binária)
+    private static int primeiraPosicao(long[] datas, long valor) {
+        int baixo = 0;
+        int alto = datas.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (datas[meio] < valor) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private static void escreverTexto(DataOutputStream out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Lê um texto; quando não é necessário, só pula os bytes sem decodificar
+    private static String lerTexto(DataInputStream in, boolean decodificar) throws IOException {
+        int tamanho = in.readInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        if (!decodificar) {
+            in.skipNBytes(tamanho);
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String texto(Noticia n, Coluna coluna) {
+        switch (coluna) {
+            case ID:
+                return n.getId();
+            case TITULO:
+                return n.getTitulo();
+            case INTRODUCAO:
+                return n.getIntroducao();
+            default:
+                return n.getLink();
+        }
+    }
+
+    private static void preencher(Noticia n, Coluna coluna, String texto) {
+        switch (coluna) {
+            case ID:
+                n.setId(texto);
+                break;
+            case TITULO:
+                n.setTitulo(texto);
+                break;
+            case INTRODUCAO:
+                n.setIntroducao(texto);
+                break;
+            default:
+                n.setLink(texto);
+        }
+    }
+
+    private static void apagar(File arquivo) {
+        File[] filhos = arquivo.listFiles();
+        if (filhos != null) {
+            for (File filho : filhos) {
+                apagar(filho);
+            }
+        }
+        arquivo.delete();
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Uso: java ArmazemColunar importar | periodo <AAAA-MM-DD> <AAAA-MM-DD>");
+            System.exit(2);
+        }
+        ArmazemColunar armazem = new ArmazemColunar();
+        try {
+            if (args[0].equals("importar")) {
+                // Importa as notícias do espelho local (ver EspelhoNoticias)
+                EspelhoNoticias espelho = new EspelhoNoticias();
+                espelho.carregar();
+                List<Noticia> todas = espelho.buscarPorData(LocalDate.MIN, LocalDate.MAX);
+                System.out.println(armazem.gravar(todas) + " notícias gravadas em " + armazem.diretorio);
+            } else if (args[0].equals("periodo") && args.length == 3) {
+                long inicio = System.nanoTime();
+                List<Noticia> resultado = armazem.buscarPorData(LocalDate.parse(args[1]), LocalDate.parse(args[2]),
+                        EnumSet.of(Noticia.Campo.TITULO, Noticia.Campo.DATA));
+                long millis = (System.nanoTime() - inicio) / 1_000_000;
+                for (Noticia n : resultado) {
+                    System.out.println(n.getDataPublicacao() + "  " + n.getTitulo());
+                }
+                System.out.println(resultado.size() + " notícias em " + millis + " ms");
+            } else {
+                System.err.println("Comando desconhecido: " + args[0]);
+                System.exit(2);
+            }
+        } catch (IOException e) {
+            System.err.println("Erro no armazenamento colunar: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+// Classe que executa várias buscas ao mesmo tempo (termos e/ou períodos) e junta os resultados,
+// pontuando cada notícia pela quantidade de buscas em que ela apareceu
+
+public class BuscaMultipla {
+    public static final int MAX_CONCORRENTES_PADRAO = 8;
+    // Espera máxima pelas threads do lote depois que as buscas terminaram (ou foram interrompidas)
+    private static final long ESPERA_ENCERRAMENTO_MS = 1_000;
+
+    private final int maxConcorrentes;
+
+    // Notícia encontrada e em quantas buscas ela apareceu
+    public static class Acerto {
+        private final Noticia noticia;
+        private int consultas;
+
+        Acerto(Noticia noticia) {
+            this.noticia = noticia;
+        }
+
+        public Noticia getNoticia() { return noticia; }
+        public int getConsultas() { return consultas; }
+    }
+
+    // Resultado de um lote: as notícias das buscas que deram certo e o erro de cada uma que falhou
+    public static class Resultado {
+        private final List<Acerto> acertos;
+        private final Map<Map<String, String>, Exception> falhas;
+
+        Resultado(List<Acerto> acertos, Map<Map<String, String>, Exception> falhas) {
+            this.acertos = acertos;
+            this.falhas = falhas;
+        }
+
+        public List<Acerto> getAcertos() { return acertos; }
+        public Map<Map<String, String>, Exception> getFalhas() { return falhas; }
+    }
+
+    public BuscaMultipla() {
+        this(MAX_CONCORRENTES_PADRAO);
+    }
+
+    public BuscaMultipla(int maxConcorrentes) {
+        if (maxConcorrentes < 1) {
+            throw new IllegalArgumentException("O número de requisições simultâneas deve ser positivo.");
+        }
+        this.maxConcorrentes = maxConcorrentes;
+    }
+
+    public Resultado buscarTermos(List<String> termos, BiConsumer<Map<String, String>, List<Noticia>> aoTerminar) throws IOException {
+        List<Map<String, String>> consultas = new ArrayList<>();
+        for (String termo : termos) {
+            consultas.add(IBGENoticiasAPI.parametrosPorTermo(termo));
+        }
+        return buscar(consultas, aoTerminar);
+    }
+
+    /**
+     * Dispara todas as buscas em paralelo (no máximo maxConcorrentes requisições ao mesmo tempo) e entrega
+     * o resultado de cada uma assim que ela termina, sem esperar pela mais lenta. Uma busca que falha não
+     * cancela as outras: o resultado traz o que deu certo e, à parte, o erro de cada busca que falhou.
+     * @param consultas Parâmetros de cada busca (ver IBGENoticiasAPI.parametrosPorTermo/parametrosPorData).
+     * @param aoTerminar Chamado na thread de quem chamou, na ordem em que as buscas terminam com sucesso; pode ser null.
+     * @return Notícias sem repetição de id, das que apareceram em mais buscas para as que apareceram em menos
+     *         (empates na ordem em que chegaram), e as buscas que falharam.
+     * @throws IOException Se todas as buscas falharem (a causa é o erro da primeira), ou se quem chamou for
+     *         interrompido (InterruptedIOException; aí as buscas em andamento são canceladas).
+     */
+    public Resultado buscar(List<Map<String, String>> consultas, BiConsumer<Map<String, String>, List<Noticia>> aoTerminar) throws IOException {
+        ExecutorService executor = novoExecutor();
+        Semaphore vagas = new Semaphore(maxConcorrentes);
+        CompletionService<Map.Entry<Map<String, String>, List<Noticia>>> concluidas = new ExecutorCompletionService<>(executor);
+        Map<Future<Map.Entry<Map<String, String>, List<Noticia>>>, Map<String, String>> consultaDe = new HashMap<>();
+        try {
+            for (Map<String, String> params : consultas) {
+                consultaDe.put(concluidas.submit(() -> {
+                    vagas.acquire();
+                    try {
+                        return new AbstractMap.SimpleEntry<>(params, IBGENoticiasAPI.buscarNoticias(params));
+                    } finally {
+                        vagas.release();
+                    }
+                }), params);
+            }
+
+            Map<String, Acerto> acertos = new LinkedHashMap<>();
+            Map<Map<String, String>, Exception> falhas = new LinkedHashMap<>();
+            for (int i = 0; i < consultas.size(); i++) {
+                Future<Map.Entry<Map<String, String>, List<Noticia>>> concluida = concluidas.take();
+                Map.Entry<Map<String, String>, List<Noticia>> resultado;
+                try {
+                    resultado = concluida.get();
+                } catch (ExecutionException e) {
+                    Throwable causa = e.getCause();
+                    if (causa instanceof Error) {
+                        throw (Error) causa;
+                    }
+                    falhas.put(consultaDe.get(concluida), (Exception) causa);
+                    continue;
+                }
+                // Uma notícia repetida dentro da mesma busca conta uma vez só
+                for (Noticia n : new LinkedHashSet<>(resultado.getValue())) {
+                    acertos.computeIfAbsent(n.getId(), id -> new Acerto(n)).consultas++;
+                }
+                if (aoTerminar != null) {
+                    aoTerminar.accept(resultado.getKey(), resultado.getValue());
+                }
+            }
+
+            if (!consultas.isEmpty() && falhas.size() == consultas.size()) {
+                Exception primeira = falhas.values().iterator().next();
+                throw new IOException("Todas as " + falhas.size() + " buscas falharam: " + primeira.getMessage(), primeira);
+            }
+            List<Acerto> ordenados = new ArrayList<>(acertos.values());
+            ordenados.sort(Comparator.comparingInt(Acerto::getConsultas).reversed());
+            return new Resultado(ordenados, falhas);
+        } catch (InterruptedException e) {
+            // Quem chamou desistiu do lote inteiro
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw ResilienciaHttp.interrupcao("Busca múltipla interrompida.", e);
+        } finally {
+            encerrar(executor);
+        }
+    }
+
+    // Sem shutdownNow no caminho normal: quando o lote volta, todas as buscas já terminaram, e a espera
+    // limitada só garante que as threads do lote não ficam para trás
+    private static void encerrar(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(ESPERA_ENCERRAMENTO_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Usa threads virtuais quando a JVM oferece (Java 21+); em versões anteriores, como o Java 17, um pool
+    // comum com uma thread por requisição simultânea, que é o que bench/BuscaMultiplaLatencia mede.
+    // O limite de requisições simultâneas é sempre o semáforo, não o tamanho do pool.
+    private ExecutorService novoExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(maxConcorrentes, r -> {
+                Thread t = new Thread(r, "busca-multipla");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
\ No newline at end of file
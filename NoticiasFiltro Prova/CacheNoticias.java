@@ -0,0 +1,375 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Classe que guarda as respostas da API do IBGE em dois níveis: memória (LRU com TTL) e disco (data/cache/,
+// com limite de tamanho e de idade)
+
+public class CacheNoticias {
+    // Diretório do cache em disco; pode ser trocado pela propriedade "ibge.cache.diretorio" (ex: teste de carga)
+    private static final String DIRETORIO = System.getProperty("ibge.cache.diretorio", "data" + File.separator + "cache");
+    private static final DateTimeFormatter FORMATO_PARAMETRO = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // Limites do disco: as entradas usadas há mais tempo saem quando o total passa do tamanho máximo, e
+    // nenhuma fica mais que a idade máxima sem ser usada (inclusive as de períodos passados, que não vencem)
+    private static final long MAX_BYTES_DISCO_PADRAO = 50L * 1024 * 1024;
+    private static final long IDADE_MAXIMA_DISCO_PADRAO = 30L * 24 * 60 * 60 * 1000;
+
+    // Instância padrão; capacidade e TTL (segundos) configuráveis por "ibge.cache.capacidade" e "ibge.cache.ttl",
+    // limites do disco por "ibge.cache.disco.mb" e "ibge.cache.disco.dias"
+    private static final CacheNoticias PADRAO = new CacheNoticias(
+            Integer.getInteger("ibge.cache.capacidade", 256),
+            Long.getLong("ibge.cache.ttl", 300) * 1000,
+            new File(DIRETORIO),
+            Long.getLong("ibge.cache.disco.mb", MAX_BYTES_DISCO_PADRAO / (1024 * 1024)) * 1024 * 1024,
+            Long.getLong("ibge.cache.disco.dias", IDADE_MAXIMA_DISCO_PADRAO / (24 * 60 * 60 * 1000)) * 24 * 60 * 60 * 1000);
+
+    private static final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .registerTypeAdapter(LocalDateTime.class, new IBGENoticiasAPI.LocalDateTimeAdapter())
+            .registerTypeAdapter(Noticia.class, new IBGENoticiasAPI.NoticiaAdapter())
+            .create();
+
+    private final long ttlMillis;
+    private final File diretorio;
+    private final long maxBytesDisco;
+    private final long idadeMaximaDisco;
+    // Bytes ocupados no disco (aproximado entre uma poda e outra); -1 até a primeira contagem
+    private final AtomicLong bytesNoDisco = new AtomicLong(-1);
+    private final AtomicBoolean podando = new AtomicBoolean();
+    private final Map<String, Entrada> memoria;
+    // Faltas simultâneas da mesma chave fazem uma única ida à API; a espera por ela tem limite
+    // (ms, propriedade "ibge.coalescencia.timeout")
+    private final ChamadaUnica<PaginaNoticias> buscas = new ChamadaUnica<>(Long.getLong("ibge.coalescencia.timeout", 30_000));
+
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong faltas = new AtomicLong();
+    private final AtomicLong despejos = new AtomicLong();
+    private final AtomicLong revalidacoes = new AtomicLong();
+    private final AtomicLong obsoletos = new AtomicLong();
+    private final AtomicLong despejosDisco = new AtomicLong();
+
+    public CacheNoticias(int capacidade, long ttlMillis, File diretorio) {
+        this(capacidade, ttlMillis, diretorio, MAX_BYTES_DISCO_PADRAO, IDADE_MAXIMA_DISCO_PADRAO);
+    }
+
+    public CacheNoticias(int capacidade, long ttlMillis, File diretorio, long maxBytesDisco, long idadeMaximaDisco) {
+        this.ttlMillis = ttlMillis;
+        this.diretorio = diretorio;
+        this.maxBytesDisco = maxBytesDisco;
+        this.idadeMaximaDisco = idadeMaximaDisco;
+        // LinkedHashMap em ordem de acesso: a entrada mais antiga é descartada ao passar da capacidade
+        this.memoria = new LinkedHashMap<String, Entrada>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                if (size() > capacidade) {
+                    despejos.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static CacheNoticias padrao() {
+        return PADRAO;
+    }
+
+    /**
+     * Devolve a página para os parâmetros informados, consultando memória, depois disco e só então a API.
+     * Entradas vencidas são revalidadas com ETag/Last-Modified quando o servidor os fornece, e são
+     * devolvidas mesmo vencidas se a API estiver falhando. Faltas simultâneas da mesma chave esperam
+     * uma única requisição e recebem as mesmas notícias.
+     * @param params Parâmetros da busca.
+     * @return Uma cópia da página guardada. A lista pode ser alterada por quem chama, mas as notícias são as
+     *         mesmas guardadas no cache (e entregues a outras buscas), então devem ser tratadas como somente leitura.
+     * @throws IOException Se for preciso ir à API e a requisição falhar.
+     */
+    public PaginaNoticias obter(Map<String, String> params) throws IOException {
+        String chave = chave(params);
+        long agora = System.currentTimeMillis();
+
+        Entrada entrada;
+        synchronized (memoria) {
+            entrada = memoria.get(chave);
+        }
+        if (entrada == null) {
+            entrada = lerDoDisco(chave);
+            if (entrada != null) {
+                synchronized (memoria) {
+                    memoria.put(chave, entrada);
+                }
+            }
+        }
+        if (entrada != null && entrada.expiraEm > agora) {
+            acertos.incrementAndGet();
+            Metricas.contar(Metricas.Contador.CACHE_ACERTOS, 1);
+            return copiar(entrada.pagina);
+        }
+        faltas.incrementAndGet();
+        Metricas.contar(Metricas.Contador.CACHE_FALTAS, 1);
+
+        Entrada anterior = entrada;
+        try {
+            return copiar(buscas.executar(chave, () -> atualizar(chave, params, anterior)));
+        } catch (InterruptedIOException e) {
+            // Cansou de esperar a busca de outra thread: como na falha da API, serve a cópia vencida se houver
+            if (anterior != null && !Thread.currentThread().isInterrupted()) {
+                obsoletos.incrementAndGet();
+                return copiar(anterior.pagina);
+            }
+            throw e;
+        }
+    }
+
+    // Busca na API e guarda o resultado; só uma thread por chave passa por aqui de cada vez
+    private PaginaNoticias atualizar(String chave, Map<String, String> params, Entrada anterior) throws IOException {
+        long agora = System.currentTimeMillis();
+        // Outra busca pela mesma chave pode ter terminado entre a consulta à memória e a chegada aqui
+        synchronized (memoria) {
+            Entrada atual = memoria.get(chave);
+            if (atual != null && atual != anterior && atual.expiraEm > agora) {
+                return atual.pagina;
+            }
+        }
+
+        long expiraEm = imutavel(params) ? Long.MAX_VALUE : agora + ttlMillis;
+        Entrada nova;
+        try {
+            nova = ResilienciaHttp.padrao().executar(() -> buscarNaApi(chave, params, anterior, expiraEm));
+        } catch (IOException e) {
+            // Com a API falhando (ou o circuito aberto), uma cópia vencida é melhor que nenhuma
+            if (anterior != null) {
+                obsoletos.incrementAndGet();
+                System.err.println("API indisponível (" + e.getMessage() + "); usando resultado guardado.");
+                return anterior.pagina;
+            }
+            throw e;
+        }
+
+        synchronized (memoria) {
+            memoria.put(chave, nova);
+        }
+        gravarNoDisco(nova);
+        return nova.pagina;
+    }
+
+    // Vai à API, revalidando a entrada anterior quando houver ETag/Last-Modified
+    private Entrada buscarNaApi(String chave, Map<String, String> params, Entrada anterior, long expiraEm) throws IOException {
+        TransporteHttp.Resposta resposta = TransporteHttp.padrao().getCondicional(IBGENoticiasAPI.montarUri(params),
+                anterior != null ? anterior.etag : null, anterior != null ? anterior.lastModified : null);
+
+        PaginaNoticias pagina;
+        if (resposta.getStatus() == 304 && anterior != null) {
+            revalidacoes.incrementAndGet();
+            pagina = anterior.pagina;
+        } else {
+            try (Reader reader = new InputStreamReader(resposta.getCorpo(), StandardCharsets.UTF_8)) {
+                pagina = IBGENoticiasAPI.lerPagina(reader);
+            }
+        }
+        return new Entrada(chave, pagina, resposta.getEtag(), resposta.getLastModified(), expiraEm);
+    }
+
+    // Remove todas as entradas, da memória e do disco
+    public void limpar() {
+        synchronized (memoria) {
+            memoria.clear();
+        }
+        File[] arquivos = diretorio.listFiles((dir, nome) -> nome.endsWith(".json"));
+        if (arquivos != null) {
+            for (File arquivo : arquivos) {
+                arquivo.delete();
+            }
+        }
+        bytesNoDisco.set(-1);
+    }
+
+    public long getAcertos() { return acertos.get(); }
+    public long getFaltas() { return faltas.get(); }
+    public long getDespejos() { return despejos.get(); }
+    public long getRevalidacoes() { return revalidacoes.get(); }
+    public long getObsoletos() { return obsoletos.get(); }
+    public long getDespejosDisco() { return despejosDisco.get(); }
+    public long getCoalescidas() { return buscas.getCoalescidas(); }
+
+    // Chave normalizada: parâmetros ordenados por nome, sem espaços sobrando e sem diferença de maiúsculas no termo
+    static String chave(Map<String, String> params) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : new TreeMap<>(params).entrySet()) {
+            String valor = entry.getValue() == null ? "" : entry.getValue().trim();
+            if (entry.getKey().equals("q")) {
+                valor = valor.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+            }
+            sb.append(entry.getKey()).append('=').append(valor).append('&');
+        }
+        return sb.toString();
+    }
+
+    // Um período que termina antes de hoje não muda mais, então pode ficar guardado para sempre
+    private static boolean imutavel(Map<String, String> params) {
+        String ate = params.get("ate");
+        if (ate == null) {
+            return false;
+        }
+        try {
+            return LocalDate.parse(ate.replace("-", ""), FORMATO_PARAMETRO).isBefore(LocalDate.now());
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private File arquivoDaChave(String chave) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(chave.getBytes(StandardCharsets.UTF_8));
+            StringBuilder nome = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                nome.append(String.format("%02x", hash[i]));
+            }
+            return new File(diretorio, nome + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private Entrada lerDoDisco(String chave) {
+        File arquivo = arquivoDaChave(chave);
+        long agora = System.currentTimeMillis();
+        long modificado = arquivo.lastModified(); // 0 se não existir
+        if (modificado == 0) {
+            return null;
+        }
+        if (agora - modificado > idadeMaximaDisco) {
+            if (arquivo.delete()) {
+                despejosDisco.incrementAndGet();
+            }
+            return null;
+        }
+        Entrada entrada;
+        try (Reader reader = new InputStreamReader(new FileInputStream(arquivo), StandardCharsets.UTF_8)) {
+            entrada = gson.fromJson(reader, Entrada.class);
+        } catch (FileNotFoundException e) {
+            return null; // Podada por outra thread depois da consulta à data
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Entrada de cache ignorada (" + arquivo.getName() + "): " + e.getMessage());
+            return null;
+        }
+        // Confere a chave para não devolver outra busca em caso de colisão de nome
+        if (entrada == null || !chave.equals(entrada.chave)) {
+            return null;
+        }
+        // A data do arquivo marca o último uso: a poda tira primeiro as entradas usadas há mais tempo
+        arquivo.setLastModified(agora);
+        return entrada;
+    }
+
+    // Grava em um arquivo temporário e renomeia, para nunca deixar uma entrada pela metade
+    private void gravarNoDisco(Entrada entrada) {
+        // Outra thread pode criar o diretório entre o teste e o mkdirs
+        if (!diretorio.mkdirs() && !diretorio.isDirectory()) {
+            System.err.println("Atenção: Não foi possível criar o diretório '" + diretorio + "'.");
+            return;
+        }
+        File destino = arquivoDaChave(entrada.chave);
+        try {
+            File temporario = File.createTempFile("cache", ".tmp", diretorio);
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(temporario), StandardCharsets.UTF_8)) {
+                gson.toJson(entrada, writer);
+            }
+            long substituido = destino.length(); // 0 se ainda não existir
+            Files.move(temporario.toPath(), destino.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            long total = bytesNoDisco.get() < 0 ? -1 : bytesNoDisco.addAndGet(destino.length() - substituido);
+            if (total < 0 || total > maxBytesDisco) {
+                podarDisco();
+            }
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar cache em disco: " + e.getMessage());
+        }
+    }
+
+    // Apaga as entradas sem uso há mais que a idade máxima e, se o total ainda passar do limite, as usadas há
+    // mais tempo, até o total ficar em 90% do limite (para a próxima gravação não podar de novo). Também recalcula
+    // o total a partir do diretório. Se outra thread já estiver podando, não faz nada.
+    private void podarDisco() {
+        if (!podando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            File[] arquivos = diretorio.listFiles((dir, nome) -> nome.endsWith(".json"));
+            if (arquivos == null) {
+                return;
+            }
+            long agora = System.currentTimeMillis();
+            long total = 0;
+            // Data e tamanho lidos uma vez só, para a ordenação não mudar no meio
+            List<long[]> restantes = new ArrayList<>();
+            for (int i = 0; i < arquivos.length; i++) {
+                long modificado = arquivos[i].lastModified();
+                if (agora - modificado > idadeMaximaDisco) {
+                    if (arquivos[i].delete()) {
+                        despejosDisco.incrementAndGet();
+                    }
+                    continue;
+                }
+                long tamanho = arquivos[i].length();
+                total += tamanho;
+                restantes.add(new long[]{modificado, tamanho, i});
+            }
+            if (total > maxBytesDisco) {
+                restantes.sort(Comparator.comparingLong(a -> a[0]));
+                for (long[] r : restantes) {
+                    if (total <= maxBytesDisco * 9 / 10) {
+                        break;
+                    }
+                    if (arquivos[(int) r[2]].delete()) {
+                        despejosDisco.incrementAndGet();
+                        total -= r[1];
+                    }
+                }
+            }
+            bytesNoDisco.set(total);
+        } finally {
+            podando.set(false);
+        }
+    }
+
+    // Copia o envelope e a lista, não as notícias (ver obter)
+    private static PaginaNoticias copiar(PaginaNoticias original) {
+        PaginaNoticias copia = new PaginaNoticias();
+        copia.setCount(original.getCount());
+        copia.setPage(original.getPage());
+        copia.setTotalPages(original.getTotalPages());
+        copia.setNextPage(original.getNextPage());
+        copia.setNoticias(new ArrayList<>(original.getNoticias()));
+        return copia;
+    }
+
+    // Entrada do cache, no mesmo formato em memória e em disco
+    private static class Entrada {
+        private String chave;
+        private PaginaNoticias pagina;
+        private String etag;
+        private String lastModified;
+        private long expiraEm;
+
+        Entrada(String chave, PaginaNoticias pagina, String etag, String lastModified, long expiraEm) {
+            this.chave = chave;
+            this.pagina = pagina;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+// Usuários do modo servidor: cada um tem seu diretório em <diretorio>/<id>/ (usuario.json, usuario.bin e o log)
+// e só é carregado na primeira requisição que o usa.
+//
+// Os usuários carregados ficam em fatias escolhidas pelo hash do id, cada uma com sua própria trava e sua
+// lista LRU; requisições de usuários em fatias diferentes nunca disputam a mesma trava. Ao passar da
+// capacidade, o usuário menos usado da fatia é descarregado (o log já guardou cada alteração no disco).
+// O descarregamento (snapshot e fsync) roda depois de soltar a trava da fatia; se o mesmo usuário voltar
+// nesse meio tempo, a sessão nova só carrega do disco depois que a antiga terminou de ser fechada.
+// As operações sobre um mesmo usuário são serializadas na sessão dele.
+
+public class CadastroUsuarios {
+    private static final int FATIAS = 64;
+    // O id vira nome de diretório, então só letras, dígitos, _ e -
+    private static final Pattern ID_VALIDO = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    /**
+     * Operação sobre um usuário carregado, executada com a sessão dele travada.
+     * @param <T> Tipo do resultado.
+     */
+    @FunctionalInterface
+    public interface Operacao<T> {
+        T executar(Usuario usuario, Persistencia persistencia) throws IOException;
+    }
+
+    // Um usuário em memória; o carregamento é feito na primeira operação, fora da trava da fatia
+    private static final class Sessao {
+        private final String id;
+        private final Persistencia persistencia;
+        private Usuario usuario;
+        private boolean descarregada; // Removida da fatia e fechada: quem ainda a tiver deve buscar de novo
+        private Sessao anterior; // Sessão do mesmo id ainda sendo fechada quando esta foi criada
+
+        Sessao(String id, Persistencia persistencia) {
+            this.id = id;
+            this.persistencia = persistencia;
+        }
+    }
+
+    private final File diretorio;
+    private final int capacidadePorFatia;
+    private final List<LinkedHashMap<String, Sessao>> fatias = new ArrayList<>(FATIAS);
+    // Por fatia, as sessões já removidas que ainda estão sendo fechadas (protegido pela trava da fatia)
+    private final List<Map<String, Sessao>> fechando = new ArrayList<>(FATIAS);
+
+    private final AtomicLong carregamentos = new AtomicLong();
+    private final AtomicLong despejos = new AtomicLong();
+
+    /**
+     * @param diretorio Diretório com um subdiretório por usuário.
+     * @param capacidade Quantos usuários podem ficar carregados ao mesmo tempo (aproximado: o limite é por fatia).
+     */
+    public CadastroUsuarios(File diretorio, int capacidade) {
+        this.diretorio = diretorio;
+        this.capacidadePorFatia = Math.max(1, (capacidade + FATIAS - 1) / FATIAS);
+        for (int i = 0; i < FATIAS; i++) {
+            // Em ordem de acesso: o primeiro da fatia é o menos usado
+            fatias.add(new LinkedHashMap<>(16, 0.75f, true));
+            fechando.add(new HashMap<>());
+        }
+    }
+
+    public static boolean idValido(String id) {
+        return id != null && ID_VALIDO.matcher(id).matches();
+    }
+
+    /**
+     * Executa a operação sobre o usuário, carregando-o do disco (ou criando-o) se preciso.
+     * @param id Id do usuário (ver idValido).
+     * @param operacao Operação; roda com a sessão do usuário travada.
+     * @return O resultado da operação.
+     * @throws IOException Se o usuário não puder ser carregado ou a operação falhar.
+     */
+    public <T> T executar(String id, Operacao<T> operacao) throws IOException {
+        if (!idValido(id)) {
+            throw new IllegalArgumentException("Id de usuário inválido: " + id);
+        }
+        while (true) {
+            Sessao sessao = obterSessao(id);
+            synchronized (sessao) {
+                if (sessao.descarregada) {
+                    continue; // Foi despejada entre a busca na fatia e a trava; pega a nova
+                }
+                if (sessao.usuario == null) {
+                    if (sessao.anterior != null) {
+                        aguardarFechamento(sessao.anterior);
+                        sessao.anterior = null;
+                    }
+                    sessao.usuario = carregar(sessao);
+                }
+                return operacao.executar(sessao.usuario, sessao.persistencia);
+            }
+        }
+    }
+
+    // Salva todos os usuários carregados (ex: ao encerrar o servidor)
+    public void salvarTodos() {
+        for (LinkedHashMap<String, Sessao> fatia : fatias) {
+            List<Sessao> sessoes;
+            synchronized (fatia) {
+                sessoes = new ArrayList<>(fatia.values());
+            }
+            for (Sessao sessao : sessoes) {
+                synchronized (sessao) {
+                    if (!sessao.descarregada && sessao.usuario != null) {
+                        sessao.persistencia.fechar(sessao.usuario);
+                    }
+                }
+            }
+        }
+    }
+
+    public int getCarregados() {
+        int total = 0;
+        for (LinkedHashMap<String, Sessao> fatia : fatias) {
+            synchronized (fatia) {
+                total += fatia.size();
+            }
+        }
+        return total;
+    }
+
+    public long getCarregamentos() { return carregamentos.get(); }
+    public long getDespejos() { return despejos.get(); }
+
+    private Sessao obterSessao(String id) {
+        int indice = Math.floorMod(espalhar(id.hashCode()), FATIAS);
+        LinkedHashMap<String, Sessao> fatia = fatias.get(indice);
+        Map<String, Sessao> fechandoNaFatia = fechando.get(indice);
+        Sessao sessao;
+        Sessao despejada = null;
+        synchronized (fatia) {
+            sessao = fatia.get(id);
+            if (sessao == null) {
+                sessao = new Sessao(id, new Persistencia(new File(diretorio, id), false));
+                sessao.anterior = fechandoNaFatia.get(id);
+                fatia.put(id, sessao);
+                if (fatia.size() > capacidadePorFatia) {
+                    Iterator<Sessao> menosUsada = fatia.values().iterator();
+                    despejada = menosUsada.next();
+                    menosUsada.remove();
+                    fechandoNaFatia.put(despejada.id, despejada);
+                }
+            }
+        }
+        if (despejada != null) {
+            despejar(despejada, fatia, fechandoNaFatia);
+        }
+        return sessao;
+    }
+
+    // Fecha a sessão já removida da fatia, sem a trava da fatia: as outras requisições da fatia não esperam o disco
+    private void despejar(Sessao sessao, LinkedHashMap<String, Sessao> fatia, Map<String, Sessao> fechandoNaFatia) {
+        synchronized (sessao) {
+            if (sessao.usuario != null) {
+                sessao.persistencia.fechar(sessao.usuario);
+            }
+            sessao.descarregada = true;
+            sessao.notifyAll();
+        }
+        synchronized (fatia) {
+            fechandoNaFatia.remove(sessao.id, sessao);
+        }
+        despejos.incrementAndGet();
+    }
+
+    // Espera as sessões anteriores do mesmo usuário terminarem de gravar, para não carregar um snapshot velho.
+    // Uma anterior despejada antes de carregar ainda aponta para a dela, que pode estar gravando
+    private static void aguardarFechamento(Sessao anterior) throws IOException {
+        for (Sessao s = anterior; s != null; ) {
+            synchronized (s) {
+                while (!s.descarregada) {
+                    try {
+                        s.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Espera pelo fechamento do usuário '" + s.id + "' interrompida.", e);
+                    }
+                }
+                s = s.anterior;
+            }
+        }
+    }
+
+    private Usuario carregar(Sessao sessao) throws IOException {
+        carregamentos.incrementAndGet();
+        Usuario usuario = sessao.persistencia.carregar();
+        if (usuario != null) {
+            return usuario;
+        }
+        if (sessao.persistencia.existe()) {
+            // Não sobrescreve um arquivo que só não pôde ser lido
+            throw new IOException("Não foi possível carregar os dados do usuário '" + sessao.id + "'.");
+        }
+        // Usuário novo: o snapshot é gravado já, para o log das próximas alterações ter sobre o que ser reaplicado
+        usuario = new Usuario(sessao.id);
+        sessao.persistencia.salvar(usuario);
+        return usuario;
+    }
+
+    // Mistura os bits altos do hash nos baixos, como o HashMap, antes de escolher a fatia
+    private static int espalhar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
\ No newline at end of file
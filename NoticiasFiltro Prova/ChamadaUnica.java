@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Junta chamadas idênticas simultâneas ("single-flight"): enquanto uma busca está em andamento para uma chave,
+// quem pedir a mesma chave espera por ela e recebe o mesmo resultado, em vez de repetir a requisição.
+//
+// A primeira chamada (a líder) executa na própria thread; as demais só esperam. Uma espera interrompida
+// ou vencida não afeta as outras: só quem desistiu recebe o erro. Se a líder for interrompida, quem estava
+// esperando tenta de novo, e um deles vira o novo líder.
+
+public class ChamadaUnica<T> {
+
+    private final ConcurrentHashMap<String, CompletableFuture<T>> emAndamento = new ConcurrentHashMap<>();
+    private final long tempoMaximoMillis;
+    private final AtomicLong coalescidas = new AtomicLong();
+
+    /**
+     * @param tempoMaximoMillis Quanto uma chamada espera pela de outra thread antes de desistir; depois disso
+     *                          a chave é liberada, e a próxima chamada vai à API em vez de esperar pela travada.
+     */
+    public ChamadaUnica(long tempoMaximoMillis) {
+        this.tempoMaximoMillis = tempoMaximoMillis;
+    }
+
+    /**
+     * Executa a chamada, ou espera a que já está em andamento para a mesma chave.
+     * @param chave Chave normalizada da chamada (ex: CacheNoticias.chave).
+     * @param chamada Chamada a executar se não houver outra em andamento.
+     * @return O resultado, compartilhado com quem esperou pela mesma chamada.
+     * @throws IOException O erro da chamada, ou InterruptedIOException se a espera for interrompida ou vencer.
+     */
+    public T executar(String chave, ResilienciaHttp.Chamada<T> chamada) throws IOException {
+        boolean contada = false;
+        while (true) {
+            CompletableFuture<T> nova = new CompletableFuture<>();
+            CompletableFuture<T> existente = emAndamento.putIfAbsent(chave, nova);
+            if (existente == null) {
+                return liderar(chave, nova, chamada);
+            }
+            if (!contada) {
+                contada = true; // Uma nova tentativa depois de uma líder interrompida não conta de novo
+                coalescidas.incrementAndGet();
+                Metricas.contar(Metricas.Contador.COALESCIDAS, 1);
+            }
+            try {
+                return esperar(chave, existente);
+            } catch (CancellationException e) {
+                // A líder foi interrompida; tenta de novo
+            }
+        }
+    }
+
+    public long getCoalescidas() {
+        return coalescidas.get();
+    }
+
+    // Chamadas em andamento no momento
+    public int getEmAndamento() {
+        return emAndamento.size();
+    }
+
+    private T liderar(String chave, CompletableFuture<T> futuro, ResilienciaHttp.Chamada<T> chamada) throws IOException {
+        try {
+            T resultado = chamada.executar();
+            futuro.complete(resultado);
+            return resultado;
+        } catch (IOException | RuntimeException | Error e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // A interrupção é desta thread, não das que esperam: elas tentam de novo
+                futuro.cancel(false);
+            } else {
+                futuro.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            emAndamento.remove(chave, futuro);
+        }
+    }
+
+    private T esperar(String chave, CompletableFuture<T> futuro) throws IOException {
+        try {
+            return futuro.get(tempoMaximoMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Espera pela busca em andamento interrompida.");
+        } catch (TimeoutException e) {
+            // Libera a chave: a chamada travada continua, mas as próximas não esperam mais por ela
+            emAndamento.remove(chave, futuro);
+            throw new InterruptedIOException("Tempo esgotado (" + tempoMaximoMillis + " ms) esperando a busca em andamento.");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException) {
+                throw (IOException) causa;
+            }
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new IOException(causa);
+        }
+    }
+}
\ No newline at end of file
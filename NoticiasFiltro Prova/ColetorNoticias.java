@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Classe que coleta todas as páginas de uma busca na API do IBGE, buscando as páginas restantes em paralelo
+
+public class ColetorNoticias {
+    public static final int QTD_PADRAO = 100;
+    public static final int MAX_REQUISICOES_PADRAO = 4;
+
+    private final int qtdPorPagina;
+    private final int maxRequisicoes;
+    private final boolean usarCache;
+    private final Set<Noticia.Campo> campos;
+
+    public ColetorNoticias() {
+        this(QTD_PADRAO, MAX_REQUISICOES_PADRAO);
+    }
+
+    public ColetorNoticias(int qtdPorPagina, int maxRequisicoes) {
+        this(qtdPorPagina, maxRequisicoes, true);
+    }
+
+    // Com usarCache = false todas as páginas vêm direto da API (ex: sincronização do espelho)
+    public ColetorNoticias(int qtdPorPagina, int maxRequisicoes, boolean usarCache) {
+        this(qtdPorPagina, maxRequisicoes, usarCache, Noticia.TODOS_OS_CAMPOS);
+    }
+
+    // Com uma projeção, só os campos pedidos são decodificados (páginas projetadas não passam pelo cache)
+    public ColetorNoticias(int qtdPorPagina, int maxRequisicoes, boolean usarCache, Set<Noticia.Campo> campos) {
+        if (qtdPorPagina < 1 || maxRequisicoes < 1) {
+            throw new IllegalArgumentException("Tamanho de página e número de requisições devem ser positivos.");
+        }
+        this.qtdPorPagina = qtdPorPagina;
+        this.maxRequisicoes = maxRequisicoes;
+        this.usarCache = usarCache;
+        this.campos = campos;
+    }
+
+    public List<Noticia> coletarPorTermo(String termo) throws IOException {
+        return coletar(IBGENoticiasAPI.parametrosPorTermo(termo));
+    }
+
+    public List<Noticia> coletarPorData(String dataInicial, String dataFinal) throws IOException {
+        return coletar(IBGENoticiasAPI.parametrosPorData(dataInicial, dataFinal));
+    }
+
+    /**
+     * Busca a primeira página, descobre o total de páginas pelo envelope e busca as demais em paralelo,
+     * com no máximo maxRequisicoes requisições simultâneas. Uma página que falha não cancela as outras:
+     * todas terminam (e, com cache, ficam guardadas para a próxima tentativa) antes do erro ser lançado.
+     * @param params Parâmetros da busca (sem "page" e "qtd", que são controlados pelo coletor).
+     * @return Todas as notícias, na ordem das páginas, sem ids repetidos.
+     * @throws IOException Se alguma das páginas falhar; a mensagem diz quais, e a causa é o erro da primeira.
+     */
+    public List<Noticia> coletar(Map<String, String> params) throws IOException {
+        PaginaNoticias primeira = buscarPagina(parametrosDaPagina(params, 1));
+
+        // Junta os resultados pela ordem das páginas, descartando ids repetidos entre páginas
+        Map<String, Noticia> resultado = new LinkedHashMap<>();
+        adicionarSemRepetir(resultado, primeira.getNoticias());
+
+        int totalPaginas = primeira.getTotalPages();
+        if (totalPaginas <= 1) {
+            return new ArrayList<>(resultado.values());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxRequisicoes, totalPaginas - 1));
+        List<Future<PaginaNoticias>> paginas = new ArrayList<>();
+        for (int pagina = 2; pagina <= totalPaginas; pagina++) {
+            Map<String, String> paramsPagina = parametrosDaPagina(params, pagina);
+            paginas.add(executor.submit(() -> buscarPagina(paramsPagina)));
+        }
+        // Sem shutdownNow: interromper as páginas em andamento só desperdiçaria o que já foi buscado
+        executor.shutdown();
+
+        List<Integer> falhas = new ArrayList<>();
+        List<Throwable> erros = new ArrayList<>();
+        try {
+            for (int i = 0; i < paginas.size(); i++) {
+                try {
+                    adicionarSemRepetir(resultado, paginas.get(i).get().getNoticias());
+                } catch (ExecutionException e) {
+                    falhas.add(i + 2);
+                    erros.add(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            // Quem chamou desistiu da coleta inteira
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw ResilienciaHttp.interrupcao("Coleta de páginas interrompida.", e);
+        }
+
+        if (!falhas.isEmpty()) {
+            Throwable primeiro = erros.get(0);
+            if (primeiro instanceof Error) {
+                throw (Error) primeiro;
+            }
+            IOException erro = new IOException("Falha em " + falhas.size() + " de " + totalPaginas + " páginas " + falhas
+                    + ": " + primeiro.getMessage(), primeiro);
+            for (Throwable outro : erros.subList(1, erros.size())) {
+                erro.addSuppressed(outro);
+            }
+            throw erro;
+        }
+        return new ArrayList<>(resultado.values());
+    }
+
+    private PaginaNoticias buscarPagina(Map<String, String> params) throws IOException {
+        return usarCache ? IBGENoticiasAPI.buscarPagina(params, campos) : IBGENoticiasAPI.buscarPaginaRemota(params, campos);
+    }
+
+    private Map<String, String> parametrosDaPagina(Map<String, String> params, int pagina) {
+        Map<String, String> paramsPagina = new HashMap<>(params);
+        paramsPagina.put("page", String.valueOf(pagina));
+        paramsPagina.put("qtd", String.valueOf(qtdPorPagina));
+        return paramsPagina;
+    }
+
+    private static void adicionarSemRepetir(Map<String, Noticia> resultado, List<Noticia> noticias) {
+        for (Noticia n : noticias) {
+            resultado.putIfAbsent(n.getId(), n);
+        }
+    }
+}
\ No newline at end of file
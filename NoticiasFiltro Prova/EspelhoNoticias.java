@@ -0,0 +1,437 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+// Espelho local das notícias do IBGE, sincronizado de forma incremental
+//
+// As notícias ficam em data/espelho/noticias.ndjson (uma notícia por linha, só acrescentando) e a marca
+// d'água (data da notícia mais recente já gravada) em data/espelho/estado.json. Cada sincronização
+// pede à API só o que foi publicado a partir da marca d'água, em janelas de alguns dias ("de" e "ate"),
+// da mais antiga para a mais recente. Cada janela é gravada e a marca d'água avança antes da próxima, então
+// só uma janela fica em memória e uma falha no meio não perde o que já foi gravado: a próxima
+// sincronização continua dali. Na primeira vez, a janela inicial começa no dia da notícia mais antiga da API.
+//
+// Ao lado de cada notícia fica a sua assinatura MinHash (SimilaridadeNoticias), em data/espelho/assinaturas.bin,
+// na mesma ordem do noticias.ndjson: cabeçalho (int MAGICO, int versão, int TAMANHO) e, por notícia, o hash do id
+// seguido dos TAMANHO valores. Assinaturas que faltam ou não conferem com o id são recalculadas na carga.
+//
+// Uso: java EspelhoNoticias sincronizar | termo <texto> | periodo <AAAA-MM-DD> <AAAA-MM-DD> | recomendar
+
+public class EspelhoNoticias {
+    private static final String DIRETORIO = "data" + File.separator + "espelho";
+    private static final DateTimeFormatter FORMATO_PARAMETRO = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final int MAGICO_ASSINATURAS = 0x4E464D48; // "NFMH"
+    // Dias por janela de sincronização; configurável pela propriedade "noticias.espelho.janela"
+    private static final int JANELA_DIAS = Math.max(1, Integer.getInteger("noticias.espelho.janela", 30));
+    // Só as notícias adicionadas por último em favoritos e lidas formam o perfil de interesse
+    private static final int PERFIL_POR_LISTA = 200;
+
+    private static final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .registerTypeAdapter(LocalDateTime.class, new IBGENoticiasAPI.LocalDateTimeAdapter())
+            .registerTypeAdapter(Noticia.class, new IBGENoticiasAPI.NoticiaAdapter())
+            .create();
+
+    private final File arquivoNoticias;
+    private final File arquivoEstado;
+    private final File arquivoAssinaturas;
+    private final Map<String, Noticia> noticias = new LinkedHashMap<>();
+    private final NavigableMap<LocalDate, List<Noticia>> porDia = new TreeMap<>();
+    private final IndiceNoticias indice = new IndiceNoticias();
+    private final SimilaridadeNoticias similaridade = new SimilaridadeNoticias();
+    private Estado estado = new Estado();
+
+    // Marca d'água da sincronização
+    private static class Estado {
+        private LocalDateTime ultimaData;
+    }
+
+    // Números de uma sincronização
+    public static class Sincronizacao {
+        private final boolean completa;
+        private final int novas;
+        private final long bytes;
+        private final long millis;
+
+        Sincronizacao(boolean completa, int novas, long bytes, long millis) {
+            this.completa = completa;
+            this.novas = novas;
+            this.bytes = bytes;
+            this.millis = millis;
+        }
+
+        public boolean isCompleta() { return completa; }
+        public int getNovas() { return novas; }
+        public long getBytes() { return bytes; }
+        public long getMillis() { return millis; }
+
+        @Override
+        public String toString() {
+            return String.format("Sincronização %s: %d notícias novas, %.1f KiB recebidos, %d ms",
+                    completa ? "completa" : "incremental", novas, bytes / 1024.0, millis);
+        }
+    }
+
+    public EspelhoNoticias() {
+        this(new File(DIRETORIO));
+    }
+
+    public EspelhoNoticias(File diretorio) {
+        this.arquivoNoticias = new File(diretorio, "noticias.ndjson");
+        this.arquivoEstado = new File(diretorio, "estado.json");
+        this.arquivoAssinaturas = new File(diretorio, "assinaturas.bin");
+    }
+
+    /**
+     * Carrega o espelho do disco. Uma última linha incompleta (queda durante a gravação) é ignorada.
+     * @throws IOException Se os arquivos existirem mas não puderem ser lidos.
+     */
+    public synchronized void carregar() throws IOException {
+        if (arquivoEstado.exists()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(arquivoEstado), StandardCharsets.UTF_8)) {
+                Estado lido = gson.fromJson(reader, Estado.class);
+                if (lido != null) {
+                    estado = lido;
+                }
+            } catch (JsonParseException e) {
+                throw new IOException("Estado do espelho corrompido: " + e.getMessage(), e);
+            }
+        }
+        if (!arquivoNoticias.exists()) {
+            return;
+        }
+        DataInputStream assinaturas = abrirAssinaturas();
+        boolean regravar = assinaturas == null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(arquivoNoticias), StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                try {
+                    Noticia n = gson.fromJson(linha, Noticia.class);
+                    if (n != null && !noticias.containsKey(n.getId())) {
+                        int[] assinatura = assinaturas != null ? lerAssinatura(assinaturas, n) : null;
+                        if (assinatura == null) {
+                            // Dali em diante o arquivo não acompanha mais o ndjson
+                            regravar = true;
+                            if (assinaturas != null) {
+                                assinaturas.close();
+                                assinaturas = null;
+                            }
+                        }
+                        guardarNaMemoria(n, assinatura);
+                    }
+                } catch (JsonParseException e) {
+                    System.err.println("Atenção: Linha incompleta ignorada no espelho.");
+                    break;
+                }
+            }
+            // Assinaturas sobrando (de uma linha perdida) desalinhariam as próximas gravações
+            if (assinaturas != null && assinaturas.read() != -1) {
+                regravar = true;
+            }
+        } finally {
+            if (assinaturas != null) {
+                assinaturas.close();
+            }
+        }
+        if (regravar) {
+            gravarAssinaturas();
+        }
+    }
+
+    /**
+     * Busca na API as notícias publicadas a partir da marca d'água (ou todas, na primeira vez), janela por janela,
+     * acrescentando as novas ao arquivo e avançando a marca d'água ao fim de cada janela.
+     * @return Tempo, bytes recebidos e quantidade de notícias novas.
+     * @throws IOException Se a API ou o disco falharem; as janelas anteriores à que falhou ficam gravadas.
+     */
+    public synchronized Sincronizacao sincronizar() throws IOException {
+        long inicio = System.currentTimeMillis();
+        long bytesAntes = TransporteHttp.padrao().getBytesRecebidos();
+        boolean completa = estado.ultimaData == null;
+
+        // A API filtra por dia, então o dia da marca d'água é pedido de novo e os ids já vistos são descartados
+        LocalDate de = completa ? diaMaisAntigo() : estado.ultimaData.toLocalDate();
+        LocalDate hoje = LocalDate.now();
+        ColetorNoticias coletor = new ColetorNoticias(ColetorNoticias.QTD_PADRAO, ColetorNoticias.MAX_REQUISICOES_PADRAO, false);
+        int novas = 0;
+        while (de != null && !de.isAfter(hoje)) {
+            LocalDate ate = de.plusDays(JANELA_DIAS - 1);
+            Map<String, String> params = new HashMap<>();
+            params.put("de", de.format(FORMATO_PARAMETRO));
+            // A última janela fica aberta, para não perder o que for publicado durante a sincronização
+            if (ate.isBefore(hoje)) {
+                params.put("ate", ate.format(FORMATO_PARAMETRO));
+            }
+            novas += gravarJanela(coletor.coletar(params));
+            de = ate.plusDays(1);
+        }
+
+        return new Sincronizacao(completa, novas, TransporteHttp.padrao().getBytesRecebidos() - bytesAntes,
+                System.currentTimeMillis() - inicio);
+    }
+
+    // Dia da notícia mais antiga da API (a da última página, pedindo uma notícia por página); null se não houver nenhuma
+    private static LocalDate diaMaisAntigo() throws IOException {
+        Set<Noticia.Campo> soData = EnumSet.of(Noticia.Campo.DATA);
+        Map<String, String> params = new HashMap<>();
+        params.put("qtd", "1");
+        int total = IBGENoticiasAPI.buscarPaginaRemota(params, soData).getCount();
+        if (total == 0) {
+            return null;
+        }
+        params.put("page", String.valueOf(total));
+        List<Noticia> ultima = IBGENoticiasAPI.buscarPaginaRemota(params, soData).getNoticias();
+        if (ultima.isEmpty() || ultima.get(0).getDataPublicacao() == null) {
+            throw new IOException("Não foi possível descobrir a notícia mais antiga da API; tente sincronizar de novo.");
+        }
+        return ultima.get(0).getDataPublicacao().toLocalDate();
+    }
+
+    // Grava as notícias ainda não vistas de uma janela e avança a marca d'água; devolve quantas eram novas
+    private int gravarJanela(List<Noticia> recebidas) throws IOException {
+        List<Noticia> novas = new ArrayList<>();
+        for (Noticia n : recebidas) {
+            if (n.getId() != null && !noticias.containsKey(n.getId())) {
+                novas.add(n);
+            }
+        }
+        if (novas.isEmpty()) {
+            return 0;
+        }
+        acrescentar(novas);
+        int primeiraNova = similaridade.tamanho();
+        for (Noticia n : novas) {
+            guardarNaMemoria(n, null);
+            avancarMarca(n);
+        }
+        acrescentarAssinaturas(primeiraNova);
+        gravarEstado();
+        return novas.size();
+    }
+
+    /**
+     * Recomenda notícias do espelho parecidas com as que o usuário favoritou ou leu (ver SimilaridadeNoticias).
+     * Notícias que já estão em favoritos ou lidas nunca são recomendadas.
+     * @param usuario Usuário cujas listas formam o perfil de interesse.
+     * @param limite Número máximo de recomendações.
+     * @return Da mais parecida para a menos parecida; vazia se o usuário não tiver favoritos nem lidas.
+     */
+    public synchronized List<SimilaridadeNoticias.Recomendacao> recomendar(Usuario usuario, int limite) {
+        Set<String> excluir = new HashSet<>();
+        List<Noticia> perfil = new ArrayList<>();
+        for (List<Noticia> lista : Arrays.asList(usuario.getFavoritos(), usuario.getLidas())) {
+            for (int i = lista.size() - 1; i >= 0; i--) {
+                Noticia n = lista.get(i);
+                if (excluir.add(n.getId()) && lista.size() - i <= PERFIL_POR_LISTA) {
+                    perfil.add(n);
+                }
+            }
+        }
+        return similaridade.recomendar(perfil, excluir, limite);
+    }
+
+    public synchronized List<Noticia> buscarPorTermo(String termo, int limite) {
+        return indice.buscar(termo, limite);
+    }
+
+    // Notícias publicadas entre as duas datas (inclusive), das mais recentes para as mais antigas
+    public synchronized List<Noticia> buscarPorData(LocalDate dataInicial, LocalDate dataFinal) {
+        List<Noticia> resultado = new ArrayList<>();
+        for (List<Noticia> dia : porDia.subMap(dataInicial, true, dataFinal, true).descendingMap().values()) {
+            resultado.addAll(dia);
+        }
+        return resultado;
+    }
+
+    public synchronized int tamanho() {
+        return noticias.size();
+    }
+
+    public synchronized LocalDateTime getUltimaData() {
+        return estado.ultimaData;
+    }
+
+    // Sem assinatura (null), ela é calculada aqui
+    private void guardarNaMemoria(Noticia n, int[] assinatura) {
+        if (noticias.putIfAbsent(n.getId(), n) != null) {
+            return;
+        }
+        indice.adicionar(n);
+        if (assinatura != null) {
+            similaridade.adicionar(n, assinatura);
+        } else {
+            similaridade.adicionar(n);
+        }
+        if (n.getDataPublicacao() != null) {
+            porDia.computeIfAbsent(n.getDataPublicacao().toLocalDate(), d -> new ArrayList<>()).add(n);
+        }
+    }
+
+    private void avancarMarca(Noticia n) {
+        LocalDateTime data = n.getDataPublicacao();
+        if (data != null && (estado.ultimaData == null || data.isAfter(estado.ultimaData))) {
+            estado.ultimaData = data;
+        }
+    }
+
+    // Acrescenta as notícias ao fim do arquivo e força a gravação antes de mexer na marca d'água
+    private void acrescentar(List<Noticia> novas) throws IOException {
+        if (novas.isEmpty()) {
+            return;
+        }
+        criarDiretorio();
+        try (FileOutputStream out = new FileOutputStream(arquivoNoticias, true)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            for (Noticia n : novas) {
+                writer.write(gson.toJson(n));
+                writer.write('\n');
+            }
+            writer.flush();
+            out.getFD().sync();
+        }
+    }
+
+    // Abre o arquivo de assinaturas já depois do cabeçalho; null se ele não existir ou for de outra versão
+    private DataInputStream abrirAssinaturas() throws IOException {
+        if (!arquivoAssinaturas.exists()) {
+            return null;
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(arquivoAssinaturas), 1 << 16));
+        try {
+            if (in.readInt() == MAGICO_ASSINATURAS && in.readInt() == SimilaridadeNoticias.VERSAO_ASSINATURA
+                    && in.readInt() == SimilaridadeNoticias.TAMANHO) {
+                return in;
+            }
+        } catch (EOFException e) {
+            // Cabeçalho incompleto: o arquivo é refeito
+        }
+        in.close();
+        return null;
+    }
+
+    // Próxima assinatura do arquivo, ou null se ele acabou ou se ela for de outra notícia
+    private static int[] lerAssinatura(DataInputStream in, Noticia n) throws IOException {
+        try {
+            int hashId = in.readInt();
+            int[] assinatura = new int[SimilaridadeNoticias.TAMANHO];
+            for (int i = 0; i < assinatura.length; i++) {
+                assinatura[i] = in.readInt();
+            }
+            return hashId == Objects.hashCode(n.getId()) ? assinatura : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    // Regrava o arquivo de assinaturas inteiro, na ordem do ndjson
+    private void gravarAssinaturas() throws IOException {
+        criarDiretorio();
+        File temporario = new File(arquivoAssinaturas.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporario), 1 << 16))) {
+            out.writeInt(MAGICO_ASSINATURAS);
+            out.writeInt(SimilaridadeNoticias.VERSAO_ASSINATURA);
+            out.writeInt(SimilaridadeNoticias.TAMANHO);
+            escreverAssinaturas(out, 0);
+        }
+        Files.move(temporario.toPath(), arquivoAssinaturas.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Acrescenta as assinaturas a partir da posição 'primeira'; se o arquivo não existir, grava todas
+    private void acrescentarAssinaturas(int primeira) throws IOException {
+        if (primeira == similaridade.tamanho()) {
+            return;
+        }
+        if (!arquivoAssinaturas.exists()) {
+            gravarAssinaturas();
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(arquivoAssinaturas, true), 1 << 16))) {
+            escreverAssinaturas(out, primeira);
+        }
+    }
+
+    // As posições no SimilaridadeNoticias seguem a ordem de inserção em 'noticias'
+    private void escreverAssinaturas(DataOutputStream out, int primeira) throws IOException {
+        int doc = 0;
+        for (Noticia n : noticias.values()) {
+            if (doc >= primeira) {
+                out.writeInt(Objects.hashCode(n.getId()));
+                for (int valor : similaridade.getAssinatura(doc)) {
+                    out.writeInt(valor);
+                }
+            }
+            doc++;
+        }
+    }
+
+    private void gravarEstado() throws IOException {
+        criarDiretorio();
+        File temporario = new File(arquivoEstado.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temporario), StandardCharsets.UTF_8)) {
+            gson.toJson(estado, writer);
+        }
+        Files.move(temporario.toPath(), arquivoEstado.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void criarDiretorio() throws IOException {
+        File diretorio = arquivoNoticias.getParentFile();
+        if (!diretorio.exists() && !diretorio.mkdirs()) {
+            throw new IOException("Não foi possível criar o diretório '" + diretorio + "'.");
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Uso: java EspelhoNoticias sincronizar | termo <texto> | periodo <AAAA-MM-DD> <AAAA-MM-DD> | recomendar");
+            System.exit(2);
+        }
+        EspelhoNoticias espelho = new EspelhoNoticias();
+        try {
+            espelho.carregar();
+            List<Noticia> resultado;
+            switch (args[0]) {
+                case "sincronizar":
+                    System.out.println(espelho.sincronizar());
+                    System.out.println("Notícias no espelho: " + espelho.tamanho() + ", mais recente: " + espelho.getUltimaData());
+                    return;
+                case "termo":
+                    resultado = espelho.buscarPorTermo(String.join(" ", Arrays.copyOfRange(args, 1, args.length)), 20);
+                    break;
+                case "periodo":
+                    resultado = espelho.buscarPorData(LocalDate.parse(args[1]), LocalDate.parse(args[2]));
+                    break;
+                case "recomendar":
+                    Usuario usuario = Persistencia.carregarUsuario();
+                    if (usuario == null) {
+                        System.err.println("Nenhum usuário salvo para recomendar.");
+                        System.exit(1);
+                        return;
+                    }
+                    for (SimilaridadeNoticias.Recomendacao r : espelho.recomendar(usuario, 20)) {
+                        System.out.println("\n" + r.getNoticia());
+                        System.out.printf(Locale.ROOT, "Similaridade: %.2f, parecida com: %s%n", r.getSimilaridade(), r.getReferencia().getTitulo());
+                    }
+                    return;
+                default:
+                    System.err.println("Comando desconhecido: " + args[0]);
+                    System.exit(2);
+                    return;
+            }
+            for (Noticia n : resultado) {
+                System.out.println("\n" + n);
+            }
+            System.out.println("\n" + resultado.size() + " notícias encontradas no espelho.");
+        } catch (IOException e) {
+            System.err.println("Erro no espelho de notícias: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
\ No newline at end of file
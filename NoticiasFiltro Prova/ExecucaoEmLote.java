@@ -0,0 +1,223 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Modo em lote (sem interação): lê um arquivo de consultas, executa em paralelo pela IBGENoticiasAPI
+// e escreve os resultados em NDJSON (um objeto JSON por linha), terminando com um resumo
+//
+// Formato do arquivo (uma consulta por linha; linhas vazias e iniciadas por # são ignoradas):
+//   termo <texto da busca>
+//   periodo <AAAA-MM-DD> <AAAA-MM-DD>
+//
+// Uso: java ExecucaoEmLote <arquivo> [--paralelo N] [--saida arquivo.ndjson]
+
+public class ExecucaoEmLote {
+    private static final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .registerTypeAdapter(LocalDateTime.class, new IBGENoticiasAPI.LocalDateTimeAdapter())
+            .registerTypeAdapter(Noticia.class, new IBGENoticiasAPI.NoticiaAdapter())
+            .create();
+
+    // Uma linha do arquivo de consultas
+    static class Consulta {
+        final int linha;
+        final String descricao;
+        final Map<String, String> params;
+
+        Consulta(int linha, String descricao, Map<String, String> params) {
+            this.linha = linha;
+            this.descricao = descricao;
+            this.params = params;
+        }
+    }
+
+    // Resultado de uma consulta para o resumo final
+    static class Resultado {
+        final Consulta consulta;
+        final long nanos;
+        final int noticias;
+        final String erro;
+
+        Resultado(Consulta consulta, long nanos, int noticias, String erro) {
+            this.consulta = consulta;
+            this.nanos = nanos;
+            this.noticias = noticias;
+            this.erro = erro;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Uso: java ExecucaoEmLote <arquivo> [--paralelo N] [--saida arquivo.ndjson]");
+            System.exit(2);
+        }
+        String arquivo = args[0];
+        int paralelo = 4;
+        String caminhoSaida = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--paralelo") && i + 1 < args.length) {
+                paralelo = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--saida") && i + 1 < args.length) {
+                caminhoSaida = args[++i];
+            } else {
+                System.err.println("Argumento desconhecido: " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        try {
+            List<Consulta> consultas = lerConsultas(Files.readAllLines(Paths.get(arquivo), StandardCharsets.UTF_8));
+            OutputStream destino = caminhoSaida != null ? new FileOutputStream(caminhoSaida) : System.out;
+            Writer saida = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), 1 << 16);
+            long inicio = System.nanoTime();
+            List<Resultado> resultados = executar(consultas, paralelo, saida);
+            saida.flush();
+            long duracao = System.nanoTime() - inicio;
+            if (caminhoSaida != null) {
+                saida.close();
+            }
+            imprimirResumo(resultados, duracao, System.err);
+            boolean houveFalha = resultados.stream().anyMatch(r -> r.erro != null);
+            System.exit(houveFalha ? 1 : 0);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Erro na execução em lote: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Converte as linhas do arquivo em consultas.
+     * @throws IllegalArgumentException Se alguma linha não estiver no formato esperado.
+     */
+    static List<Consulta> lerConsultas(List<String> linhas) {
+        List<Consulta> consultas = new ArrayList<>();
+        for (int i = 0; i < linhas.size(); i++) {
+            String linha = linhas.get(i).trim();
+            if (linha.isEmpty() || linha.startsWith("#")) {
+                continue;
+            }
+            String[] partes = linha.split("\\s+", 2);
+            String resto = partes.length > 1 ? partes[1].trim() : "";
+            if (partes[0].equalsIgnoreCase("termo") && !resto.isEmpty()) {
+                consultas.add(new Consulta(i + 1, linha, IBGENoticiasAPI.parametrosPorTermo(resto)));
+            } else if (partes[0].equalsIgnoreCase("periodo")) {
+                String[] datas = resto.split("\\s+");
+                if (datas.length != 2) {
+                    throw new IllegalArgumentException("Linha " + (i + 1) + ": use 'periodo AAAA-MM-DD AAAA-MM-DD'.");
+                }
+                try {
+                    if (LocalDate.parse(datas[0]).isAfter(LocalDate.parse(datas[1]))) {
+                        throw new IllegalArgumentException("Linha " + (i + 1) + ": a data inicial é posterior à final.");
+                    }
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Linha " + (i + 1) + ": data inválida (" + e.getParsedString() + ").");
+                }
+                consultas.add(new Consulta(i + 1, linha, IBGENoticiasAPI.parametrosPorData(datas[0], datas[1])));
+            } else {
+                throw new IllegalArgumentException("Linha " + (i + 1) + ": consulta não reconhecida: " + linha);
+            }
+        }
+        return consultas;
+    }
+
+    /**
+     * Executa as consultas em um pool de tamanho fixo, escrevendo cada notícia em NDJSON assim que
+     * a consulta dela termina. Falhas não interrompem as demais consultas.
+     * @return Um resultado por consulta, na ordem do arquivo.
+     */
+    static List<Resultado> executar(List<Consulta> consultas, int paralelo, Writer saida) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, paralelo));
+        try {
+            List<Future<Resultado>> futuros = new ArrayList<>();
+            for (Consulta consulta : consultas) {
+                futuros.add(executor.submit(() -> executarConsulta(consulta, saida)));
+            }
+            List<Resultado> resultados = new ArrayList<>();
+            for (Future<Resultado> futuro : futuros) {
+                try {
+                    resultados.add(futuro.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Falha inesperada na execução em lote", e.getCause());
+                }
+            }
+            return resultados;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Execução em lote interrompida", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Resultado executarConsulta(Consulta consulta, Writer saida) {
+        long inicio = System.nanoTime();
+        try {
+            List<Noticia> noticias = IBGENoticiasAPI.buscarNoticias(consulta.params);
+            long nanos = System.nanoTime() - inicio;
+            StringBuilder linhas = new StringBuilder();
+            for (Noticia n : noticias) {
+                JsonObject linha = new JsonObject();
+                linha.addProperty("consulta", consulta.descricao);
+                linha.add("noticia", gson.toJsonTree(n));
+                linhas.append(gson.toJson(linha)).append('\n');
+            }
+            // As linhas de uma consulta são escritas juntas, sem se misturar com as de outras threads
+            synchronized (saida) {
+                saida.write(linhas.toString());
+            }
+            return new Resultado(consulta, nanos, noticias.size(), null);
+        } catch (IOException | RuntimeException e) {
+            // Um erro inesperado (ex: JsonIOException ao serializar uma notícia) também fica só nesta linha
+            String erro = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new Resultado(consulta, System.nanoTime() - inicio, 0, erro);
+        }
+    }
+
+    static void imprimirResumo(List<Resultado> resultados, long duracaoNanos, PrintStream out) {
+        out.println("\n--- Resumo da execução em lote ---");
+        long[] latencias = new long[resultados.size()];
+        long totalNoticias = 0;
+        int falhas = 0;
+        for (int i = 0; i < resultados.size(); i++) {
+            Resultado r = resultados.get(i);
+            latencias[i] = r.nanos;
+            totalNoticias += r.noticias;
+            if (r.erro != null) {
+                falhas++;
+                out.printf("Linha %d [FALHA] %s (%.1f ms): %s%n", r.consulta.linha, r.consulta.descricao, r.nanos / 1e6, r.erro);
+            } else {
+                out.printf("Linha %d [OK] %s: %d notícias em %.1f ms%n", r.consulta.linha, r.consulta.descricao, r.noticias, r.nanos / 1e6);
+            }
+        }
+        if (latencias.length == 0) {
+            out.println("Nenhuma consulta executada.");
+            return;
+        }
+        Arrays.sort(latencias);
+        long somaNanos = 0;
+        for (long l : latencias) {
+            somaNanos += l;
+        }
+        out.printf("Consultas: %d (falhas: %d), notícias: %d%n", resultados.size(), falhas, totalNoticias);
+        out.printf("Latência: média %.1f ms, p50 %.1f ms, p95 %.1f ms, máx %.1f ms%n",
+                somaNanos / 1e6 / latencias.length, percentil(latencias, 0.50) / 1e6,
+                percentil(latencias, 0.95) / 1e6, latencias[latencias.length - 1] / 1e6);
+        double segundos = duracaoNanos / 1e9;
+        out.printf("Tempo total: %.2f s, vazão: %.1f consultas/s, %.1f notícias/s%n",
+                segundos, resultados.size() / segundos, totalNoticias / segundos);
+    }
+
+    private static long percentil(long[] ordenados, double p) {
+        int posicao = (int) Math.ceil(p * ordenados.length) - 1;
+        return ordenados[Math.max(0, Math.min(posicao, ordenados.length - 1))];
+    }
+}
\ No newline at end of file
@@ -1,24 +1,51 @@
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
 import java.time.LocalDate;
 import java.time.YearMonth; 
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletionException;
 
 // Classe GerenciadorNoticias que gerencia as operações de busca e exibição de notícias
 
 public class GerenciadorNoticias {
+    // Quantidade de notícias por página na exibição; configurável pela propriedade "noticias.pagina"
+    private static final int TAMANHO_PAGINA = Math.max(1, Integer.getInteger("noticias.pagina", 10));
+    // Resultados locais mostrados na busca por termo enquanto a API responde
+    private static final int MAX_LOCAIS_HIBRIDA = 10;
+    private static final DateTimeFormatter FORMATO_EXIBICAO = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private static final DateTimeFormatter FORMATO_API = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
     private Usuario usuario;
     private List<Noticia> ultimasNoticiasBuscadas; // Armazena as últimas notícias buscadas
+    private IndiceNoticias indice; // Índice local das notícias já vistas, para busca offline
+    private boolean indiceComUsuario; // As listas do usuário só são indexadas na primeira busca offline
+    private PrintWriter saida; // Saída com buffer para as listagens; é descarregada antes de cada leitura
+    private PreBuscaNoticias preBusca; // Pré-busca da partida, parada antes da primeira busca na API (pode ser null)
+    private EspelhoNoticias espelho; // Espelho local, carregado na primeira recomendação
 
     public GerenciadorNoticias(Usuario usuario) {
+        this(usuario, null);
+    }
+
+    public GerenciadorNoticias(Usuario usuario, PreBuscaNoticias preBusca) {
         this.usuario = usuario;
+        this.preBusca = preBusca;
         this.ultimasNoticiasBuscadas = new ArrayList<>();
+        this.indice = new IndiceNoticias();
+        this.saida = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()), 1 << 16));
     }
 
     public void buscarNoticias(Scanner sc) {
         System.out.println("\nEntão, como você gostaria de buscar as notícias?\n");
         System.out.println("1 - Por termo (título, palavras-chave)");
         System.out.println("2 - Por data (período)");
+        System.out.println("3 - Nas notícias já vistas (offline)");
+        System.out.println("4 - Recomendadas para você (espelho local)");
+        System.out.println("5 - Vários termos de uma vez");
         System.out.println("0 - Voltar\n");
         System.out.print("Escolha uma opção: ");
 
@@ -36,7 +63,8 @@ public class GerenciadorNoticias {
                         return;
                     }
 
-                    resultados = IBGENoticiasAPI.buscarNoticiasPorTermo(termo);
+                    pararPreBusca();
+                    resultados = buscarHibrido(termo);
                     if (resultados.isEmpty()) {
                         System.out.println("\nNenhuma notícia encontrada para o termo: \"" + termo + "\".");
                         return;
@@ -65,9 +93,10 @@ public class GerenciadorNoticias {
                     }
 
                     // Formata as datas para o formato aceito pela API
-                    String dataInicialApi = dataInicial.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-                    String dataFinalApi = dataFinal.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+                    String dataInicialApi = dataInicial.format(FORMATO_API);
+                    String dataFinalApi = dataFinal.format(FORMATO_API);
 
+                    pararPreBusca();
                     resultados = IBGENoticiasAPI.buscarNoticiasPorData(dataInicialApi, dataFinalApi);
 
                     if (resultados.isEmpty()) {
@@ -76,6 +105,78 @@ public class GerenciadorNoticias {
                     }
                     break;
 
+                case 3:
+                    System.out.print("\nDigite um termo de busca: ");
+                    String termoLocal = sc.nextLine();
+
+                    if (termoLocal.trim().isEmpty()) {
+                        System.out.println("\nO termo de busca não pode ser vazio.");
+                        return;
+                    }
+
+                    indexarUsuario();
+                    resultados = indice.buscar(termoLocal, 50);
+                    if (resultados.isEmpty()) {
+                        System.out.println("\nNenhuma notícia salva encontrada para o termo: \"" + termoLocal + "\".");
+                        return;
+                    }
+                    break;
+
+                case 4:
+                    if (espelho == null) {
+                        EspelhoNoticias carregado = new EspelhoNoticias();
+                        carregado.carregar();
+                        espelho = carregado;
+                    }
+                    if (espelho.tamanho() == 0) {
+                        System.out.println("\nO espelho local está vazio. Sincronize antes com: java EspelhoNoticias sincronizar");
+                        return;
+                    }
+                    // Parecidas com os favoritos e as lidas, sem as que já estão nessas listas
+                    for (SimilaridadeNoticias.Recomendacao r : espelho.recomendar(usuario, 50)) {
+                        resultados.add(r.getNoticia());
+                    }
+                    if (resultados.isEmpty()) {
+                        System.out.println("\nNenhuma recomendação ainda. Adicione notícias aos favoritos ou marque algumas como lidas.");
+                        return;
+                    }
+                    break;
+
+                case 5:
+                    System.out.print("\nDigite os termos separados por vírgula: ");
+                    List<String> termos = new ArrayList<>();
+                    for (String t : sc.nextLine().split(",")) {
+                        if (!t.trim().isEmpty() && !termos.contains(t.trim())) {
+                            termos.add(t.trim());
+                        }
+                    }
+                    if (termos.isEmpty()) {
+                        System.out.println("\nInforme pelo menos um termo.");
+                        return;
+                    }
+
+                    pararPreBusca();
+                    // Cada termo é mostrado assim que a busca dele termina, sem esperar os mais lentos
+                    int[] concluidos = {0};
+                    BuscaMultipla.Resultado multipla = new BuscaMultipla().buscarTermos(termos, (params, encontradas) -> {
+                        saida.println("[" + ++concluidos[0] + "/" + termos.size() + "] \"" + params.get("q") + "\": "
+                                + encontradas.size() + " notícia(s)");
+                        saida.flush();
+                    });
+                    // Os termos que falharam não impedem de mostrar os demais
+                    for (Map.Entry<Map<String, String>, Exception> falha : multipla.getFalhas().entrySet()) {
+                        System.out.println("Atenção: a busca por \"" + falha.getKey().get("q") + "\" falhou: " + falha.getValue().getMessage());
+                    }
+                    // As que aparecem em mais termos vêm primeiro
+                    for (BuscaMultipla.Acerto a : multipla.getAcertos()) {
+                        resultados.add(a.getNoticia());
+                    }
+                    if (resultados.isEmpty()) {
+                        System.out.println("\nNenhuma notícia encontrada para os termos informados.");
+                        return;
+                    }
+                    break;
+
                 case 0:
                     return; // Volta ao menu anterior
 
@@ -85,6 +186,7 @@ public class GerenciadorNoticias {
             }
 
             ultimasNoticiasBuscadas = resultados;
+            indice.adicionarTodas(resultados);
             exibirNoticiasComOpcoes(ultimasNoticiasBuscadas, sc, "\nResultados da Busca\n");
 
         } catch (NumberFormatException e) {
@@ -100,6 +202,54 @@ public class GerenciadorNoticias {
             e.printStackTrace();
         }
     }
+
+    // Busca por termo híbrida: as notícias já vistas que combinam aparecem na hora, enquanto a API responde.
+    // O resultado final traz essas primeiro e depois as da API; se a API falhar, ficam só as locais
+    private List<Noticia> buscarHibrido(String termo) throws java.io.IOException {
+        indexarUsuario();
+        List<List<Noticia>> locais = new ArrayList<>(1);
+        try {
+            return indice.buscarHibrido(termo, MAX_LOCAIS_HIBRIDA, encontradas -> {
+                locais.add(encontradas);
+                if (!encontradas.isEmpty()) {
+                    saida.println("\nJá nas notícias vistas, enquanto a API responde:");
+                    for (Noticia n : encontradas) {
+                        saida.println(" - " + n.getTitulo());
+                    }
+                    saida.flush();
+                }
+            }).join();
+        } catch (CompletionException e) {
+            Throwable causa = e.getCause() instanceof java.io.UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            if (locais.isEmpty() || locais.get(0).isEmpty()) {
+                if (causa instanceof java.io.IOException) {
+                    throw (java.io.IOException) causa;
+                }
+                throw e;
+            }
+            System.out.println("\nErro ao buscar na API: "
+                    + (causa.getMessage() != null ? causa.getMessage() : causa.getClass().getSimpleName()));
+            System.out.println("Mostrando só as notícias já vistas.");
+            return locais.get(0);
+        }
+    }
+
+    // Indexar as listas decodifica todas as notícias salvas, então isso fica para a primeira busca que usa o índice
+    private void indexarUsuario() {
+        if (!indiceComUsuario) {
+            indice.adicionarUsuario(usuario);
+            indiceComUsuario = true;
+        }
+    }
+
+    // A partir da primeira busca do usuário, a API fica só para ele
+    private void pararPreBusca() {
+        if (preBusca != null) {
+            preBusca.parar();
+            preBusca = null;
+        }
+    }
+
     // Método auxiliar para coletar uma data do usuário com validação
     private LocalDate coletarData(Scanner sc) {
         int ano, mes, dia;
@@ -150,6 +300,7 @@ public class GerenciadorNoticias {
     }
 
     // Método auxiliar para exibir notícias de qualquer lista e permitir interação (seleção, adicionar/remover, etc.)
+    // A lista é mostrada em páginas de TAMANHO_PAGINA itens; só a página visível é montada
     private void exibirNoticiasComOpcoes(List<Noticia> lista, Scanner sc, String tituloLista) {
         System.out.println("\n--- " + tituloLista + " ---");
         if (lista.isEmpty()) {
@@ -157,20 +308,48 @@ public class GerenciadorNoticias {
             return;
         }
 
-        // Exibe as notícias numeradas
-        for (int i = 0; i < lista.size(); i++) {
-            System.out.println("\n[" + (i + 1) + "] " + lista.get(i).getTitulo());
-            System.out.println("    Introdução: " + lista.get(i).getIntroducao());
-            // Mostra a data formatada
-            if (lista.get(i).getDataPublicacao() != null) {
-                System.out.println("    Data: " + lista.get(i).getDataPublicacao().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")));
+        int totalPaginas = (lista.size() + TAMANHO_PAGINA - 1) / TAMANHO_PAGINA;
+        int pagina = 0;
+        String opcaoStr;
+        while (true) {
+            // Exibe as notícias numeradas da página atual
+            renderizarPagina(lista, pagina, TAMANHO_PAGINA, saida);
+            if (totalPaginas > 1) {
+                saida.println("\nPágina " + (pagina + 1) + " de " + totalPaginas + " (" + lista.size() + " notícias)");
+                saida.println("[p] próxima  [a] anterior  [i N] ir para a página N");
+            }
+            saida.print("\nSelecione uma notícia pelo número para ver mais detalhes e opções, ou digite 0 para voltar: ");
+            saida.flush();
+
+            opcaoStr = sc.nextLine().trim();
+            if (opcaoStr.equalsIgnoreCase("p")) {
+                if (pagina < totalPaginas - 1) {
+                    pagina++;
+                } else {
+                    System.out.println("Você já está na última página.");
+                }
+            } else if (opcaoStr.equalsIgnoreCase("a")) {
+                if (pagina > 0) {
+                    pagina--;
+                } else {
+                    System.out.println("Você já está na primeira página.");
+                }
+            } else if (opcaoStr.toLowerCase().startsWith("i")) {
+                try {
+                    int destino = Integer.parseInt(opcaoStr.substring(1).trim());
+                    if (destino >= 1 && destino <= totalPaginas) {
+                        pagina = destino - 1;
+                    } else {
+                        System.out.println("Página inválida. Digite um número entre 1 e " + totalPaginas + ".");
+                    }
+                } catch (NumberFormatException e) {
+                    System.out.println("Entrada inválida. Use, por exemplo: i 3");
+                }
             } else {
-                System.out.println("    Data: Data indisponível");
+                break;
             }
         }
 
-        System.out.print("\nSelecione uma notícia pelo número para ver mais detalhes e opções, ou digite 0 para voltar: ");
-        String opcaoStr = sc.nextLine();
         try {
             int opcao = Integer.parseInt(opcaoStr);
 
@@ -198,6 +377,7 @@ public class GerenciadorNoticias {
                     case 1:
                         if (!usuario.getFavoritos().contains(n)) {
                             usuario.getFavoritos().add(n);
+                            Persistencia.registrarAdicao(usuario, "favoritos", n);
                             System.out.println("Notícia adicionada aos favoritos.");
                         } else {
                             System.out.println("Notícia já está nos favoritos.");
@@ -206,6 +386,7 @@ public class GerenciadorNoticias {
                     case 2:
                         if (!usuario.getLidas().contains(n)) {
                             usuario.getLidas().add(n);
+                            Persistencia.registrarAdicao(usuario, "lidas", n);
                             System.out.println("Notícia marcada como lida com sucesso");
                         } else {
                             System.out.println("Notícia já está nas lidas");
@@ -214,6 +395,7 @@ public class GerenciadorNoticias {
                     case 3:
                         if (!usuario.getParaLerDepois().contains(n)) {
                             usuario.getParaLerDepois().add(n);
+                            Persistencia.registrarAdicao(usuario, "paraLerDepois", n);
                             System.out.println("Notícia adicionada para ler depois com sucesso");
                         } else {
                             System.out.println("Notícia já está para ler depois");
@@ -221,11 +403,11 @@ public class GerenciadorNoticias {
                         break;
                     case 4:
                         if (tituloLista.contains("Favoritas")) {
-                            removerNoticiaDaLista(usuario.getFavoritos(), n, "Notícias Favoritas");
+                            removerNoticiaDaLista(usuario.getFavoritos(), "favoritos", n, "Notícias Favoritas");
                         } else if (tituloLista.contains("Lidas")) {
-                            removerNoticiaDaLista(usuario.getLidas(), n, "Notícias Lidas");
+                            removerNoticiaDaLista(usuario.getLidas(), "lidas", n, "Notícias Lidas");
                         } else if (tituloLista.contains("Ler Depois")) {
-                            removerNoticiaDaLista(usuario.getParaLerDepois(), n, "Notícias Para Ler Depois");
+                            removerNoticiaDaLista(usuario.getParaLerDepois(), "paraLerDepois", n, "Notícias Para Ler Depois");
                         } else {
                             System.out.println("Não é possível remover desta lista (resultados de busca). Por favor, adicione a notícia a uma lista específica antes de remover.");
                         }
@@ -245,9 +427,38 @@ public class GerenciadorNoticias {
         }
     }
 
+    /**
+     * Escreve uma página da lista (título, introdução e data de cada notícia), numerada pela posição na lista.
+     * Não descarrega a saída; quem chama decide quando fazer o flush.
+     * @param lista Lista completa.
+     * @param pagina Página a exibir, começando em 0.
+     * @param tamanhoPagina Quantidade de notícias por página.
+     * @param out Saída onde a página é escrita.
+     */
+    static void renderizarPagina(List<Noticia> lista, int pagina, int tamanhoPagina, PrintWriter out) {
+        long inicioMedida = Metricas.inicio();
+        int inicio = pagina * tamanhoPagina;
+        int fim = Math.min(lista.size(), inicio + tamanhoPagina);
+        for (int i = inicio; i < fim; i++) {
+            Noticia n = lista.get(i);
+            out.append("\n[").append(String.valueOf(i + 1)).append("] ").append(n.getTitulo()).append('\n');
+            out.append("    Introdução: ").append(n.getIntroducao()).append('\n');
+            // Mostra a data formatada
+            out.append("    Data: ");
+            if (n.getDataPublicacao() != null) {
+                FORMATO_EXIBICAO.formatTo(n.getDataPublicacao(), out);
+            } else {
+                out.append("Data indisponível");
+            }
+            out.append('\n');
+        }
+        Metricas.registrar(Metricas.Operacao.RENDERIZAR, inicioMedida);
+    }
+
     // Método para remover uma notícia de uma lista específica
-    private void removerNoticiaDaLista(List<Noticia> lista, Noticia noticiaParaRemover, String nomeLista) {
+    private void removerNoticiaDaLista(List<Noticia> lista, String chaveLista, Noticia noticiaParaRemover, String nomeLista) {
         if (lista.remove(noticiaParaRemover)) {
+            Persistencia.registrarRemocao(usuario, chaveLista, noticiaParaRemover);
             System.out.println("Notícia \"" + noticiaParaRemover.getTitulo() + "\" removida da lista '" + nomeLista + "'.");
         } else {
             System.out.println("Erro: Notícia não encontrada na lista '" + nomeLista + "'.");
@@ -270,24 +481,17 @@ public class GerenciadorNoticias {
         System.out.print("\nEscolha uma opção: \n");
         String ordemOpcaoStr = sc.nextLine();
         
-        List<Noticia> listaOrdenada = new ArrayList<>(lista);
-
         try {
             int ordemOpcao = Integer.parseInt(ordemOpcaoStr);
             switch (ordemOpcao) {
                 case 1: // Ordenar por Título
-                    listaOrdenada.sort(Comparator.comparing(Noticia::getTitulo));
-                    exibirNoticiasComOpcoes(listaOrdenada, sc, nomeLista + " (Ordenada por Título)");
+                    exibirNoticiasComOpcoes(ordenar(lista, OrdenacaoNoticias.Criterio.TITULO), sc, nomeLista + " (Ordenada por Título)");
                     break;
-                case 2: // Ordenar por Data (usando LocalDateTime)
-                    // Garante que notícias com data nula não causem erro na comparação, colocando-as no final
-                    listaOrdenada.sort(Comparator.nullsLast(Comparator.comparing(Noticia::getDataPublicacao).reversed()));
-                    exibirNoticiasComOpcoes(listaOrdenada, sc, nomeLista + " (Ordenada por Data)");
+                case 2: // Ordenar por Data (mais recente primeiro, datas nulas no final)
+                    exibirNoticiasComOpcoes(ordenar(lista, OrdenacaoNoticias.Criterio.DATA), sc, nomeLista + " (Ordenada por Data)");
                     break;
-                case 3: // Ordenar por Tipo
-                    // Garante que notícias com tipo nulo não causem erro na comparação, colocando-os no final
-                    listaOrdenada.sort(Comparator.nullsLast(Comparator.comparing(Noticia::getTipo)));
-                    exibirNoticiasComOpcoes(listaOrdenada, sc, nomeLista + " (Ordenada por Tipo)");
+                case 3: // Ordenar por Tipo (tipos nulos no final)
+                    exibirNoticiasComOpcoes(ordenar(lista, OrdenacaoNoticias.Criterio.TIPO), sc, nomeLista + " (Ordenada por Tipo)");
                     break;
                 case 4: // Exibir sem ordenar
                     exibirNoticiasComOpcoes(lista, sc, nomeLista + " (Sem Ordenação)");
@@ -301,4 +505,14 @@ public class GerenciadorNoticias {
             System.out.println("Entrada inválida. Digite um número. Voltando sem exibir a lista.");
         }
     }
+
+    // As listas do usuário mantêm índices de ordenação prontos; outras listas são copiadas e ordenadas
+    static List<Noticia> ordenar(List<Noticia> lista, OrdenacaoNoticias.Criterio criterio) {
+        if (lista instanceof ListaNoticias) {
+            return ((ListaNoticias) lista).ordenadaPor(criterio);
+        }
+        List<Noticia> listaOrdenada = new ArrayList<>(lista);
+        listaOrdenada.sort(OrdenacaoNoticias.comparador(criterio));
+        return listaOrdenada;
+    }
 }
\ No newline at end of file
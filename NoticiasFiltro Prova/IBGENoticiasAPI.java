@@ -1,20 +1,41 @@
 import com.google.gson.*;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 // Classe que implementa a API para buscar notícias do IBGE
 
 public class IBGENoticiasAPI {
 
+    // URL base da API; pode ser trocada pela propriedade "ibge.api.url" (ex: servidor local de testes)
+    private static final String URL_BASE = System.getProperty("ibge.api.url", "https://servicodados.ibge.gov.br/api/v3/noticias/");
+
     // DateTimeFormatter para parsear as datas da API (YYYY-MM-DD HH:MM:SS)
     private static final DateTimeFormatter API_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // Formato em que a API v3 realmente envia "data_publicacao" (DD/MM/YYYY HH:MM:SS)
+    private static final DateTimeFormatter API_DATE_FORMATTER_BR = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    // Datas que não puderam ser interpretadas; só a primeira é impressa, as demais são apenas contadas
+    private static final AtomicLong datasInvalidas = new AtomicLong();
+
+    // Threads das buscas assíncronas; cada uma bloqueia em buscarPagina (cache, coalescência e resiliência)
+    private static final ExecutorService executorAssincrono = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "busca-assincrona-ibge");
+        t.setDaemon(true);
+        return t;
+    });
 
     // TypeAdapter para serializar/desserializar LocalDateTime com GSON
     public static class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
@@ -23,26 +44,289 @@ public class IBGENoticiasAPI {
             if (value == null) {
                 out.nullValue();
             } else {
-                out.value(value.format(API_DATE_FORMATTER));
+                out.value(formatarData(value));
             }
         }
 
         @Override
         public LocalDateTime read(JsonReader in) throws IOException {
-            String dateString = in.nextString();
-            if (dateString == null || dateString.trim().isEmpty()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
                 return null;
             }
-            // Tenta parsear. Em caso de falha, retorna null ou lança uma exceção, dependendo do comportamento desejado.
-            try {
-                return LocalDateTime.parse(dateString, API_DATE_FORMATTER);
-            } catch (java.time.format.DateTimeParseException e) {
-                System.err.println("Erro ao parsear data JSON: " + dateString + ". " + e.getMessage());
-                return null; // Retorna null se a data não puder ser parseada
+            return parsearData(in.nextString());
+        }
+    }
+
+    /**
+     * TypeAdapter de Noticia escrito à mão, no lugar do adaptador por reflexão do Gson.
+     * Grava os mesmos campos na mesma ordem (nulos são omitidos, como antes) e lê a data tanto
+     * em "dataPublicacao" (arquivos locais) quanto em "data_publicacao" (API). Usa os getters,
+     * então também serve para as notícias lidas do snapshot binário.
+     *
+     * Na leitura pode decodificar só parte dos campos (o id sempre é lido) e guardar introducao e link
+     * em blocos UTF-8 compartilhados. Com textos compactos o adaptador guarda estado e não pode ser
+     * compartilhado entre threads: crie um por página e chame concluir() no fim.
+     */
+    public static class NoticiaAdapter extends TypeAdapter<Noticia> {
+        private static final int TAMANHO_BLOCO = 32 * 1024;
+
+        private final Set<Noticia.Campo> campos;
+        private final boolean textosCompactos;
+        private byte[] bloco;
+        private int usado;
+        private final List<Noticia> noBloco = new ArrayList<>(); // Notícias que apontam para o bloco atual
+
+        public NoticiaAdapter() {
+            this(Noticia.TODOS_OS_CAMPOS, false);
+        }
+
+        public NoticiaAdapter(Set<Noticia.Campo> campos, boolean textosCompactos) {
+            this.campos = campos.isEmpty() ? EnumSet.noneOf(Noticia.Campo.class) : EnumSet.copyOf(campos);
+            this.textosCompactos = textosCompactos;
+        }
+
+        @Override
+        public void write(JsonWriter out, Noticia noticia) throws IOException {
+            if (noticia == null) {
+                out.nullValue();
+                return;
+            }
+            LocalDateTime data = noticia.getDataPublicacao();
+            out.beginObject();
+            out.name("id").value(noticia.getId());
+            out.name("titulo").value(noticia.getTitulo());
+            out.name("introducao").value(noticia.getIntroducao());
+            out.name("dataPublicacao").value(data != null ? formatarData(data) : null);
+            out.name("link").value(noticia.getLink());
+            out.name("tipo").value(noticia.getTipo());
+            out.endObject();
+        }
+
+        @Override
+        public Noticia read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Noticia noticia = new Noticia();
+            String introducao = null;
+            String link = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                Noticia.Campo campo = campoDoNome(in.nextName());
+                // Campos fora da projeção são pulados sem criar Strings
+                if (campo == null || (campo != Noticia.Campo.ID && !campos.contains(campo))) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (campo) {
+                    case ID:
+                        noticia.setId(lerTexto(in)); // A API envia o id como número
+                        break;
+                    case TITULO:
+                        noticia.setTitulo(lerTexto(in));
+                        break;
+                    case INTRODUCAO:
+                        introducao = lerTexto(in);
+                        break;
+                    case DATA:
+                        noticia.setDataPublicacao(parsearData(lerTexto(in)));
+                        break;
+                    case LINK:
+                        link = lerTexto(in);
+                        break;
+                    default:
+                        noticia.setTipo(lerTexto(in));
+                }
+            }
+            in.endObject();
+
+            if (textosCompactos && (introducao != null || link != null)) {
+                guardarTextos(noticia, introducao, link);
+            } else {
+                noticia.setIntroducao(introducao);
+                noticia.setLink(link);
+            }
+            return noticia;
+        }
+
+        private static Noticia.Campo campoDoNome(String nome) {
+            switch (nome) {
+                case "id":
+                    return Noticia.Campo.ID;
+                case "titulo":
+                    return Noticia.Campo.TITULO;
+                case "introducao":
+                    return Noticia.Campo.INTRODUCAO;
+                case "dataPublicacao":
+                case "data_publicacao":
+                    return Noticia.Campo.DATA;
+                case "link":
+                    return Noticia.Campo.LINK;
+                case "tipo":
+                    return Noticia.Campo.TIPO;
+                default:
+                    return null;
+            }
+        }
+
+        // Copia introducao e link, juntos, para o bloco atual (abrindo outro se não couberem)
+        private void guardarTextos(Noticia noticia, String introducao, String link) {
+            byte[] bytesIntroducao = introducao != null ? introducao.getBytes(StandardCharsets.UTF_8) : null;
+            byte[] bytesLink = link != null ? link.getBytes(StandardCharsets.UTF_8) : null;
+            int tamanhoIntroducao = bytesIntroducao != null ? bytesIntroducao.length : -1;
+            int tamanhoLink = bytesLink != null ? bytesLink.length : -1;
+            int total = Math.max(tamanhoIntroducao, 0) + Math.max(tamanhoLink, 0);
+            if (bloco == null || usado + total > bloco.length) {
+                concluir();
+                bloco = new byte[Math.max(TAMANHO_BLOCO, total)];
+            }
+            int inicioIntroducao = usado;
+            if (bytesIntroducao != null) {
+                System.arraycopy(bytesIntroducao, 0, bloco, usado, bytesIntroducao.length);
+                usado += bytesIntroducao.length;
+            }
+            int inicioLink = usado;
+            if (bytesLink != null) {
+                System.arraycopy(bytesLink, 0, bloco, usado, bytesLink.length);
+                usado += bytesLink.length;
+            }
+            noticia.setTextosUtf8(bloco, inicioIntroducao, tamanhoIntroducao, inicioLink, tamanhoLink);
+            noBloco.add(noticia);
+        }
+
+        /**
+         * Fecha o bloco atual; se sobrou muito espaço nele, as notícias passam a apontar para uma cópia do tamanho exato.
+         */
+        public void concluir() {
+            if (bloco != null && usado < bloco.length * 3 / 4) {
+                byte[] ajustado = Arrays.copyOf(bloco, usado);
+                for (Noticia n : noBloco) {
+                    n.trocarBlocoUtf8(ajustado);
+                }
+            }
+            bloco = null;
+            usado = 0;
+            noBloco.clear();
+        }
+
+        // Lê um campo de texto aceitando números e booleanos, como o adaptador padrão de String do Gson
+        private static String lerTexto(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (token == JsonToken.BOOLEAN) {
+                return Boolean.toString(in.nextBoolean());
+            }
+            return in.nextString();
+        }
+    }
+
+    /**
+     * Converte uma data no formato da API ("AAAA-MM-DD HH:MM:SS" ou "DD/MM/AAAA HH:MM:SS").
+     * Esses dois formatos de largura fixa são lidos dígito a dígito, sem objetos intermediários;
+     * qualquer outra forma cai nos DateTimeFormatter.
+     * @param texto Data em texto.
+     * @return A data, ou null se o texto for vazio ou inválido.
+     */
+    public static LocalDateTime parsearData(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        if (texto.length() == 19 && texto.charAt(10) == ' ' && texto.charAt(13) == ':' && texto.charAt(16) == ':') {
+            int ano = -1;
+            int mes = -1;
+            int dia = -1;
+            if (texto.charAt(4) == '-' && texto.charAt(7) == '-') {
+                ano = digitos(texto, 0, 4);
+                mes = digitos(texto, 5, 2);
+                dia = digitos(texto, 8, 2);
+            } else if (texto.charAt(2) == '/' && texto.charAt(5) == '/') {
+                dia = digitos(texto, 0, 2);
+                mes = digitos(texto, 3, 2);
+                ano = digitos(texto, 6, 4);
+            }
+            int hora = digitos(texto, 11, 2);
+            int minuto = digitos(texto, 14, 2);
+            int segundo = digitos(texto, 17, 2);
+            if (ano >= 0 && mes >= 1 && mes <= 12 && dia >= 1 && dia <= 31
+                    && hora >= 0 && hora < 24 && minuto >= 0 && minuto < 60 && segundo >= 0 && segundo < 60
+                    && dia <= YearMonth.of(ano, mes).lengthOfMonth()) {
+                return LocalDateTime.of(ano, mes, dia, hora, minuto, segundo);
+            }
+        }
+        return parsearComFormatador(texto);
+    }
+
+    // Caminho lento, para datas fora dos formatos de largura fixa (espaços extras, campos faltando...)
+    private static LocalDateTime parsearComFormatador(String texto) {
+        String data = texto.trim();
+        if (data.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(data, data.indexOf('/') >= 0 ? API_DATE_FORMATTER_BR : API_DATE_FORMATTER);
+        } catch (java.time.format.DateTimeParseException e) {
+            if (datasInvalidas.getAndIncrement() == 0) {
+                System.err.println("Atenção: Data inválida ignorada: \"" + texto + "\" (as próximas serão apenas contadas).");
+            }
+            return null;
+        }
+    }
+
+    // Valor de 'quantidade' dígitos decimais a partir de 'inicio', ou -1 se algum caractere não for dígito
+    private static int digitos(String texto, int inicio, int quantidade) {
+        int valor = 0;
+        for (int i = inicio; i < inicio + quantidade; i++) {
+            int digito = texto.charAt(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return -1;
             }
+            valor = valor * 10 + digito;
+        }
+        return valor;
+    }
+
+    /**
+     * Formata a data como "AAAA-MM-DD HH:MM:SS" (o formato gravado nos arquivos locais) sem passar pelo DateTimeFormatter.
+     * @param data Data a formatar.
+     * @return A data em texto.
+     */
+    public static String formatarData(LocalDateTime data) {
+        int ano = data.getYear();
+        if (ano < 0 || ano > 9999) {
+            return data.format(API_DATE_FORMATTER);
+        }
+        char[] texto = new char[19];
+        escreverDigitos(texto, 0, 4, ano);
+        texto[4] = '-';
+        escreverDigitos(texto, 5, 2, data.getMonthValue());
+        texto[7] = '-';
+        escreverDigitos(texto, 8, 2, data.getDayOfMonth());
+        texto[10] = ' ';
+        escreverDigitos(texto, 11, 2, data.getHour());
+        texto[13] = ':';
+        escreverDigitos(texto, 14, 2, data.getMinute());
+        texto[16] = ':';
+        escreverDigitos(texto, 17, 2, data.getSecond());
+        return new String(texto);
+    }
+
+    private static void escreverDigitos(char[] texto, int inicio, int quantidade, int valor) {
+        for (int i = inicio + quantidade - 1; i >= inicio; i--) {
+            texto[i] = (char) ('0' + valor % 10);
+            valor /= 10;
         }
     }
 
+    // Quantas datas inválidas foram encontradas desde o início do programa
+    public static long getDatasInvalidas() {
+        return datasInvalidas.get();
+    }
+
     /**
      * Busca notícias da API do IBGE com base em um mapa de parâmetros.
      * Ex: {"q": "termo de busca"}, {"de": "2023-01-01", "ate": "2023-01-31"}
@@ -51,64 +335,147 @@ public class IBGENoticiasAPI {
      * @throws IOException Se ocorrer um erro de I/O durante a comunicação com a API.
      */
     public static List<Noticia> buscarNoticias(Map<String, String> params) throws IOException {
-        StringBuilder urlBuilder = new StringBuilder("https://servicodados.ibge.gov.br/api/v3/noticias/?");
+        return buscarPagina(params).getNoticias();
+    }
+
+    /**
+     * Busca uma única página da API, mantendo os dados de paginação do envelope (count, page, totalPages...).
+     * Use os parâmetros "page" e "qtd" para escolher a página e o tamanho dela.
+     * @param params Mapa de parâmetros para a requisição.
+     * @return A página com as notícias e os dados de paginação.
+     * @throws IOException Se ocorrer um erro de I/O durante a comunicação com a API.
+     */
+    public static PaginaNoticias buscarPagina(Map<String, String> params) throws IOException {
+        return CacheNoticias.padrao().obter(params);
+    }
+
+    /**
+     * Busca uma página decodificando só os campos pedidos (o id sempre vem), para listagens grandes.
+     * O cache guarda apenas páginas completas, então uma página projetada sempre vem direto da API.
+     * @param params Mapa de parâmetros para a requisição.
+     * @param campos Campos a decodificar; os demais ficam null.
+     * @return A página com as notícias e os dados de paginação.
+     * @throws IOException Se ocorrer um erro de I/O durante a comunicação com a API.
+     */
+    public static PaginaNoticias buscarPagina(Map<String, String> params, Set<Noticia.Campo> campos) throws IOException {
+        return campos.containsAll(Noticia.TODOS_OS_CAMPOS) ? buscarPagina(params) : buscarPaginaRemota(params, campos);
+    }
+
+    /**
+     * Busca uma página direto na API, sem passar pelo cache (mas com a política de resiliência).
+     * @param params Mapa de parâmetros para a requisição.
+     * @return A página com as notícias e os dados de paginação.
+     * @throws IOException Se ocorrer um erro de I/O durante a comunicação com a API.
+     */
+    static PaginaNoticias buscarPaginaRemota(Map<String, String> params) throws IOException {
+        return buscarPaginaRemota(params, Noticia.TODOS_OS_CAMPOS);
+    }
+
+    static PaginaNoticias buscarPaginaRemota(Map<String, String> params, Set<Noticia.Campo> campos) throws IOException {
+        return ResilienciaHttp.padrao().executar(() -> {
+            // Lê a resposta em streaming, sem montar a string nem a árvore JSON inteira
+            try (Reader reader = new InputStreamReader(TransporteHttp.padrao().get(montarUri(params)), StandardCharsets.UTF_8)) {
+                return lerPagina(reader, campos);
+            }
+        });
+    }
+
+    /**
+     * Versão assíncrona de buscarNoticias (passa pelo cache, coalescência e resiliência, como a síncrona).
+     * @param params Mapa de parâmetros para a requisição.
+     * @return Future com a lista de Noticia; falha com UncheckedIOException em caso de erro.
+     */
+    public static CompletableFuture<List<Noticia>> buscarNoticiasAsync(Map<String, String> params) {
+        return buscarPaginaAsync(params).thenApply(PaginaNoticias::getNoticias);
+    }
+
+    /**
+     * Versão assíncrona de buscarPagina: o mesmo caminho (cache, coalescência, retentativas e circuit breaker),
+     * rodando em uma thread própria.
+     * @param params Mapa de parâmetros para a requisição.
+     * @return Future com a página; falha com UncheckedIOException em caso de erro.
+     */
+    public static CompletableFuture<PaginaNoticias> buscarPaginaAsync(Map<String, String> params) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return buscarPagina(params);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executorAssincrono);
+    }
+
+    // Monta a URI da API com os parâmetros codificados
+    static URI montarUri(Map<String, String> params) {
+        StringBuilder urlBuilder = new StringBuilder(URL_BASE).append("?");
         for (Map.Entry<String, String> entry : params.entrySet()) {
-            urlBuilder.append(URLEncoder.encode(entry.getKey(), "UTF-8"))
+            urlBuilder.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))
                       .append("=")
-                      .append(URLEncoder.encode(entry.getValue(), "UTF-8"))
+                      .append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8))
                       .append("&");
         }
-        // Remove o último '&' se houver parâmetros
-        if (params.size() > 0) {
-            urlBuilder.setLength(urlBuilder.length() - 1);
-        }
-
-        URL url = new URL(urlBuilder.toString());
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-
-        // Tratamento de erros HTTP
-        int responseCode = conn.getResponseCode();
-        if (responseCode != HttpURLConnection.HTTP_OK) {
-            InputStream errorStream = conn.getErrorStream();
-            String errorResponse = null;
-            if (errorStream != null) {
-                try (BufferedReader errorReader = new BufferedReader(new InputStreamReader(errorStream, "UTF-8"))) {
-                    StringBuilder errorJson = new StringBuilder();
-                    String errorLine;
-                    while ((errorLine = errorReader.readLine()) != null) {
-                        errorJson.append(errorLine);
-                    }
-                    errorResponse = errorJson.toString();
-                }
-            }
-            throw new IOException("Erro na requisição à API: Código " + responseCode + " - " + conn.getResponseMessage() + (errorResponse != null ? "\nDetalhes: " + errorResponse : ""));
-        }
-
-        BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream(), "UTF-8"));
-        StringBuilder json = new StringBuilder();
-        String linha;
-        while ((linha = reader.readLine()) != null) {
-            json.append(linha);
-        }
-        reader.close();
-
-        // Configura o Gson para usar o LocalDateTimeAdapter
-        Gson gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                .create();
+        // Remove o último '&' (ou o '?' se não houver parâmetros)
+        urlBuilder.setLength(urlBuilder.length() - 1);
+        return URI.create(urlBuilder.toString());
+    }
 
-        JsonObject jsonObj = JsonParser.parseString(json.toString()).getAsJsonObject();
-        JsonArray items = jsonObj.getAsJsonArray("items");
+    /**
+     * Lê uma página de resposta da API em streaming: cada notícia de "items" é decodificada direto do
+     * Reader, e do envelope só são guardados os campos de paginação.
+     * @param reader Reader posicionado no início do JSON da resposta.
+     * @return A página lida.
+     * @throws IOException Se o JSON estiver malformado ou ocorrer um erro de leitura.
+     */
+    static PaginaNoticias lerPagina(Reader reader) throws IOException {
+        return lerPagina(reader, Noticia.TODOS_OS_CAMPOS);
+    }
 
-        List<Noticia> lista = new ArrayList<>();
-        for (JsonElement element : items) {
-            JsonObject obj = element.getAsJsonObject();
-            // Deserializa diretamente usando Gson para aproveitar o TypeAdapter
-            Noticia noticia = gson.fromJson(obj, Noticia.class);
-            lista.add(noticia);
+    static PaginaNoticias lerPagina(Reader reader, Set<Noticia.Campo> campos) throws IOException {
+        // Como a leitura é em streaming, a medida inclui a chegada do corpo pela rede
+        long inicio = Metricas.inicio();
+        PaginaNoticias pagina = new PaginaNoticias();
+        JsonReader in = new JsonReader(reader);
+        // Um adaptador por página: introducao e link das notícias da página ficam nos mesmos blocos UTF-8
+        NoticiaAdapter adapter = new NoticiaAdapter(campos, true);
+        try {
+            in.beginObject();
+            while (in.hasNext()) {
+                String campo = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (campo) {
+                    case "count":
+                        pagina.setCount(in.nextInt());
+                        break;
+                    case "page":
+                        pagina.setPage(in.nextInt());
+                        break;
+                    case "totalPages":
+                        pagina.setTotalPages(in.nextInt());
+                        break;
+                    case "nextPage":
+                        pagina.setNextPage(in.nextInt());
+                        break;
+                    case "items":
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            pagina.getNoticias().add(adapter.read(in));
+                        }
+                        in.endArray();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            adapter.concluir();
+            Metricas.registrar(Metricas.Operacao.DECODIFICACAO, inicio);
+        } catch (IllegalStateException | NumberFormatException | JsonParseException e) {
+            throw new IOException("Resposta da API em formato inesperado: " + e.getMessage(), e);
         }
-        return lista;
+        return pagina;
     }
 
     /**
@@ -118,9 +485,7 @@ public class IBGENoticiasAPI {
      * @throws IOException Se ocorrer um erro de I/O durante a comunicação com a API.
      */
     public static List<Noticia> buscarNoticiasPorTermo(String termo) throws IOException {
-        Map<String, String> params = new HashMap<>();
-        params.put("q", termo);
-        return buscarNoticias(params);
+        return buscarNoticias(parametrosPorTermo(termo));
     }
 
     /**
@@ -131,10 +496,22 @@ public class IBGENoticiasAPI {
      * @throws IOException Se ocorrer um erro de I/O durante a comunicação com a API.
      */
     public static List<Noticia> buscarNoticiasPorData(String dataInicial, String dataFinal) throws IOException {
+        return buscarNoticias(parametrosPorData(dataInicial, dataFinal));
+    }
+
+    // Monta o mapa de parâmetros de uma busca por termo
+    static Map<String, String> parametrosPorTermo(String termo) {
+        Map<String, String> params = new HashMap<>();
+        params.put("q", termo);
+        return params;
+    }
+
+    // Monta o mapa de parâmetros de uma busca por período
+    static Map<String, String> parametrosPorData(String dataInicial, String dataFinal) {
         Map<String, String> params = new HashMap<>();
         // A API espera o formato YYYYMMDD para 'de' e 'ate', sem hifens.
         params.put("de", dataInicial.replace("-", ""));
         params.put("ate", dataFinal.replace("-", ""));
-        return buscarNoticias(params);
+        return params;
     }
 }  
\ No newline at end of file
@@ -0,0 +1,235 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// Classe que mantém um índice invertido local sobre título e introdução das notícias, com ranking BM25
+
+public class IndiceNoticias {
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Parâmetros usuais do BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Cada notícia indexada recebe um id inteiro sequencial (posição nesta lista)
+    private final List<Noticia> documentos = new ArrayList<>();
+    private final Map<String, Integer> docPorId = new HashMap<>();
+    private int[] tamanhos = new int[16];
+    private long somaTamanhos;
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    // Buscas remotas da busca híbrida; passam pelo cache, coalescência e resiliência como a busca normal
+    private static final ExecutorService executorRemoto = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "busca-hibrida");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Lista de ocorrências de um termo: ids de documento crescentes e a frequência em cada um
+    private static class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int tamanho;
+
+        void adicionar(int doc, int freq) {
+            if (tamanho == docs.length) {
+                docs = Arrays.copyOf(docs, tamanho * 2);
+                freqs = Arrays.copyOf(freqs, tamanho * 2);
+            }
+            docs[tamanho] = doc;
+            freqs[tamanho] = freq;
+            tamanho++;
+        }
+    }
+
+    // Pontuação acumulada por documento, só para os documentos das postings da consulta (endereçamento aberto
+    // com sondagem linear); evita um vetor do tamanho do acervo a cada busca
+    private static class Pontuacoes {
+        final int[] docs; // doc + 1 (0 = vazia)
+        final float[] valores;
+        final int mascara;
+        final int deslocamento;
+
+        // 'maximo' é o total de postings da consulta: a tabela nunca passa da metade
+        Pontuacoes(int maximo) {
+            int capacidade = Integer.highestOneBit(Math.max(1, maximo) * 2 - 1) << 1;
+            docs = new int[capacidade];
+            valores = new float[capacidade];
+            mascara = capacidade - 1;
+            deslocamento = Integer.numberOfLeadingZeros(capacidade) + 1;
+        }
+
+        void somar(int doc, float valor) {
+            int posicao = (doc * 0x9E3779B1) >>> deslocamento; // Bits altos do hash multiplicativo
+            while (docs[posicao] != 0 && docs[posicao] != doc + 1) {
+                posicao = (posicao + 1) & mascara;
+            }
+            docs[posicao] = doc + 1;
+            valores[posicao] += valor;
+        }
+    }
+
+    /**
+     * Indexa uma notícia. Notícias já indexadas (mesmo id) são ignoradas.
+     * @param noticia A notícia a indexar.
+     * @return true se a notícia foi adicionada ao índice.
+     */
+    public synchronized boolean adicionar(Noticia noticia) {
+        if (noticia == null || noticia.getId() == null || docPorId.containsKey(noticia.getId())) {
+            return false;
+        }
+        int doc = documentos.size();
+        documentos.add(noticia);
+        docPorId.put(noticia.getId(), doc);
+
+        Map<String, int[]> frequencias = new HashMap<>();
+        int tamanho = contarTermos(noticia.getTitulo(), frequencias) + contarTermos(noticia.getIntroducao(), frequencias);
+        for (Map.Entry<String, int[]> entry : frequencias.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new Postings()).adicionar(doc, entry.getValue()[0]);
+        }
+
+        if (doc == tamanhos.length) {
+            tamanhos = Arrays.copyOf(tamanhos, doc * 2);
+        }
+        tamanhos[doc] = tamanho;
+        somaTamanhos += tamanho;
+        return true;
+    }
+
+    public void adicionarTodas(Collection<Noticia> noticias) {
+        for (Noticia n : noticias) {
+            adicionar(n);
+        }
+    }
+
+    // Indexa as três listas do usuário
+    public void adicionarUsuario(Usuario usuario) {
+        adicionarTodas(usuario.getFavoritos());
+        adicionarTodas(usuario.getLidas());
+        adicionarTodas(usuario.getParaLerDepois());
+    }
+
+    public synchronized int tamanho() {
+        return documentos.size();
+    }
+
+    /**
+     * Busca offline no índice, ordenando os resultados pelo BM25.
+     * @param consulta Termos da busca (acentos e maiúsculas são ignorados).
+     * @param limite Número máximo de resultados.
+     * @return Notícias encontradas, da mais relevante para a menos relevante.
+     */
+    public synchronized List<Noticia> buscar(String consulta, int limite) {
+        int total = documentos.size();
+        if (total == 0 || limite <= 0) {
+            return new ArrayList<>();
+        }
+        double mediaTamanho = (double) somaTamanhos / total;
+        List<Postings> listas = new ArrayList<>();
+        int totalPostings = 0;
+        for (String termo : new LinkedHashSet<>(tokenizar(consulta))) {
+            Postings p = postings.get(termo);
+            if (p != null) {
+                listas.add(p);
+                totalPostings += p.tamanho;
+            }
+        }
+        if (listas.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Pontuacoes pontuacoes = new Pontuacoes(totalPostings);
+        for (Postings p : listas) {
+            double idf = Math.log(1 + (total - p.tamanho + 0.5) / (p.tamanho + 0.5));
+            for (int i = 0; i < p.tamanho; i++) {
+                int doc = p.docs[i];
+                int freq = p.freqs[i];
+                double norma = K1 * (1 - B + B * tamanhos[doc] / mediaTamanho);
+                pontuacoes.somar(doc, (float) (idf * freq * (K1 + 1) / (freq + norma)));
+            }
+        }
+
+        // Seleciona os melhores com um heap de tamanho limitado (guarda posições da tabela de pontuações)
+        PriorityQueue<Integer> melhores = new PriorityQueue<>(
+                Comparator.<Integer>comparingDouble(s -> pontuacoes.valores[s]).thenComparing(s -> -pontuacoes.docs[s]));
+        for (int s = 0; s < pontuacoes.docs.length; s++) {
+            if (pontuacoes.docs[s] == 0) {
+                continue;
+            }
+            melhores.add(s);
+            if (melhores.size() > limite) {
+                melhores.poll();
+            }
+        }
+        List<Noticia> resultado = new ArrayList<>(melhores.size());
+        while (!melhores.isEmpty()) {
+            resultado.add(documentos.get(pontuacoes.docs[melhores.poll()] - 1));
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    /**
+     * Busca híbrida: entrega na hora os resultados locais e, em paralelo, busca o termo na API.
+     * A busca remota é a mesma da busca por termo (cache, coalescência e resiliência); as notícias vindas da
+     * API são indexadas ao chegar.
+     * @param termo Termo de busca.
+     * @param limite Número máximo de resultados locais.
+     * @param aoEncontrarLocal Recebe os resultados locais antes da resposta da API.
+     * @return Future com os resultados locais seguidos dos remotos que ainda não apareceram; falha com
+     *         UncheckedIOException se a API falhar (os resultados locais já foram entregues).
+     */
+    public CompletableFuture<List<Noticia>> buscarHibrido(String termo, int limite, Consumer<List<Noticia>> aoEncontrarLocal) {
+        CompletableFuture<List<Noticia>> remotos = CompletableFuture.supplyAsync(() -> {
+            try {
+                return IBGENoticiasAPI.buscarNoticiasPorTermo(termo);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executorRemoto);
+        List<Noticia> locais = buscar(termo, limite);
+        aoEncontrarLocal.accept(locais);
+        return remotos.thenApply(lista -> {
+            adicionarTodas(lista);
+            Map<String, Noticia> juntos = new LinkedHashMap<>();
+            for (Noticia n : locais) {
+                juntos.put(n.getId(), n);
+            }
+            for (Noticia n : lista) {
+                juntos.putIfAbsent(n.getId(), n);
+            }
+            return new ArrayList<>(juntos.values());
+        });
+    }
+
+    // Normaliza o texto (sem acentos, minúsculo) e separa em termos
+    static List<String> tokenizar(String texto) {
+        List<String> termos = new ArrayList<>();
+        if (texto == null || texto.isEmpty()) {
+            return termos;
+        }
+        String normalizado = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String termo : SEPARADORES.split(normalizado)) {
+            if (!termo.isEmpty()) {
+                termos.add(termo);
+            }
+        }
+        return termos;
+    }
+
+    private static int contarTermos(String texto, Map<String, int[]> frequencias) {
+        List<String> termos = tokenizar(texto);
+        for (String termo : termos) {
+            frequencias.computeIfAbsent(termo, k -> new int[1])[0]++;
+        }
+        return termos.size();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,325 @@
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Controle de vazão das requisições à API do IBGE, compartilhado por todas as buscas (TransporteHttp)
+//
+// Duas travas, nesta ordem:
+//   - limite de concorrência adaptativo (AIMD com sinal de latência, como o TCP Vegas): o limite cresce
+//     aos poucos (+1 a cada janela de respostas) enquanto ele é o gargalo e a latência continua perto da
+//     mínima observada; cai pela metade em 429, 5xx ou timeout, e 10% quando a latência passa do dobro da
+//     mínima (fila se formando no servidor);
+//   - balde de fichas (token bucket): no máximo 'taxa' requisições por segundo, com rajadas de até 'rajada'.
+//     Um 429 com Retry-After suspende a emissão de fichas até o horário indicado.
+// Quem não consegue vaga espera numa fila única (por ordem de chegada), inclusive as chamadas assíncronas.
+
+public class LimitadorRequisicoes {
+
+    // Instância padrão; taxa em requisições/s (0 = sem balde) e espera máxima em ms; -Dibge.limite=false desliga
+    private static final LimitadorRequisicoes PADRAO = Boolean.parseBoolean(System.getProperty("ibge.limite", "true"))
+            ? new LimitadorRequisicoes(
+                    Double.parseDouble(System.getProperty("ibge.limite.taxa", "20")),
+                    Integer.getInteger("ibge.limite.rajada", 20),
+                    Integer.getInteger("ibge.limite.inicial", 8),
+                    Integer.getInteger("ibge.limite.maximo", 64),
+                    Long.getLong("ibge.limite.espera", 30_000))
+            : semLimite();
+
+    private static final int LIMITE_MINIMO = 1;
+    private static final double REDUCAO_SOBRECARGA = 0.5;
+    private static final double REDUCAO_LATENCIA = 0.9;
+    private static final double TOLERANCIA_LATENCIA = 2.0;
+    // A latência mínima é recalculada a cada janela, para acompanhar mudanças de rota ou de servidor
+    private static final int JANELA_MINIMO = 250;
+
+    private static final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "limitador-ibge");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Lançada quando a vaga não sai dentro da espera máxima; é uma saturação local, não falha da API
+    public static class SaturadoException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public SaturadoException(String mensagem) {
+            super(mensagem);
+        }
+    }
+
+    // Vaga de uma requisição; deve ser concluída exatamente uma vez, com a resposta ou com o erro
+    public final class Permissao {
+        private final long inicio = System.nanoTime();
+        private boolean concluida;
+
+        public void concluir(HttpResponse<?> resposta) {
+            int status = resposta.statusCode();
+            long retryAfter = status == 429 || status == 503
+                    ? resposta.headers().firstValue("Retry-After").map(LimitadorRequisicoes::segundosParaMillis).orElse(0L)
+                    : 0;
+            liberar(this, status == 429 || status >= 500, true, retryAfter);
+        }
+
+        public void concluirComErro(Throwable erro) {
+            // Timeout indica servidor sobrecarregado; outros erros (conexão recusada, interrupção) não dizem nada
+            liberar(this, erro instanceof HttpTimeoutException, false, 0);
+        }
+    }
+
+    private final double taxa;
+    private final double rajada;
+    private final int limiteMaximo;
+    private final long esperaMaximaMillis;
+    private final boolean controlar;
+
+    // Todo o estado abaixo é protegido por 'this'
+    private double fichas;
+    private long ultimaReposicao = System.nanoTime();
+    private long suspensoAte = Long.MIN_VALUE; // Retry-After
+    private double limite;
+    private int emAndamento;
+    private long ultimaReducao = Long.MIN_VALUE;
+    private long rttMinimo = Long.MAX_VALUE;
+    private long rttMinimoJanela = Long.MAX_VALUE;
+    private int amostrasJanela;
+    private long rttSuavizado;
+    private boolean agendado;
+    private final ArrayDeque<CompletableFuture<Permissao>> fila = new ArrayDeque<>();
+
+    private long reducoes;
+    private long esperas;
+
+    /**
+     * @param taxa Requisições por segundo (0 ou menos desliga o balde de fichas).
+     * @param rajada Fichas acumuladas no máximo.
+     * @param limiteInicial Requisições simultâneas no início.
+     * @param limiteMaximo Teto do limite adaptativo.
+     * @param esperaMaximaMillis Quanto adquirir() espera por uma vaga antes de desistir.
+     */
+    public LimitadorRequisicoes(double taxa, int rajada, int limiteInicial, int limiteMaximo, long esperaMaximaMillis) {
+        this.taxa = taxa;
+        this.rajada = Math.max(1, rajada);
+        this.fichas = this.rajada;
+        this.limiteMaximo = Math.max(LIMITE_MINIMO, limiteMaximo);
+        this.limite = Math.max(LIMITE_MINIMO, Math.min(limiteInicial, this.limiteMaximo));
+        this.esperaMaximaMillis = esperaMaximaMillis;
+        this.controlar = true;
+    }
+
+    private LimitadorRequisicoes() {
+        this.taxa = 0;
+        this.rajada = 1;
+        this.limiteMaximo = Integer.MAX_VALUE;
+        this.limite = Integer.MAX_VALUE;
+        this.esperaMaximaMillis = 0;
+        this.controlar = false;
+    }
+
+    public static LimitadorRequisicoes padrao() {
+        return PADRAO;
+    }
+
+    // Limitador que libera tudo na hora (nem Retry-After respeita): o comportamento de antes, para comparação
+    public static LimitadorRequisicoes semLimite() {
+        return new LimitadorRequisicoes();
+    }
+
+    /**
+     * Espera uma vaga (concorrência e ficha).
+     * @return A permissão, que deve ser concluída quando a resposta chegar.
+     * @throws SaturadoException Se a vaga não sair dentro da espera máxima.
+     * @throws IOException Se a espera for interrompida.
+     */
+    public Permissao adquirir() throws IOException {
+        CompletableFuture<Permissao> futuro = adquirirAsync();
+        try {
+            return futuro.get(esperaMaximaMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            if (!futuro.cancel(false)) {
+                return futuro.join(); // A vaga saiu junto com a desistência: fica com ela
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw ResilienciaHttp.interrupcao("Espera por vaga para a API interrompida.", (InterruptedException) e);
+            }
+            throw new SaturadoException("Sem vaga para a API do IBGE em " + esperaMaximaMillis + " ms (limite atual: "
+                    + getLimite() + ", na fila: " + getNaFila() + ").");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Versão assíncrona de adquirir; não bloqueia quem chama. Uma future cancelada sai da fila sem gastar vaga.
+     * @return Future completada quando houver vaga.
+     */
+    public CompletableFuture<Permissao> adquirirAsync() {
+        if (!controlar) {
+            return CompletableFuture.completedFuture(new Permissao());
+        }
+        CompletableFuture<Permissao> futuro = new CompletableFuture<>();
+        synchronized (this) {
+            fila.add(futuro);
+        }
+        despachar();
+        if (!futuro.isDone()) {
+            synchronized (this) {
+                esperas++;
+            }
+        }
+        return futuro;
+    }
+
+    public synchronized int getLimite() {
+        return (int) limite;
+    }
+
+    public synchronized int getEmAndamento() {
+        return emAndamento;
+    }
+
+    public synchronized int getNaFila() {
+        return fila.size();
+    }
+
+    // Quantas vezes o limite foi reduzido
+    public synchronized long getReducoes() {
+        return reducoes;
+    }
+
+    // Quantas requisições tiveram de esperar vaga
+    public synchronized long getEsperas() {
+        return esperas;
+    }
+
+    private void liberar(Permissao permissao, boolean sobrecarga, boolean respondeu, long retryAfterMillis) {
+        if (!controlar) {
+            return;
+        }
+        synchronized (this) {
+            if (permissao.concluida) {
+                return;
+            }
+            permissao.concluida = true;
+            long agora = System.nanoTime();
+            boolean eraGargalo = emAndamento >= (int) limite || !fila.isEmpty();
+            emAndamento--;
+            // Só reage uma vez por "geração": respostas de requisições enviadas antes da última redução
+            // refletem o limite antigo
+            boolean podeReduzir = permissao.inicio >= ultimaReducao;
+
+            if (sobrecarga) {
+                if (podeReduzir) {
+                    reduzir(REDUCAO_SOBRECARGA, agora);
+                }
+                if (retryAfterMillis > 0) {
+                    suspensoAte = Math.max(suspensoAte, agora + Math.min(retryAfterMillis, esperaMaximaMillis) * 1_000_000);
+                }
+            } else if (respondeu) {
+                long rtt = agora - permissao.inicio;
+                registrarRtt(rtt);
+                if (rttSuavizado > rttMinimo * TOLERANCIA_LATENCIA) {
+                    if (podeReduzir) {
+                        reduzir(REDUCAO_LATENCIA, agora);
+                    }
+                } else if (eraGargalo) {
+                    // Aumento aditivo: +1 depois de 'limite' respostas
+                    limite = Math.min(limiteMaximo, limite + 1 / limite);
+                }
+            }
+        }
+        despachar();
+    }
+
+    private void reduzir(double fator, long agora) {
+        limite = Math.max(LIMITE_MINIMO, limite * fator);
+        ultimaReducao = agora;
+        reducoes++;
+    }
+
+    private void registrarRtt(long rtt) {
+        rttSuavizado = rttSuavizado == 0 ? rtt : (rttSuavizado * 4 + rtt) / 5;
+        rttMinimo = Math.min(rttMinimo, rtt);
+        rttMinimoJanela = Math.min(rttMinimoJanela, rtt);
+        if (++amostrasJanela >= JANELA_MINIMO) {
+            rttMinimo = rttMinimoJanela;
+            rttMinimoJanela = Long.MAX_VALUE;
+            amostrasJanela = 0;
+        }
+    }
+
+    // Entrega vagas aos primeiros da fila enquanto houver concorrência e fichas; as futures são
+    // completadas fora da trava, porque quem espera pode continuar o trabalho na mesma thread
+    private void despachar() {
+        List<CompletableFuture<Permissao>> liberadas = new ArrayList<>();
+        synchronized (this) {
+            long agora = System.nanoTime();
+            while (!fila.isEmpty()) {
+                if (fila.peek().isDone()) {
+                    fila.poll(); // Cancelada por quem desistiu
+                    continue;
+                }
+                if (emAndamento >= (int) limite) {
+                    break; // Uma liberação chama despachar de novo
+                }
+                long espera = esperaPorFicha(agora);
+                if (espera > 0) {
+                    agendar(espera);
+                    break;
+                }
+                if (taxa > 0) {
+                    fichas -= 1;
+                }
+                emAndamento++;
+                liberadas.add(fila.poll());
+            }
+        }
+        for (CompletableFuture<Permissao> futuro : liberadas) {
+            Permissao permissao = new Permissao();
+            if (!futuro.complete(permissao)) {
+                liberar(permissao, false, false, 0); // Cancelada nesse meio tempo: devolve a vaga
+            }
+        }
+    }
+
+    // Nanossegundos até a próxima ficha (0 se já houver uma)
+    private long esperaPorFicha(long agora) {
+        if (agora < suspensoAte) {
+            return suspensoAte - agora;
+        }
+        if (taxa <= 0) {
+            return 0;
+        }
+        fichas = Math.min(rajada, fichas + (agora - ultimaReposicao) / 1e9 * taxa);
+        ultimaReposicao = agora;
+        if (fichas >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - fichas) / taxa * 1e9);
+    }
+
+    private void agendar(long nanos) {
+        if (!agendado) {
+            agendado = true;
+            agendador.schedule(() -> {
+                synchronized (this) {
+                    agendado = false;
+                }
+                despachar();
+            }, nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Retry-After em segundos; a forma com data HTTP é rara na prática e fica sem pausa
+    private static long segundosParaMillis(String valor) {
+        try {
+            return Math.max(0, Long.parseLong(valor.trim())) * 1000;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
\ No newline at end of file
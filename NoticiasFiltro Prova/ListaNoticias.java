@@ -0,0 +1,292 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+// Lista de notícias do usuário guardada como um vetor de índices do RepositorioNoticias,
+// para que a mesma notícia em várias listas exista uma só vez na memória e no arquivo.
+// Funciona como um conjunto com ordem de inserção: cada notícia aparece no máximo uma vez,
+// e contains/add/remove por notícia são O(1) graças ao vetor de posições por índice do repositório.
+
+public class ListaNoticias extends AbstractList<Noticia> {
+    private static final int REMOVIDA = -1;
+
+    private final RepositorioNoticias repositorio;
+    // Índices do repositório na ordem de inserção; remoções deixam REMOVIDA até a próxima compactação
+    private int[] indices = new int[8];
+    private int usados;
+    private int tamanho;
+    // posicoes[indiceRepositorio] = posição em "indices" + 1 (0 quando a notícia não está na lista)
+    private int[] posicoes = new int[8];
+    // Índices de ordenação, criados na primeira visão ordenada e mantidos a cada alteração
+    private OrdenacaoNoticias ordenacao;
+
+    public ListaNoticias(RepositorioNoticias repositorio) {
+        this.repositorio = repositorio;
+    }
+
+    public ListaNoticias(RepositorioNoticias repositorio, Collection<Noticia> noticias) {
+        this(repositorio);
+        adicionarTodas(noticias);
+    }
+
+    public RepositorioNoticias getRepositorio() {
+        return repositorio;
+    }
+
+    @Override
+    public Noticia get(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        compactar();
+        return repositorio.get(indices[posicao]);
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    /**
+     * Devolve uma visão somente leitura da lista na ordem pedida. A primeira chamada monta os índices
+     * de ordenação; as seguintes só percorrem a ordem já mantida.
+     * @param criterio Título, data ou tipo.
+     * @return Visão ordenada da lista.
+     */
+    public List<Noticia> ordenadaPor(OrdenacaoNoticias.Criterio criterio) {
+        if (ordenacao == null) {
+            compactar();
+            ordenacao = new OrdenacaoNoticias(repositorio, indices, usados);
+        }
+        return ordenacao.visao(criterio);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return posicaoNoVetor(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (posicaoNoVetor(o) < 0) {
+            return -1;
+        }
+        compactar();
+        return posicaoNoVetor(o);
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Adiciona a notícia no fim da lista, se ela ainda não estiver presente.
+     * @return false se a notícia já estava na lista.
+     */
+    @Override
+    public boolean add(Noticia noticia) {
+        int indice = repositorio.internar(noticia);
+        if (posicaoDoIndice(indice) >= 0) {
+            return false;
+        }
+        if (usados == indices.length) {
+            indices = Arrays.copyOf(indices, usados * 2);
+        }
+        indices[usados] = indice;
+        marcarPosicao(indice, usados);
+        usados++;
+        tamanho++;
+        modCount++;
+        if (ordenacao != null) {
+            ordenacao.adicionar(indice);
+        }
+        return true;
+    }
+
+    // Inserção no meio da lista é O(n); notícias já presentes são ignoradas
+    @Override
+    public void add(int posicao, Noticia noticia) {
+        verificarPosicao(posicao, tamanho + 1);
+        int indice = repositorio.internar(noticia);
+        if (posicaoDoIndice(indice) >= 0) {
+            return;
+        }
+        compactar();
+        if (usados == indices.length) {
+            indices = Arrays.copyOf(indices, usados * 2);
+        }
+        System.arraycopy(indices, posicao, indices, posicao + 1, usados - posicao);
+        indices[posicao] = indice;
+        usados++;
+        tamanho++;
+        modCount++;
+        remapear(posicao);
+        if (ordenacao != null) {
+            ordenacao.adicionar(indice);
+        }
+    }
+
+    @Override
+    public Noticia set(int posicao, Noticia noticia) {
+        verificarPosicao(posicao, tamanho);
+        compactar();
+        int indice = repositorio.internar(noticia);
+        int atual = posicaoDoIndice(indice);
+        if (atual >= 0 && atual != posicao) {
+            throw new IllegalArgumentException("A notícia " + noticia.getId() + " já está em outra posição da lista.");
+        }
+        Noticia anterior = repositorio.get(indices[posicao]);
+        posicoes[indices[posicao]] = 0;
+        if (ordenacao != null) {
+            ordenacao.remover(indices[posicao]);
+            ordenacao.adicionar(indice);
+        }
+        indices[posicao] = indice;
+        marcarPosicao(indice, posicao);
+        return anterior;
+    }
+
+    @Override
+    public Noticia remove(int posicao) {
+        verificarPosicao(posicao, tamanho);
+        compactar();
+        int indice = indices[posicao];
+        posicoes[indice] = 0;
+        System.arraycopy(indices, posicao + 1, indices, posicao, usados - posicao - 1);
+        usados--;
+        tamanho--;
+        modCount++;
+        remapear(posicao);
+        if (ordenacao != null) {
+            ordenacao.remover(indice);
+        }
+        return repositorio.get(indice);
+    }
+
+    // Remoção por notícia em O(1): a posição fica marcada e é liberada na próxima compactação
+    @Override
+    public boolean remove(Object o) {
+        int posicao = posicaoNoVetor(o);
+        if (posicao < 0) {
+            return false;
+        }
+        posicoes[indices[posicao]] = 0;
+        if (ordenacao != null) {
+            ordenacao.remover(indices[posicao]);
+        }
+        indices[posicao] = REMOVIDA;
+        tamanho--;
+        modCount++;
+        if (usados - tamanho > tamanho) {
+            compactar();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Noticia> noticias) {
+        return adicionarTodas(noticias) > 0;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> noticias) {
+        return removerTodas(noticias) > 0;
+    }
+
+    /**
+     * Adiciona várias notícias de uma vez, ignorando as que já estão na lista.
+     * @return Quantas notícias foram realmente adicionadas.
+     */
+    public int adicionarTodas(Collection<? extends Noticia> noticias) {
+        int adicionadas = 0;
+        for (Noticia n : noticias) {
+            if (add(n)) {
+                adicionadas++;
+            }
+        }
+        return adicionadas;
+    }
+
+    /**
+     * Remove várias notícias de uma vez, compactando o vetor uma única vez no fim.
+     * @return Quantas notícias foram realmente removidas.
+     */
+    public int removerTodas(Collection<?> noticias) {
+        int removidas = 0;
+        for (Object o : noticias) {
+            int posicao = posicaoNoVetor(o);
+            if (posicao >= 0) {
+                posicoes[indices[posicao]] = 0;
+                if (ordenacao != null) {
+                    ordenacao.remover(indices[posicao]);
+                }
+                indices[posicao] = REMOVIDA;
+                tamanho--;
+                removidas++;
+            }
+        }
+        if (removidas > 0) {
+            modCount++;
+            compactar();
+        }
+        return removidas;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(posicoes, 0);
+        ordenacao = null;
+        usados = 0;
+        tamanho = 0;
+        modCount++;
+    }
+
+    // Posição da notícia no vetor "indices" (pode incluir buracos de remoções), ou -1
+    private int posicaoNoVetor(Object o) {
+        if (!(o instanceof Noticia)) {
+            return -1;
+        }
+        int indice = repositorio.indiceDe(((Noticia) o).getId());
+        return indice >= 0 ? posicaoDoIndice(indice) : -1;
+    }
+
+    private int posicaoDoIndice(int indice) {
+        return indice < posicoes.length ? posicoes[indice] - 1 : -1;
+    }
+
+    private void marcarPosicao(int indice, int posicao) {
+        if (indice >= posicoes.length) {
+            posicoes = Arrays.copyOf(posicoes, Math.max(indice + 1, posicoes.length * 2));
+        }
+        posicoes[indice] = posicao + 1;
+    }
+
+    // Recalcula as posições a partir de "inicio", depois de um deslocamento do vetor
+    private void remapear(int inicio) {
+        for (int i = inicio; i < usados; i++) {
+            marcarPosicao(indices[i], i);
+        }
+    }
+
+    // Tira os buracos deixados pelas remoções, mantendo a ordem de inserção
+    private void compactar() {
+        if (usados == tamanho) {
+            return;
+        }
+        int destino = 0;
+        for (int i = 0; i < usados; i++) {
+            if (indices[i] != REMOVIDA) {
+                indices[destino] = indices[i];
+                posicoes[indices[destino]] = destino + 1;
+                destino++;
+            }
+        }
+        usados = destino;
+    }
+
+    private static void verificarPosicao(int posicao, int limite) {
+        if (posicao < 0 || posicao >= limite) {
+            throw new IndexOutOfBoundsException("Posição " + posicao + " fora da lista de tamanho " + limite);
+        }
+    }
+}
\ No newline at end of file
@@ -1,3 +1,4 @@
+import java.util.Arrays;
 import java.util.Scanner;
 import java.lang.reflect.Field;
 import java.nio.charset.Charset;
@@ -7,6 +8,17 @@ import java.nio.charset.Charset;
 public class Main { 
 
     public static void main(String[] args) {
+        // Modo em lote, sem menu: java Main --lote <arquivo> [--paralelo N] [--saida arquivo.ndjson]
+        if (args.length > 0 && args[0].equals("--lote")) {
+            ExecucaoEmLote.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // Modo servidor HTTP/JSON para vários usuários: java Main --servidor [porta]
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            ServidorNoticias.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         // Configura a formatação de saída para UTF-8
         try {
             System.setProperty("file.encoding", "UTF-8"); 
@@ -19,6 +31,8 @@ public class Main {
 
         Scanner sc = new Scanner(System.in);
         Usuario usuario = Persistencia.carregarUsuario(); 
+        // Aquece o cache em segundo plano com as buscas mais prováveis; para na primeira busca de verdade
+        PreBuscaNoticias preBusca = PreBuscaNoticias.iniciar(usuario);
 
         if (usuario == null) { // Se não houver usuário salvo, cria um novo
             System.out.println("Nenhum usuário encontrado! \n" +
@@ -37,7 +51,7 @@ public class Main {
             System.out.println("\n Olá, " + usuario.getNome() + "! \n");
         }
 
-        GerenciadorNoticias gerenciador = new GerenciadorNoticias(usuario);
+        GerenciadorNoticias gerenciador = new GerenciadorNoticias(usuario, preBusca);
         int opcao;
 
         do {
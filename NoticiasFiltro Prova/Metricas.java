@@ -0,0 +1,344 @@
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.ObjectName;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Métricas internas: histogramas de latência, contadores e eventos JFR das buscas, da persistência e da exibição
+//
+// Desligadas por padrão. Com -Dnoticias.metricas=true:
+//   - histogramas e contadores ficam disponíveis no MBean "noticias:type=Metricas" (JMX, ex: jconsole);
+//   - cada operação gera um evento JFR "noticias.Operacao" (visível quando há uma gravação JFR ativa);
+//   - -Dnoticias.metricas.porta=N publica o texto no formato Prometheus em http://127.0.0.1:N/metrics;
+//   - -Dnoticias.metricas.arquivo=caminho grava o mesmo texto nesse arquivo ao sair do programa.
+// Desligadas, inicio() e registrar() se reduzem a um teste de uma constante, que o JIT elimina.
+
+public class Metricas {
+    public static final boolean ATIVAS = Boolean.getBoolean("noticias.metricas");
+
+    // Operações com latência medida
+    public enum Operacao { HTTP, DECODIFICACAO, SALVAR, CARREGAR, RENDERIZAR }
+
+    // COALESCIDAS: buscas que esperaram uma idêntica já em andamento em vez de ir à API (ChamadaUnica)
+    // PRE_BUSCAS: buscas feitas em segundo plano para aquecer o cache na partida (PreBuscaNoticias)
+    public enum Contador { REQUISICOES, BYTES_RECEBIDOS, CACHE_ACERTOS, CACHE_FALTAS, ERROS, COALESCIDAS, PRE_BUSCAS }
+
+    private static final Histograma[] HISTOGRAMAS = new Histograma[Operacao.values().length];
+    private static final LongAdder[] CONTADORES = new LongAdder[Contador.values().length];
+
+    static {
+        for (int i = 0; i < HISTOGRAMAS.length; i++) {
+            HISTOGRAMAS[i] = new Histograma();
+        }
+        for (int i = 0; i < CONTADORES.length; i++) {
+            CONTADORES[i] = new LongAdder();
+        }
+        if (ATIVAS) {
+            publicar();
+        }
+    }
+
+    /**
+     * Histograma de latências em nanossegundos no estilo HDR: 8 faixas lineares por potência de 2,
+     * o que dá no máximo 12,5% de erro relativo em qualquer percentil, com memória fixa e sem travas.
+     */
+    public static class Histograma {
+        private static final int SUBFAIXAS = 8;
+        private static final int LINEARES = 2 * SUBFAIXAS; // Valores abaixo de 16 ns têm uma faixa cada
+        private static final int FAIXAS = LINEARES + (63 - 4) * SUBFAIXAS;
+
+        private final AtomicLongArray contagens = new AtomicLongArray(FAIXAS);
+        private final LongAdder soma = new LongAdder();
+        private final AtomicLong maximo = new AtomicLong();
+
+        public void registrar(long nanos) {
+            long valor = Math.max(0, nanos);
+            contagens.incrementAndGet(faixa(valor));
+            soma.add(valor);
+            long atual = maximo.get();
+            while (valor > atual && !maximo.compareAndSet(atual, valor)) {
+                atual = maximo.get();
+            }
+        }
+
+        private static int faixa(long valor) {
+            if (valor < LINEARES) {
+                return (int) valor;
+            }
+            int expoente = 63 - Long.numberOfLeadingZeros(valor);
+            int sub = (int) (valor >>> (expoente - 3)) & (SUBFAIXAS - 1);
+            return LINEARES + (expoente - 4) * SUBFAIXAS + sub;
+        }
+
+        // Maior valor que cai na faixa
+        private static long limiteSuperior(int faixa) {
+            if (faixa < LINEARES) {
+                return faixa;
+            }
+            int expoente = (faixa - LINEARES) / SUBFAIXAS + 4;
+            int sub = (faixa - LINEARES) % SUBFAIXAS;
+            return ((long) (SUBFAIXAS + sub + 1) << (expoente - 3)) - 1;
+        }
+
+        public long getContagem() {
+            long total = 0;
+            for (int i = 0; i < FAIXAS; i++) {
+                total += contagens.get(i);
+            }
+            return total;
+        }
+
+        public long getSoma() {
+            return soma.sum();
+        }
+
+        public long getMaximo() {
+            return maximo.get();
+        }
+
+        /**
+         * Percentil aproximado (limite superior da faixa, sem passar do máximo observado).
+         * @param fracao Entre 0 e 1 (ex: 0.99).
+         * @return Latência em nanossegundos, ou 0 se não houver registros.
+         */
+        public long percentil(double fracao) {
+            long[] copia = new long[FAIXAS];
+            long total = 0;
+            for (int i = 0; i < FAIXAS; i++) {
+                copia[i] = contagens.get(i);
+                total += copia[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long alvo = Math.max(1, (long) Math.ceil(fracao * total));
+            long acumulado = 0;
+            for (int i = 0; i < FAIXAS; i++) {
+                acumulado += copia[i];
+                if (acumulado >= alvo) {
+                    return Math.min(limiteSuperior(i), getMaximo());
+                }
+            }
+            return getMaximo();
+        }
+
+        public void zerar() {
+            for (int i = 0; i < FAIXAS; i++) {
+                contagens.set(i, 0);
+            }
+            soma.reset();
+            maximo.set(0);
+        }
+    }
+
+    // Evento JFR de uma operação medida; a duração vem do histograma, então o evento é gravado já pronto
+    @Name("noticias.Operacao")
+    @Label("Operação")
+    @Category("Notícias IBGE")
+    static class EventoOperacao extends Event {
+        @Label("Operação")
+        String operacao;
+
+        @Label("Duração")
+        @Timespan(Timespan.NANOSECONDS)
+        long duracao;
+    }
+
+    // Interface JMX (MXBean: os mapas aparecem como tabelas no jconsole)
+    public interface MetricasMXBean {
+        Map<String, Long> getContadores();
+        Map<String, Double> getP50Ms();
+        Map<String, Double> getP99Ms();
+        Map<String, Double> getMaximoMs();
+        String getTextoPrometheus();
+        void zerar();
+    }
+
+    private static class Jmx implements MetricasMXBean {
+        @Override
+        public Map<String, Long> getContadores() {
+            Map<String, Long> valores = new LinkedHashMap<>();
+            for (Contador c : Contador.values()) {
+                valores.put(nome(c), CONTADORES[c.ordinal()].sum());
+            }
+            return valores;
+        }
+
+        @Override public Map<String, Double> getP50Ms() { return percentisMs(0.50); }
+        @Override public Map<String, Double> getP99Ms() { return percentisMs(0.99); }
+        @Override public Map<String, Double> getMaximoMs() { return percentisMs(1.0); }
+        @Override public String getTextoPrometheus() { return prometheus(); }
+        @Override public void zerar() { Metricas.zerar(); }
+
+        private static Map<String, Double> percentisMs(double fracao) {
+            Map<String, Double> valores = new LinkedHashMap<>();
+            for (Operacao op : Operacao.values()) {
+                valores.put(nome(op), HISTOGRAMAS[op.ordinal()].percentil(fracao) / 1e6);
+            }
+            return valores;
+        }
+    }
+
+    /**
+     * Marca o início de uma operação.
+     * @return Instante em nanossegundos (0 com as métricas desligadas).
+     */
+    public static long inicio() {
+        return ATIVAS ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Registra a duração de uma operação iniciada com inicio().
+     * @param operacao Operação medida.
+     * @param inicio Valor devolvido por inicio().
+     */
+    public static void registrar(Operacao operacao, long inicio) {
+        if (!ATIVAS) {
+            return;
+        }
+        long duracao = System.nanoTime() - inicio;
+        HISTOGRAMAS[operacao.ordinal()].registrar(duracao);
+        EventoOperacao evento = new EventoOperacao();
+        if (evento.shouldCommit()) {
+            evento.operacao = nome(operacao);
+            evento.duracao = duracao;
+            evento.commit();
+        }
+    }
+
+    public static void contar(Contador contador, long quantidade) {
+        if (ATIVAS) {
+            CONTADORES[contador.ordinal()].add(quantidade);
+        }
+    }
+
+    public static Histograma histograma(Operacao operacao) {
+        return HISTOGRAMAS[operacao.ordinal()];
+    }
+
+    public static long valor(Contador contador) {
+        return CONTADORES[contador.ordinal()].sum();
+    }
+
+    public static void zerar() {
+        for (Histograma h : HISTOGRAMAS) {
+            h.zerar();
+        }
+        for (LongAdder c : CONTADORES) {
+            c.reset();
+        }
+    }
+
+    /**
+     * Texto no formato de exposição do Prometheus: um summary por operação (p50, p90, p99, soma e contagem,
+     * em segundos) e um counter por contador.
+     * @return O texto, terminado em quebra de linha.
+     */
+    public static String prometheus() {
+        StringBuilder sb = new StringBuilder(2048);
+        sb.append("# HELP noticias_duracao_segundos Duração das operações de busca, leitura, persistência e exibição.\n");
+        sb.append("# TYPE noticias_duracao_segundos summary\n");
+        for (Operacao op : Operacao.values()) {
+            Histograma h = HISTOGRAMAS[op.ordinal()];
+            String rotulo = "operacao=\"" + nome(op) + "\"";
+            for (double q : new double[] {0.5, 0.9, 0.99}) {
+                sb.append("noticias_duracao_segundos{").append(rotulo).append(",quantile=\"").append(q).append("\"} ")
+                        .append(segundos(h.percentil(q))).append('\n');
+            }
+            sb.append("noticias_duracao_segundos_sum{").append(rotulo).append("} ").append(segundos(h.getSoma())).append('\n');
+            sb.append("noticias_duracao_segundos_count{").append(rotulo).append("} ").append(h.getContagem()).append('\n');
+        }
+        for (Contador c : Contador.values()) {
+            String nome = "noticias_" + nome(c) + "_total";
+            sb.append("# TYPE ").append(nome).append(" counter\n");
+            sb.append(nome).append(' ').append(CONTADORES[c.ordinal()].sum()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Grava o texto do Prometheus em um arquivo (temporário + troca, para quem lê nunca ver o arquivo pela metade).
+     * @param arquivo Destino.
+     * @throws IOException Se não for possível gravar.
+     */
+    public static void gravar(File arquivo) throws IOException {
+        File temporario = new File(arquivo.getPath() + ".tmp");
+        Files.write(temporario.toPath(), prometheus().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporario.toPath(), arquivo.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String nome(Enum<?> valor) {
+        return valor.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String segundos(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    // Registra o MBean e, se pedidos, o endpoint HTTP local e o arquivo gravado na saída
+    private static void publicar() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Jmx(), new ObjectName("noticias:type=Metricas"));
+        } catch (Exception e) {
+            System.err.println("Atenção: Não foi possível registrar as métricas no JMX: " + e.getMessage());
+        }
+
+        Integer porta = Integer.getInteger("noticias.metricas.porta");
+        if (porta != null) {
+            try {
+                // Só na interface local: as métricas não devem ficar expostas na rede
+                HttpServer servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta), 0);
+                servidor.createContext("/metrics", troca -> {
+                    byte[] corpo = prometheus().getBytes(StandardCharsets.UTF_8);
+                    troca.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                    troca.sendResponseHeaders(200, corpo.length);
+                    try (OutputStream out = troca.getResponseBody()) {
+                        out.write(corpo);
+                    }
+                });
+                servidor.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "metricas-http");
+                    t.setDaemon(true);
+                    return t;
+                }));
+                // A thread de despacho do servidor herda o status de daemon de quem o inicia;
+                // iniciado na thread principal, ele impediria o programa de terminar
+                Thread inicializador = new Thread(servidor::start, "metricas-http-inicio");
+                inicializador.setDaemon(true);
+                inicializador.start();
+                inicializador.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                System.err.println("Atenção: Não foi possível abrir o endpoint de métricas na porta " + porta + ": " + e.getMessage());
+            }
+        }
+
+        String arquivo = System.getProperty("noticias.metricas.arquivo");
+        if (arquivo != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    gravar(new File(arquivo));
+                } catch (IOException e) {
+                    System.err.println("Atenção: Não foi possível gravar as métricas em '" + arquivo + "': " + e.getMessage());
+                }
+            }, "metricas-arquivo"));
+        }
+    }
+}
\ No newline at end of file
@@ -1,15 +1,35 @@
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Objects;
+import java.util.Set;
 
 // Classe que representa uma notícia do IBGE
 public class Noticia {
+    private static final DateTimeFormatter FORMATO_EXIBICAO = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    // Campos de uma notícia, para pedir só parte deles (projeção) à API e ao armazenamento local
+    public enum Campo { ID, TITULO, INTRODUCAO, DATA, LINK, TIPO }
+
+    public static final Set<Campo> TODOS_OS_CAMPOS = Collections.unmodifiableSet(EnumSet.allOf(Campo.class));
+
     private String id;
     private String titulo;
     private String introducao;
+    // A API envia "data_publicacao"; no arquivo do usuário o campo é gravado como "dataPublicacao"
+    // (os dois nomes são tratados em IBGENoticiasAPI.NoticiaAdapter)
     private LocalDateTime dataPublicacao; // Alterado para LocalDateTime
     private String link;
     private String tipo;
+    // introducao e link são os campos mais longos; vindos da API, ficam em UTF-8 num bloco compartilhado
+    // com outras notícias da mesma página e só são decodificados quando lidos (inicio -1 = usa a String)
+    private transient byte[] blocoUtf8;
+    private transient int inicioIntroducao = -1;
+    private transient int tamanhoIntroducao;
+    private transient int inicioLink = -1;
+    private transient int tamanhoLink;
 
     public Noticia() {
     }
@@ -17,51 +37,71 @@ public class Noticia {
     // Getters
     public String getId() { return id; }
     public String getTitulo() { return titulo; }
-    public String getIntroducao() { return introducao; }
+    public String getIntroducao() {
+        return inicioIntroducao >= 0 ? new String(blocoUtf8, inicioIntroducao, tamanhoIntroducao, StandardCharsets.UTF_8) : introducao;
+    }
     public LocalDateTime getDataPublicacao() { return dataPublicacao; } // Getter para LocalDateTime
-    public String getLink() { return link; }
+    public String getLink() {
+        return inicioLink >= 0 ? new String(blocoUtf8, inicioLink, tamanhoLink, StandardCharsets.UTF_8) : link;
+    }
     public String getTipo() { return tipo; }
 
     // Setters
     public void setId(String id) { this.id = id; }
     public void setTitulo(String titulo) { this.titulo = titulo; }
-    public void setIntroducao(String introducao) { this.introducao = introducao; }
+    public void setIntroducao(String introducao) {
+        this.introducao = introducao;
+        this.inicioIntroducao = -1;
+    }
     // Setter para LocalDateTime
     public void setDataPublicacao(LocalDateTime dataPublicacao) { this.dataPublicacao = dataPublicacao; }
     // Opcional: Setter que recebe String para compatibilidade se necessário, mas o ideal é converter na API
     public void setDataPublicacao(String dataPublicacaoStr) {
-        // Formato da API: "YYYY-MM-DD HH:MM:SS"
-        // Criar um formatador para o formato da string da API
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        try {
-            this.dataPublicacao = LocalDateTime.parse(dataPublicacaoStr, formatter);
-        } catch (java.time.format.DateTimeParseException e) {
-            System.err.println("Erro ao parsear data: " + dataPublicacaoStr + ". Usando null. " + e.getMessage());
-            this.dataPublicacao = null; // Ou alguma data padrão
-        }
+        // Formatos da API: "YYYY-MM-DD HH:MM:SS" ou "DD/MM/YYYY HH:MM:SS"; datas inválidas viram null
+        this.dataPublicacao = IBGENoticiasAPI.parsearData(dataPublicacaoStr);
     }
 
-    public void setLink(String link) { this.link = link; }
+    public void setLink(String link) {
+        this.link = link;
+        this.inicioLink = -1;
+    }
+
+    // Troca o bloco por uma cópia com o mesmo conteúdo nas mesmas posições (ver NoticiaAdapter.concluir)
+    void trocarBlocoUtf8(byte[] bloco) {
+        this.blocoUtf8 = bloco;
+    }
+
+    // Guarda introducao e link como fatias de um bloco UTF-8 (tamanho -1 = null); usado pelo leitor da API
+    void setTextosUtf8(byte[] bloco, int inicioIntroducao, int tamanhoIntroducao, int inicioLink, int tamanhoLink) {
+        this.blocoUtf8 = bloco;
+        this.introducao = null;
+        this.link = null;
+        this.inicioIntroducao = tamanhoIntroducao < 0 ? -1 : inicioIntroducao;
+        this.tamanhoIntroducao = tamanhoIntroducao;
+        this.inicioLink = tamanhoLink < 0 ? -1 : inicioLink;
+        this.tamanhoLink = tamanhoLink;
+    }
     public void setTipo(String tipo) { this.tipo = tipo; }
 
     @Override
     public String toString() {
         // Formata a data para exibição
-        String dataFormatada = (dataPublicacao != null) ? dataPublicacao.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")) : "Data indisponível";
+        String dataFormatada = (dataPublicacao != null) ? dataPublicacao.format(FORMATO_EXIBICAO) : "Data indisponível";
         return String.format("Título: %s\nIntrodução: %s\nData: %s\nLink: %s\nTipo: %s\nFonte: IBGE",
-                titulo, introducao, dataFormatada, link, tipo);
+                titulo, getIntroducao(), dataFormatada, getLink(), tipo);
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Noticia)) return false; // Inclui as notícias lidas do snapshot binário
         Noticia noticia = (Noticia) o;
         return Objects.equals(id, noticia.id);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        // Só o id participa da igualdade; evita o array de varargs de Objects.hash a cada chamada
+        return id != null ? id.hashCode() : 0;
     }
 }
\ No newline at end of file
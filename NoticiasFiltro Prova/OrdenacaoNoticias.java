@@ -0,0 +1,149 @@
+import java.text.CollationKey;
+import java.text.Collator;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Índices de ordenação de uma ListaNoticias (título, data e tipo), mantidos a cada inserção/remoção
+// para que exibir a lista ordenada não precise copiar e reordenar tudo de novo
+
+public class OrdenacaoNoticias {
+
+    public enum Criterio { TITULO, DATA, TIPO }
+
+    private final RepositorioNoticias repositorio;
+    // Elementos atuais da lista; cada critério só ganha sua árvore quando é pedido pela primeira vez
+    private final Set<Integer> elementos = new HashSet<>();
+    private final Map<Criterio, TreeSet<Integer>> arvores = new EnumMap<>(Criterio.class);
+    private final Map<Criterio, int[]> fotografias = new EnumMap<>(Criterio.class);
+    private int versao;
+    private final Map<Criterio, Integer> versaoDaFotografia = new EnumMap<>(Criterio.class);
+    // Cópia local das chaves de cada critério, por índice do repositório, para comparar sem consultar o repositório
+    private final Map<Criterio, Object[]> chaves = new EnumMap<>(Criterio.class);
+
+    /**
+     * Guarda os elementos atuais da lista; a árvore de cada critério é montada (O(n log n)) na primeira
+     * visão por ele e, dali em diante, só atualizada.
+     * @param repositorio Repositório das notícias.
+     * @param indices Índices do repositório presentes na lista.
+     * @param quantidade Quantas posições de indices estão em uso.
+     */
+    public OrdenacaoNoticias(RepositorioNoticias repositorio, int[] indices, int quantidade) {
+        this.repositorio = repositorio;
+        for (int i = 0; i < quantidade; i++) {
+            elementos.add(indices[i]);
+        }
+    }
+
+    public void adicionar(int indice) {
+        elementos.add(indice);
+        for (Map.Entry<Criterio, TreeSet<Integer>> entry : arvores.entrySet()) {
+            carregarChave(entry.getKey(), indice);
+            entry.getValue().add(indice);
+        }
+        versao++;
+    }
+
+    public void remover(int indice) {
+        elementos.remove(indice);
+        for (TreeSet<Integer> arvore : arvores.values()) {
+            arvore.remove(indice);
+        }
+        versao++;
+    }
+
+    /**
+     * Devolve a lista na ordem pedida, sem reordenar: a ordem já está nos índices e só é copiada
+     * para um vetor quando a lista mudou desde a última visão.
+     * @param criterio Critério de ordenação.
+     * @return Visão somente leitura da lista ordenada.
+     */
+    public List<Noticia> visao(Criterio criterio) {
+        int[] ordem = fotografias.get(criterio);
+        if (ordem == null || versaoDaFotografia.get(criterio) != versao) {
+            TreeSet<Integer> arvore = arvores.get(criterio);
+            if (arvore == null) {
+                arvore = new TreeSet<>(comparadorDeIndices(criterio));
+                for (int indice : elementos) {
+                    carregarChave(criterio, indice);
+                }
+                arvore.addAll(elementos);
+                arvores.put(criterio, arvore);
+            }
+            ordem = new int[arvore.size()];
+            int i = 0;
+            for (int indice : arvore) {
+                ordem[i++] = indice;
+            }
+            fotografias.put(criterio, ordem);
+            versaoDaFotografia.put(criterio, versao);
+        }
+        int[] fotografia = ordem;
+        return new AbstractList<Noticia>() {
+            @Override
+            public Noticia get(int posicao) {
+                return repositorio.get(fotografia[posicao]);
+            }
+
+            @Override
+            public int size() {
+                return fotografia.length;
+            }
+        };
+    }
+
+    /**
+     * Comparador equivalente sobre Noticia, para listas que não são ListaNoticias.
+     * Título e tipo usam o Collator de português; datas mais recentes primeiro; nulos no fim.
+     */
+    public static Comparator<Noticia> comparador(Criterio criterio) {
+        Collator collator = novoCollator();
+        switch (criterio) {
+            case TITULO:
+                return Comparator.comparing(Noticia::getTitulo, Comparator.nullsLast(collator));
+            case DATA:
+                return Comparator.comparing(Noticia::getDataPublicacao, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()));
+            default:
+                return Comparator.comparing(Noticia::getTipo, Comparator.nullsLast(collator));
+        }
+    }
+
+    static Collator novoCollator() {
+        Collator collator = Collator.getInstance(new Locale("pt", "BR"));
+        collator.setStrength(Collator.SECONDARY);
+        return collator;
+    }
+
+    // Copia para o vetor local a chave da notícia (CollationKey de título/tipo, ou a data)
+    private void carregarChave(Criterio criterio, int indice) {
+        Object[] vetor = chaves.get(criterio);
+        if (vetor == null || indice >= vetor.length) {
+            vetor = Arrays.copyOf(vetor == null ? new Object[0] : vetor, Math.max(indice + 1, repositorio.tamanho()));
+            chaves.put(criterio, vetor);
+        }
+        if (vetor[indice] == null) {
+            switch (criterio) {
+                case TITULO:
+                    vetor[indice] = repositorio.chaveTitulo(indice);
+                    break;
+                case DATA:
+                    vetor[indice] = repositorio.get(indice).getDataPublicacao();
+                    break;
+                default:
+                    vetor[indice] = repositorio.chaveTipo(indice);
+            }
+        }
+    }
+
+    // Compara índices do repositório pelas chaves locais; empates ficam na ordem do repositório
+    private Comparator<Integer> comparadorDeIndices(Criterio criterio) {
+        Comparator<Integer> porChave;
+        if (criterio == Criterio.DATA) {
+            porChave = Comparator.comparing(i -> (LocalDateTime) chaves.get(criterio)[i],
+                    Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()));
+        } else {
+            porChave = Comparator.comparing(i -> (CollationKey) chaves.get(criterio)[i],
+                    Comparator.nullsLast(Comparator.<CollationKey>naturalOrder()));
+        }
+        return porChave.thenComparingInt(i -> i);
+    }
+}
\ No newline at end of file
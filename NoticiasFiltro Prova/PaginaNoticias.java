@@ -0,0 +1,56 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Classe que representa uma página de resultados da API de notícias do IBGE (envelope + itens)
+
+public class PaginaNoticias {
+    private int count;
+    private int page;
+    private int totalPages;
+    private int nextPage;
+    private List<Noticia> noticias;
+
+    public PaginaNoticias() {
+        this.noticias = new ArrayList<>();
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    public int getNextPage() {
+        return nextPage;
+    }
+
+    public void setNextPage(int nextPage) {
+        this.nextPage = nextPage;
+    }
+
+    public List<Noticia> getNoticias() {
+        return noticias;
+    }
+
+    public void setNoticias(List<Noticia> noticias) {
+        this.noticias = noticias;
+    }
+}
\ No newline at end of file
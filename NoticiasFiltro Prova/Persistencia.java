@@ -1,53 +1,289 @@
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 // Classe responsável por persistir os dados do usuário em um arquivo JSON
+// O arquivo usuario.json é um snapshot; cada alteração nas listas é anexada ao log usuario.log
+// e o log é compactado em um novo snapshot em segundo plano.
+// Cada instância cuida de um diretório (um usuário); os métodos estáticos usam a instância padrão,
+// a do usuário do programa, e o modo servidor cria uma instância por usuário.
 public class Persistencia {
-    private static final String DIRETORIO = "data";
-    private static final String CAMINHO = DIRETORIO + File.separator + "usuario.json"; 
+    // Usuário do programa; o diretório pode ser trocado pela propriedade "noticias.dados" (ex: benchmarks)
+    private static final Persistencia PADRAO = new Persistencia(new File(System.getProperty("noticias.dados", "data")), true);
 
-    // Configura o Gson com o TypeAdapter para LocalDateTime
+    // Com o snapshot binário (padrão), a inicialização mapeia usuario.bin em vez de interpretar o JSON
+    private static final boolean USAR_BINARIO = Boolean.parseBoolean(System.getProperty("noticias.snapshotBinario", "true"));
+
+    // Número de alterações no log que dispara uma compactação em segundo plano
+    private static final int LIMITE_LOG = 1000;
+
+    // Gson compacto para as linhas do log (uma alteração por linha)
+    private static final Gson gsonLog = new GsonBuilder()
+            .registerTypeAdapter(LocalDateTime.class, new IBGENoticiasAPI.LocalDateTimeAdapter())
+            .registerTypeAdapter(Noticia.class, new IBGENoticiasAPI.NoticiaAdapter())
+            .create();
+
+    // Configura o Gson com o TypeAdapter para LocalDateTime e o formato normalizado do usuário
     private static final Gson gson = new GsonBuilder()
             .setPrettyPrinting()
             .registerTypeAdapter(LocalDateTime.class, new IBGENoticiasAPI.LocalDateTimeAdapter()) // Usa o TypeAdapter da API
+            .registerTypeAdapter(Usuario.class, new UsuarioAdapter(new IBGENoticiasAPI.NoticiaAdapter()))
             .create();
 
-    public static void salvarUsuario(Usuario usuario) {
-        try {
-            File diretorio = new File(DIRETORIO);
-            if (!diretorio.exists()) {
-                if (diretorio.mkdirs()) {
-                    System.out.println("Diretório '" + DIRETORIO + "' criado com sucesso.");
+    // Uma única thread compacta os logs de todas as instâncias
+    private static final ExecutorService compactador = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "compactador-usuario");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final File diretorio;
+    private final File arquivo;
+    private final File arquivoBinario;
+    private final File arquivoLog;
+    private final File arquivoLogCompactando;
+    private final boolean mensagens; // Mensagens de sucesso no console (as de erro sempre aparecem)
+
+    // lock protege o log; lockSnapshot protege a gravação de usuario.json (sempre nesta ordem: lockSnapshot, lock)
+    private final Object lock = new Object();
+    private final Object lockSnapshot = new Object();
+    private FileOutputStream log;
+    private int alteracoesNoLog;
+    private int geracao; // Muda a cada salvamento completo, invalidando compactações pendentes
+
+    /**
+     * @param diretorio Diretório com usuario.json, usuario.bin e os logs.
+     * @param mensagens Se as mensagens de sucesso (salvo, carregado...) devem ser impressas.
+     */
+    public Persistencia(File diretorio, boolean mensagens) {
+        this.diretorio = diretorio;
+        this.arquivo = new File(diretorio, "usuario.json");
+        this.arquivoBinario = new File(diretorio, "usuario.bin");
+        this.arquivoLog = new File(diretorio, "usuario.log");
+        this.arquivoLogCompactando = new File(diretorio, "usuario.log.1");
+        this.mensagens = mensagens;
+    }
+
+    public static Persistencia padrao() {
+        return PADRAO;
+    }
+
+    /**
+     * TypeAdapter do usuário no formato normalizado: cada notícia aparece uma única vez em "noticias"
+     * e as listas guardam só os ids. Também lê o formato antigo, com as notícias completas dentro de
+     * cada lista, que é convertido para o novo no próximo salvamento.
+     */
+    public static class UsuarioAdapter extends TypeAdapter<Usuario> {
+        private final TypeAdapter<Noticia> noticiaAdapter;
+
+        public UsuarioAdapter(TypeAdapter<Noticia> noticiaAdapter) {
+            this.noticiaAdapter = noticiaAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, Usuario usuario) throws IOException {
+            if (usuario == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("nome").value(usuario.getNome());
+
+            // Grava só as notícias que ainda estão em alguma lista, cada uma uma vez
+            RepositorioNoticias repositorio = usuario.getRepositorio();
+            boolean[] gravadas = new boolean[repositorio.tamanho()];
+            out.name("noticias").beginArray();
+            for (List<Noticia> lista : Arrays.asList(usuario.getFavoritos(), usuario.getLidas(), usuario.getParaLerDepois())) {
+                for (Noticia n : lista) {
+                    int indice = repositorio.indiceDe(n.getId());
+                    if (!gravadas[indice]) {
+                        gravadas[indice] = true;
+                        noticiaAdapter.write(out, n);
+                    }
+                }
+            }
+            out.endArray();
+
+            escreverIds(out, "favoritos", usuario.getFavoritos());
+            escreverIds(out, "lidas", usuario.getLidas());
+            escreverIds(out, "paraLerDepois", usuario.getParaLerDepois());
+            out.endObject();
+        }
+
+        private static void escreverIds(JsonWriter out, String nome, List<Noticia> lista) throws IOException {
+            out.name(nome).beginArray();
+            for (Noticia n : lista) {
+                out.value(n.getId());
+            }
+            out.endArray();
+        }
+
+        @Override
+        public Usuario read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            Usuario usuario = new Usuario();
+            RepositorioNoticias repositorio = usuario.getRepositorio();
+            Map<String, List<String>> idsPorLista = new HashMap<>();
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String campo = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (campo) {
+                    case "nome":
+                        usuario.setNome(in.nextString());
+                        break;
+                    case "noticias":
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            repositorio.internar(noticiaAdapter.read(in));
+                        }
+                        in.endArray();
+                        break;
+                    case "favoritos":
+                    case "lidas":
+                    case "paraLerDepois":
+                        List<String> ids = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            if (in.peek() == JsonToken.BEGIN_OBJECT) {
+                                // Formato antigo: a notícia completa dentro da lista
+                                Noticia n = noticiaAdapter.read(in);
+                                repositorio.internar(n);
+                                ids.add(n.getId());
+                            } else {
+                                ids.add(in.nextString());
+                            }
+                        }
+                        in.endArray();
+                        idsPorLista.put(campo, ids);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            // As listas são montadas no fim, pois "noticias" pode aparecer depois delas
+            preencher(usuario.getFavoritos(), idsPorLista.get("favoritos"), repositorio);
+            preencher(usuario.getLidas(), idsPorLista.get("lidas"), repositorio);
+            preencher(usuario.getParaLerDepois(), idsPorLista.get("paraLerDepois"), repositorio);
+            return usuario;
+        }
+
+        private static void preencher(List<Noticia> lista, List<String> ids, RepositorioNoticias repositorio) {
+            if (ids == null) {
+                return;
+            }
+            for (String id : ids) {
+                int indice = repositorio.indiceDe(id);
+                if (indice >= 0) {
+                    lista.add(repositorio.get(indice));
                 } else {
-                    System.err.println("Atenção: Não foi possível criar o diretório '" + DIRETORIO + "'. Verifique as permissões.");
+                    System.err.println("Atenção: Notícia " + id + " referenciada sem dados no arquivo do usuário; ignorada.");
                 }
             }
+        }
+    }
 
-            FileWriter writer = new FileWriter(CAMINHO);
-            gson.toJson(usuario, writer);
-            writer.close();
-            System.out.println("Dados do usuário salvos com sucesso em: " + CAMINHO);
+    // Alteração registrada no log
+    private static class Alteracao {
+        private String op; // "add" ou "remove"
+        private String lista; // "favoritos", "lidas" ou "paraLerDepois"
+        private Noticia noticia; // só em "add"
+        private String id; // só em "remove"
+    }
+
+    public static void salvarUsuario(Usuario usuario) {
+        PADRAO.salvar(usuario);
+    }
+
+    public static Usuario carregarUsuario() {
+        return PADRAO.carregar();
+    }
+
+    public static void registrarAdicao(Usuario usuario, String lista, Noticia noticia) {
+        PADRAO.anotarAdicao(usuario, lista, noticia);
+    }
+
+    public static void registrarRemocao(Usuario usuario, String lista, Noticia noticia) {
+        PADRAO.anotarRemocao(usuario, lista, noticia);
+    }
+
+    // Grava um snapshot completo e descarta o log
+    public void salvar(Usuario usuario) {
+        long inicio = Metricas.inicio();
+        try {
+            criarDiretorio();
+            synchronized (lockSnapshot) {
+                synchronized (lock) {
+                    gravarSnapshot(usuario);
+                    // O snapshot já contém tudo o que estava no log
+                    fecharLog();
+                    arquivoLog.delete();
+                    arquivoLogCompactando.delete();
+                    alteracoesNoLog = 0;
+                    geracao++;
+                }
+            }
+            Metricas.registrar(Metricas.Operacao.SALVAR, inicio);
+            if (mensagens) {
+                System.out.println("Dados do usuário salvos com sucesso em: " + arquivo);
+            }
         } catch (IOException e) {
             System.out.println("Erro ao salvar usuário: " + e.getMessage());
             // e.printStackTrace(); // Para depuração
         }
     }
 
-    public static Usuario carregarUsuario() {
+    // Carrega o snapshot e reaplica o log; devolve null se não houver usuário salvo ou se a leitura falhar
+    public Usuario carregar() {
+        long inicio = Metricas.inicio();
         try {
-            File file = new File(CAMINHO);
+            File file = arquivo;
             if (!file.exists()) {
-                System.out.println("Arquivo de usuário não encontrado em '" + CAMINHO + "'. Um novo usuário será criado.");
+                if (mensagens) {
+                    System.out.println("Arquivo de usuário não encontrado em '" + arquivo + "'. Um novo usuário será criado.");
+                }
                 return null;
             }
-            FileReader reader = new FileReader(file);
-            Type type = new TypeToken<Usuario>() {}.getType();
-            Usuario usuario = gson.fromJson(reader, type);
-            reader.close();
-            System.out.println("Dados do usuário carregados com sucesso de: " + CAMINHO);
+            Usuario usuario = USAR_BINARIO ? carregarBinario(file) : null;
+            if (usuario == null) {
+                try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                    Type type = new TypeToken<Usuario>() {}.getType();
+                    usuario = gson.fromJson(reader, type);
+                }
+            }
+            // Reaplica as alterações feitas depois do último snapshot
+            int reaplicadas = reaplicarLog(usuario, arquivoLogCompactando) + reaplicarLog(usuario, arquivoLog);
+            Metricas.registrar(Metricas.Operacao.CARREGAR, inicio);
+            if (mensagens) {
+                System.out.println("Dados do usuário carregados com sucesso de: " + arquivo
+                        + (reaplicadas > 0 ? " (" + reaplicadas + " alterações recuperadas do log)" : ""));
+            }
             return usuario;
 
         } catch (IOException e) {
@@ -64,4 +300,240 @@ public class Persistencia {
             return null;
         }
     }
+
+    // Se já há um usuário salvo neste diretório (mesmo que a leitura dele falhe)
+    public boolean existe() {
+        return arquivo.exists();
+    }
+
+    /**
+     * Fecha o log ao descarregar o usuário da memória. Se houver alterações só no log (ou uma
+     * compactação pendente), grava antes um snapshot, para que a próxima instância sobre o mesmo
+     * diretório não dependa da compactação desta.
+     * @param usuario Usuário deste diretório, no estado atual.
+     */
+    public void fechar(Usuario usuario) {
+        boolean pendente;
+        synchronized (lock) {
+            pendente = log != null || arquivoLogCompactando.exists();
+        }
+        if (pendente) {
+            salvar(usuario);
+        }
+    }
+
+    // Abre o snapshot binário; se ele não existir, estiver desatualizado ou corrompido, devolve null para ler o JSON
+    private Usuario carregarBinario(File json) {
+        try {
+            return SnapshotBinario.ler(arquivoBinario, json);
+        } catch (IOException e) {
+            System.out.println("Atenção: Snapshot binário ignorado (" + e.getMessage() + "); lendo o JSON.");
+            return null;
+        }
+    }
+
+    /**
+     * Registra no log que uma notícia foi adicionada a uma lista do usuário.
+     * Deve ser chamado logo depois da alteração na lista, na mesma thread.
+     * @param usuario Usuário alterado.
+     * @param lista Nome da lista: "favoritos", "lidas" ou "paraLerDepois".
+     * @param noticia Notícia adicionada.
+     */
+    public void anotarAdicao(Usuario usuario, String lista, Noticia noticia) {
+        Alteracao alteracao = new Alteracao();
+        alteracao.op = "add";
+        alteracao.lista = lista;
+        alteracao.noticia = noticia;
+        registrar(usuario, alteracao);
+    }
+
+    /**
+     * Registra no log que uma notícia foi removida de uma lista do usuário.
+     * Deve ser chamado logo depois da alteração na lista, na mesma thread.
+     * @param usuario Usuário alterado.
+     * @param lista Nome da lista: "favoritos", "lidas" ou "paraLerDepois".
+     * @param noticia Notícia removida.
+     */
+    public void anotarRemocao(Usuario usuario, String lista, Noticia noticia) {
+        Alteracao alteracao = new Alteracao();
+        alteracao.op = "remove";
+        alteracao.lista = lista;
+        alteracao.id = noticia.getId();
+        registrar(usuario, alteracao);
+    }
+
+    // Anexa a alteração ao log e força a gravação no disco (fsync) antes de retornar
+    private void registrar(Usuario usuario, Alteracao alteracao) {
+        byte[] linha = (gsonLog.toJson(alteracao) + "\n").getBytes(StandardCharsets.UTF_8);
+        synchronized (lock) {
+            try {
+                if (log == null) {
+                    criarDiretorio();
+                    log = new FileOutputStream(arquivoLog, true);
+                }
+                log.write(linha);
+                log.getFD().sync();
+                alteracoesNoLog++;
+            } catch (IOException e) {
+                System.out.println("Erro ao registrar alteração do usuário: " + e.getMessage());
+                return;
+            }
+
+            if (alteracoesNoLog >= LIMITE_LOG && !arquivoLogCompactando.exists()) {
+                iniciarCompactacao(usuario);
+            }
+        }
+    }
+
+    // Separa o log atual e grava o snapshot em segundo plano; a cópia rasa das listas é feita aqui,
+    // na thread que altera o usuário, para o snapshot ficar consistente
+    private void iniciarCompactacao(Usuario usuario) {
+        Usuario copia = new Usuario(usuario.getNome());
+        copia.setFavoritos(new ArrayList<>(usuario.getFavoritos()));
+        copia.setLidas(new ArrayList<>(usuario.getLidas()));
+        copia.setParaLerDepois(new ArrayList<>(usuario.getParaLerDepois()));
+
+        fecharLog();
+        if (!arquivoLog.renameTo(arquivoLogCompactando)) {
+            System.out.println("Atenção: Não foi possível separar o log para compactação.");
+            return;
+        }
+        try {
+            sincronizarDiretorio(diretorio);
+        } catch (IOException e) {
+            System.out.println("Atenção: Não foi possível forçar a troca do log no disco: " + e.getMessage());
+        }
+        alteracoesNoLog = 0;
+        int geracaoDaCopia = geracao;
+
+        // O log continua recebendo alterações enquanto o snapshot é gravado
+        compactador.submit(() -> {
+            try {
+                synchronized (lockSnapshot) {
+                    if (geracaoDaCopia != geracao) {
+                        return; // salvar já gravou um snapshot mais novo
+                    }
+                    gravarSnapshot(copia);
+                    arquivoLogCompactando.delete();
+                }
+            } catch (IOException e) {
+                // O log separado continua no disco e será reaplicado no próximo carregamento
+                System.out.println("Erro ao compactar dados do usuário: " + e.getMessage());
+            }
+        });
+    }
+
+    // Grava o snapshot em um arquivo temporário e renomeia, para nunca deixar usuario.json pela metade
+    private void gravarSnapshot(Usuario usuario) throws IOException {
+        File temporario = new File(arquivo.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temporario)) {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            gson.toJson(usuario, writer);
+            writer.flush();
+            out.getFD().sync();
+        }
+        Files.move(temporario.toPath(), arquivo.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // O binário é derivado do JSON recém-gravado; se falhar, o JSON continua valendo
+        if (USAR_BINARIO) {
+            try {
+                SnapshotBinario.gravar(usuario, arquivoBinario, arquivo);
+            } catch (IOException e) {
+                System.out.println("Atenção: Não foi possível gravar o snapshot binário: " + e.getMessage());
+            }
+        }
+        // Uma sincronização do diretório vale pelas duas trocas, e vem antes de quem chama apagar os logs
+        sincronizarDiretorio(diretorio);
+    }
+
+    // Força no disco as entradas do diretório (arquivos renomeados, criados ou apagados): sem isso, uma queda
+    // logo depois pode desfazer a troca, mesmo com o conteúdo do arquivo já sincronizado. O Windows não deixa
+    // abrir um diretório para isso; lá fica como antes.
+    static void sincronizarDiretorio(File diretorio) throws IOException {
+        if (File.separatorChar == '\\') {
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(diretorio.toPath(), StandardOpenOption.READ)) {
+            canal.force(true);
+        }
+    }
+
+    // Reaplica as alterações de um log; uma última linha incompleta (queda no meio da gravação) é ignorada
+    private static int reaplicarLog(Usuario usuario, File arquivo) throws IOException {
+        if (!arquivo.exists()) {
+            return 0;
+        }
+        int reaplicadas = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(arquivo), StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                Alteracao alteracao;
+                try {
+                    alteracao = gsonLog.fromJson(linha, Alteracao.class);
+                } catch (JsonSyntaxException e) {
+                    System.out.println("Atenção: Linha incompleta ignorada no log '" + arquivo + "'.");
+                    break;
+                }
+                if (alteracao != null && aplicar(usuario, alteracao)) {
+                    reaplicadas++;
+                }
+            }
+        }
+        return reaplicadas;
+    }
+
+    // As operações são idempotentes, então reaplicar uma alteração que já está no snapshot não muda nada
+    private static boolean aplicar(Usuario usuario, Alteracao alteracao) {
+        List<Noticia> lista = listaPorNome(usuario, alteracao.lista);
+        if (lista == null) {
+            return false;
+        }
+        if ("add".equals(alteracao.op) && alteracao.noticia != null) {
+            if (!lista.contains(alteracao.noticia)) {
+                lista.add(alteracao.noticia);
+            }
+            return true;
+        }
+        if ("remove".equals(alteracao.op)) {
+            Noticia alvo = new Noticia();
+            alvo.setId(alteracao.id);
+            lista.remove(alvo);
+            return true;
+        }
+        return false;
+    }
+
+    private static List<Noticia> listaPorNome(Usuario usuario, String nome) {
+        if ("favoritos".equals(nome)) {
+            return usuario.getFavoritos();
+        } else if ("lidas".equals(nome)) {
+            return usuario.getLidas();
+        } else if ("paraLerDepois".equals(nome)) {
+            return usuario.getParaLerDepois();
+        }
+        return null;
+    }
+
+    private void fecharLog() {
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                System.out.println("Erro ao fechar o log do usuário: " + e.getMessage());
+            }
+            log = null;
+        }
+    }
+
+    private void criarDiretorio() {
+        if (!diretorio.exists()) {
+            if (diretorio.mkdirs()) {
+                if (mensagens) {
+                    System.out.println("Diretório '" + diretorio + "' criado com sucesso.");
+                }
+            } else {
+                System.err.println("Atenção: Não foi possível criar o diretório '" + diretorio + "'. Verifique as permissões.");
+            }
+        }
+    }
 }
\ No newline at end of file
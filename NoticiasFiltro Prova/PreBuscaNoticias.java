@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Pré-busca em segundo plano: logo depois de carregar o usuário, aquece o CacheNoticias com as buscas mais
+// prováveis, enquanto a pessoa ainda lê o menu e digita o termo.
+//
+// Ordem das buscas:
+//   - aquecimento: uma página de uma notícia, direto na API e fora do cache (nenhuma busca do menu a pediria).
+//     Serve só para abrir a conexão e carregar o decodificador, o custo de partida que toda primeira busca
+//     pagava, inclusive a de um termo que a pré-busca não previu;
+//   - as palavras mais frequentes nos títulos de favoritos e paraLerDepois (das notícias adicionadas mais
+//     recentemente), como buscas por termo, que a busca por termo do menu encontra no cache.
+// Roda em poucas threads daemon de prioridade mínima e passa pelo mesmo cache, limitador e coalescência das
+// buscas normais. Para quando o usuário faz a primeira busca de verdade (parar): as buscas ainda na fila são
+// descartadas; a que já estiver em andamento termina, e se for a mesma do usuário ele só espera por ela.
+//
+// Propriedades: noticias.prebusca (true), noticias.prebusca.termos (5), noticias.prebusca.threads (2).
+
+public class PreBuscaNoticias {
+    private static final boolean ATIVA = Boolean.parseBoolean(System.getProperty("noticias.prebusca", "true"));
+    private static final int MAX_TERMOS = Math.max(0, Integer.getInteger("noticias.prebusca.termos", 5));
+    private static final int THREADS = Math.max(1, Integer.getInteger("noticias.prebusca.threads", 2));
+    // Só as notícias adicionadas por último em cada lista contam; limita o trabalho com listas enormes
+    private static final int AMOSTRA_POR_LISTA = 200;
+    private static final int TAMANHO_MINIMO_TERMO = 4;
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Palavras comuns demais para servir de busca (comparadas sem acento)
+    private static final Set<String> PALAVRAS_VAZIAS = new HashSet<>(Arrays.asList(
+            "para", "pela", "pelo", "pelas", "pelos", "como", "mais", "menos", "sobre", "entre", "apos", "desde",
+            "esta", "este", "estao", "essa", "esse", "isso", "isto", "seus", "suas", "tambem", "muito", "muitos",
+            "quando", "onde", "qual", "quais", "ainda", "dois", "duas", "tres", "anos", "mesmo", "outros", "outras",
+            "foram", "sera", "serao", "pode", "podem", "numa", "nosso", "nossa", "cada", "todo", "toda", "todos",
+            "todas", "contra", "ante", "partir", "segundo", "durante", "maior", "menor", "aumenta", "cresce", "recua"));
+
+    private final ThreadPoolExecutor executor;
+    private volatile boolean parada;
+    private final AtomicInteger concluidas = new AtomicInteger();
+    private final AtomicInteger falhas = new AtomicInteger();
+    private final AtomicInteger descartadas = new AtomicInteger();
+
+    private PreBuscaNoticias(ThreadPoolExecutor executor) {
+        this.executor = executor;
+        this.parada = executor == null;
+    }
+
+    /**
+     * Começa a pré-busca para o usuário em segundo plano e volta na hora. As listas são copiadas aqui, na
+     * thread de quem chama; os termos são escolhidos já em segundo plano.
+     * @param usuario Usuário recém-carregado, ou null (só o aquecimento é feito, sem buscas por termo).
+     * @return A pré-busca em andamento, para ser parada na primeira busca do usuário.
+     */
+    public static PreBuscaNoticias iniciar(Usuario usuario) {
+        if (!ATIVA) {
+            return new PreBuscaNoticias(null);
+        }
+        List<Noticia> amostra = amostra(usuario);
+
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "prebusca-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                });
+        PreBuscaNoticias preBusca = new PreBuscaNoticias(executor);
+        // O aquecimento vai na frente, sem esperar a escolha dos termos (que decodifica os títulos)
+        executor.execute(preBusca::aquecer);
+        executor.execute(() -> {
+            for (Map<String, String> params : consultas(amostra)) {
+                try {
+                    executor.execute(() -> preBusca.buscar(params));
+                } catch (RejectedExecutionException e) {
+                    preBusca.descartadas.incrementAndGet(); // Parada enquanto os termos eram escolhidos
+                }
+            }
+            executor.shutdown();
+        });
+        return preBusca;
+    }
+
+    /**
+     * Para a pré-busca: nada mais é enviado à API. Chamar antes da primeira busca do usuário.
+     */
+    public void parar() {
+        if (parada) {
+            return;
+        }
+        parada = true;
+        if (executor != null) {
+            executor.shutdown(); // As buscas ainda na fila saem sem ir à API
+        }
+    }
+
+    public boolean isParada() {
+        return parada;
+    }
+
+    // Buscas que terminaram com a página no cache (o aquecimento não conta)
+    public int getConcluidas() {
+        return concluidas.get();
+    }
+
+    public int getFalhas() {
+        return falhas.get();
+    }
+
+    // Buscas que ficaram na fila quando a pré-busca foi parada
+    public int getDescartadas() {
+        return descartadas.get();
+    }
+
+    /**
+     * Espera as pré-buscas em andamento terminarem (usado nos testes de desempenho).
+     * @return true se todas terminaram dentro do prazo.
+     */
+    public boolean aguardar(long millis) throws InterruptedException {
+        if (executor == null) {
+            return true;
+        }
+        // O executor só é desligado depois de enfileirar as buscas (ou por parar)
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (!executor.isShutdown()) {
+            if (System.nanoTime() > limite) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return executor.awaitTermination(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    // Requisição mínima para deixar a conexão aberta e as classes do decodificador carregadas
+    private void aquecer() {
+        if (parada) {
+            descartadas.incrementAndGet();
+            return;
+        }
+        Map<String, String> params = new HashMap<>();
+        params.put("qtd", "1");
+        try {
+            IBGENoticiasAPI.buscarPaginaRemota(params);
+        } catch (IOException | RuntimeException e) {
+            falhas.incrementAndGet();
+        }
+    }
+
+    private void buscar(Map<String, String> params) {
+        if (parada) {
+            descartadas.incrementAndGet();
+            return;
+        }
+        try {
+            CacheNoticias.padrao().obter(params);
+            concluidas.incrementAndGet();
+            Metricas.contar(Metricas.Contador.PRE_BUSCAS, 1);
+        } catch (IOException | RuntimeException e) {
+            // Falhas aqui não interessam ao usuário; a busca dele tenta de novo, com a própria política
+            falhas.incrementAndGet();
+        }
+    }
+
+    // Últimas notícias de favoritos e paraLerDepois, da mais recente para a mais antiga
+    static List<Noticia> amostra(Usuario usuario) {
+        List<Noticia> amostra = new ArrayList<>();
+        if (usuario != null) {
+            amostrar(usuario.getFavoritos(), amostra);
+            amostrar(usuario.getParaLerDepois(), amostra);
+        }
+        return amostra;
+    }
+
+    // Copia só as referências; os campos das notícias do snapshot binário continuam sem decodificar
+    private static void amostrar(List<Noticia> lista, List<Noticia> amostra) {
+        int tamanho = lista.size();
+        List<Noticia> ultimas = new ArrayList<>(lista.subList(Math.max(0, tamanho - AMOSTRA_POR_LISTA), tamanho));
+        Collections.reverse(ultimas);
+        amostra.addAll(ultimas);
+    }
+
+    /**
+     * Escolhe as buscas derivadas das listas do usuário, da mais provável para a menos provável.
+     * Só buscas por termo: é o que o menu pede à API e, portanto, o que pode ser encontrado no cache.
+     * @param amostra Notícias das listas do usuário, das mais recentes para as mais antigas.
+     * @return Parâmetros de cada busca.
+     */
+    static List<Map<String, String>> consultas(List<Noticia> amostra) {
+        List<Map<String, String>> consultas = new ArrayList<>();
+        for (String termo : termosFrequentes(amostra, MAX_TERMOS)) {
+            consultas.add(IBGENoticiasAPI.parametrosPorTermo(termo));
+        }
+        return consultas;
+    }
+
+    // Palavras dos títulos por frequência (empate: a que apareceu primeiro, ou seja, na notícia mais recente).
+    // Mantém os acentos, como a pessoa digitaria, porque a chave do cache diferencia "brasília" de "brasilia"
+    static List<String> termosFrequentes(List<Noticia> amostra, int quantidade) {
+        Map<String, int[]> frequencias = new LinkedHashMap<>();
+        Set<String> jaVistos = new HashSet<>();
+        for (Noticia n : amostra) {
+            String titulo = n.getTitulo();
+            if (titulo == null || !jaVistos.add(n.getId())) {
+                continue;
+            }
+            for (String palavra : SEPARADORES.split(titulo.toLowerCase(Locale.ROOT))) {
+                if (palavra.length() >= TAMANHO_MINIMO_TERMO && !palavra.chars().allMatch(Character::isDigit)
+                        && !PALAVRAS_VAZIAS.contains(semAcentos(palavra))) {
+                    frequencias.computeIfAbsent(palavra, k -> new int[1])[0]++;
+                }
+            }
+        }
+        List<Map.Entry<String, int[]>> ordenadas = new ArrayList<>(frequencias.entrySet());
+        // sort é estável: os empates ficam na ordem de inserção
+        ordenadas.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+        List<String> termos = new ArrayList<>();
+        for (int i = 0; i < Math.min(quantidade, ordenadas.size()); i++) {
+            termos.add(ordenadas.get(i).getKey());
+        }
+        return termos;
+    }
+
+    private static String semAcentos(String texto) {
+        return ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+    }
+}
\ No newline at end of file
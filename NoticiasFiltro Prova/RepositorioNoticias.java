@@ -0,0 +1,70 @@
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Classe que guarda uma única cópia de cada notícia (por id); as listas do usuário só guardam referências inteiras para cá
+
+public class RepositorioNoticias {
+    private final List<Noticia> noticias = new ArrayList<>();
+    private final Map<String, Integer> indicePorId = new HashMap<>();
+    // Chaves de ordenação (Collator pt-BR) calculadas uma única vez por notícia, sob demanda
+    private final List<CollationKey> chavesTitulo = new ArrayList<>();
+    private final List<CollationKey> chavesTipo = new ArrayList<>();
+    private Collator collator;
+
+    /**
+     * Devolve o número inteiro que representa a notícia no repositório, guardando-a se ainda não existir.
+     * Se já houver uma notícia com o mesmo id, a cópia existente é mantida e a nova é descartada.
+     * @param noticia Notícia a internar.
+     * @return Índice da notícia canônica.
+     */
+    public synchronized int internar(Noticia noticia) {
+        Integer indice = indicePorId.get(noticia.getId());
+        if (indice == null) {
+            indice = noticias.size();
+            noticias.add(noticia);
+            indicePorId.put(noticia.getId(), indice);
+        }
+        return indice;
+    }
+
+    public synchronized Noticia get(int indice) {
+        return noticias.get(indice);
+    }
+
+    // Índice da notícia com o id informado, ou -1 se ela não estiver no repositório
+    public synchronized int indiceDe(String id) {
+        Integer indice = indicePorId.get(id);
+        return indice != null ? indice : -1;
+    }
+
+    public synchronized CollationKey chaveTitulo(int indice) {
+        return chave(chavesTitulo, indice, get(indice).getTitulo());
+    }
+
+    public synchronized CollationKey chaveTipo(int indice) {
+        return chave(chavesTipo, indice, get(indice).getTipo());
+    }
+
+    private CollationKey chave(List<CollationKey> chaves, int indice, String texto) {
+        while (chaves.size() <= indice) {
+            chaves.add(null);
+        }
+        CollationKey chave = chaves.get(indice);
+        if (chave == null && texto != null) {
+            if (collator == null) {
+                collator = OrdenacaoNoticias.novoCollator();
+            }
+            chave = collator.getCollationKey(texto);
+            chaves.set(indice, chave);
+        }
+        return chave;
+    }
+
+    public synchronized int tamanho() {
+        return noticias.size();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,275 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Política de resiliência para as chamadas à API: repetição com backoff exponencial e jitter,
+// circuit breaker e, opcionalmente, requisições "hedge" (uma segunda tentativa em paralelo quando
+// a primeira demora mais que o p95 das latências recentes)
+
+public class ResilienciaHttp {
+
+    // Instância padrão, configurável por propriedades do sistema (tempos em ms)
+    private static final ResilienciaHttp PADRAO = new ResilienciaHttp(
+            Integer.getInteger("ibge.retry.tentativas", 3),
+            Long.getLong("ibge.retry.atrasoBase", 200),
+            Long.getLong("ibge.retry.atrasoMax", 5_000),
+            Integer.getInteger("ibge.circuito.falhas", 5),
+            Long.getLong("ibge.circuito.aberto", 30_000),
+            Boolean.getBoolean("ibge.hedge"));
+
+    private static final int AMOSTRAS = 128;
+    private static final int AMOSTRAS_MINIMAS_HEDGE = 20;
+
+    // Uma chamada que pode ser repetida
+    public interface Chamada<T> {
+        T executar() throws IOException;
+    }
+
+    // Lançada sem chamar a API enquanto o circuito estiver aberto
+    public static class CircuitoAbertoException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitoAbertoException(String mensagem) {
+            super(mensagem);
+        }
+    }
+
+    private final int maxTentativas;
+    private final long atrasoBaseMillis;
+    private final long atrasoMaxMillis;
+    private final int limiteFalhas;
+    private final long tempoAbertoMillis;
+    private final boolean hedge;
+
+    // Estado do circuit breaker
+    private int falhasSeguidas;
+    private long abertoAte;
+    private boolean testando; // meio-aberto: uma única chamada de teste está em andamento
+
+    // Latências recentes (ms) das chamadas bem-sucedidas, para o atraso do hedge
+    private final long[] latencias = new long[AMOSTRAS];
+    private int totalLatencias;
+
+    private final ExecutorService executorHedge = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "hedge-ibge");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ResilienciaHttp(int maxTentativas, long atrasoBaseMillis, long atrasoMaxMillis,
+                           int limiteFalhas, long tempoAbertoMillis, boolean hedge) {
+        this.maxTentativas = Math.max(1, maxTentativas);
+        this.atrasoBaseMillis = atrasoBaseMillis;
+        this.atrasoMaxMillis = atrasoMaxMillis;
+        this.limiteFalhas = Math.max(1, limiteFalhas);
+        this.tempoAbertoMillis = tempoAbertoMillis;
+        this.hedge = hedge;
+    }
+
+    public static ResilienciaHttp padrao() {
+        return PADRAO;
+    }
+
+    /**
+     * Executa a chamada aplicando o circuit breaker e repetindo falhas temporárias (429, 5xx e erros de I/O).
+     * Erros 4xx (exceto 429) não são repetidos nem contam como falha do servidor. Uma chamada interrompida
+     * (ex: shutdownNow de um lote em que outra busca falhou) é relançada na hora, sem repetir nem contar como falha.
+     * @param chamada Chamada à API.
+     * @return O resultado da primeira tentativa bem-sucedida.
+     * @throws IOException O último erro, ou CircuitoAbertoException se o circuito estiver aberto.
+     */
+    public <T> T executar(Chamada<T> chamada) throws IOException {
+        boolean teste = liberarPeloCircuito();
+        boolean registrada = false; // Sucesso ou falha já registrados no circuito
+        try {
+            IOException ultimoErro = null;
+            for (int tentativa = 1; tentativa <= maxTentativas; tentativa++) {
+                try {
+                    T resultado = tentar(chamada);
+                    registrarSucesso();
+                    registrada = true;
+                    return resultado;
+                } catch (LimitadorRequisicoes.SaturadoException e) {
+                    // Fila local cheia: a API nem foi chamada, então não repete nem conta como falha
+                    throw e;
+                } catch (IOException e) {
+                    if (interrompida(e)) {
+                        // Quem chamou desistiu; a API não falhou, então não conta para o circuito
+                        throw e;
+                    }
+                    ultimoErro = e;
+                    if (!temporario(e)) {
+                        registrarSucesso(); // o servidor respondeu; o problema é a requisição
+                        registrada = true;
+                        throw e;
+                    }
+                    boolean continuar = registrarFalha();
+                    registrada = true;
+                    if (tentativa == maxTentativas || !continuar) {
+                        break;
+                    }
+                    esperar(tentativa);
+                }
+            }
+            throw ultimoErro;
+        } finally {
+            // Chamada de teste que não terminou nem em sucesso nem em falha (limitador saturado, interrupção,
+            // RuntimeException ou Error): a vaga de teste fica livre para a próxima, senão o circuito não fecha mais
+            if (teste && !registrada) {
+                liberarTeste();
+            }
+        }
+    }
+
+    public synchronized boolean isCircuitoAberto() {
+        return System.currentTimeMillis() < abertoAte;
+    }
+
+    // Impede a chamada enquanto o circuito está aberto; depois do tempo de espera deixa passar uma de teste.
+    // Devolve true se esta é a chamada de teste
+    private synchronized boolean liberarPeloCircuito() throws CircuitoAbertoException {
+        long agora = System.currentTimeMillis();
+        if (agora < abertoAte) {
+            throw new CircuitoAbertoException("API do IBGE indisponível; novas tentativas em " + (abertoAte - agora) / 1000 + " s.");
+        }
+        if (falhasSeguidas >= limiteFalhas) {
+            if (testando) {
+                throw new CircuitoAbertoException("API do IBGE indisponível; aguardando a chamada de teste.");
+            }
+            testando = true;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void liberarTeste() {
+        testando = false;
+    }
+
+    private synchronized void registrarSucesso() {
+        falhasSeguidas = 0;
+        testando = false;
+    }
+
+    // Conta a falha e abre o circuito ao atingir o limite; retorna false se não vale mais tentar
+    private synchronized boolean registrarFalha() {
+        Metricas.contar(Metricas.Contador.ERROS, 1);
+        falhasSeguidas++;
+        if (testando || falhasSeguidas >= limiteFalhas) {
+            testando = false;
+            abertoAte = System.currentTimeMillis() + tempoAbertoMillis;
+            return false;
+        }
+        return true;
+    }
+
+    // Interrupção da thread que chama, não falha da API. SocketTimeoutException também é um InterruptedIOException,
+    // mas é um timeout de verdade
+    private static boolean interrompida(IOException e) {
+        return Thread.currentThread().isInterrupted()
+                || (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException));
+    }
+
+    private static boolean temporario(IOException e) {
+        if (e instanceof TransporteHttp.ErroHttp) {
+            int status = ((TransporteHttp.ErroHttp) e).getStatus();
+            return status == 429 || status >= 500;
+        }
+        return !(e instanceof CircuitoAbertoException);
+    }
+
+    // Backoff exponencial com "full jitter": espera aleatória entre 0 e min(máximo, base * 2^(tentativa-1))
+    private void esperar(int tentativa) throws IOException {
+        long teto = Math.min(atrasoMaxMillis, atrasoBaseMillis << Math.min(tentativa - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(teto + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw interrupcao("Espera para nova tentativa interrompida.", e);
+        }
+    }
+
+    // Uma tentativa; com hedge ativo, dispara uma segunda cópia se a primeira passar do p95
+    private <T> T tentar(Chamada<T> chamada) throws IOException {
+        long atrasoHedge = hedge ? p95() : -1;
+        if (atrasoHedge < 0) {
+            return medir(chamada);
+        }
+
+        // A primeira resposta boa vence; só falha se todas as cópias disparadas falharem
+        CompletableFuture<T> vencedora = new CompletableFuture<>();
+        AtomicInteger disparadas = new AtomicInteger();
+        AtomicInteger falhas = new AtomicInteger();
+        Runnable disparar = () -> {
+            disparadas.incrementAndGet();
+            CompletableFuture.runAsync(() -> {
+                try {
+                    vencedora.complete(medir(chamada));
+                } catch (Throwable e) {
+                    // Inclusive Error: senão a future nunca completaria e quem espera ficaria parado
+                    if (falhas.incrementAndGet() == disparadas.get()) {
+                        vencedora.completeExceptionally(e);
+                    }
+                }
+            }, executorHedge);
+        };
+
+        disparar.run();
+        try {
+            try {
+                return vencedora.get(atrasoHedge, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                disparar.run();
+                return vencedora.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException) {
+                throw (IOException) causa;
+            }
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new IOException("Falha na chamada: " + causa, causa);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw interrupcao("Chamada interrompida.", e);
+        }
+    }
+
+    // Erro de uma espera interrompida, reconhecido por interrompida(); usado também pelo transporte e pelo limitador
+    static InterruptedIOException interrupcao(String mensagem, InterruptedException causa) {
+        InterruptedIOException e = new InterruptedIOException(mensagem);
+        e.initCause(causa);
+        return e;
+    }
+
+    private <T> T medir(Chamada<T> chamada) throws IOException {
+        long inicio = System.nanoTime();
+        T resultado = chamada.executar();
+        registrarLatencia((System.nanoTime() - inicio) / 1_000_000);
+        return resultado;
+    }
+
+    private synchronized void registrarLatencia(long millis) {
+        latencias[totalLatencias % AMOSTRAS] = millis;
+        totalLatencias++;
+    }
+
+    // p95 das latências recentes, ou -1 enquanto não houver amostras suficientes
+    private synchronized long p95() {
+        int n = Math.min(totalLatencias, AMOSTRAS);
+        if (n < AMOSTRAS_MINIMAS_HEDGE) {
+            return -1;
+        }
+        long[] copia = Arrays.copyOf(latencias, n);
+        Arrays.sort(copia);
+        return copia[(int) Math.ceil(0.95 * n) - 1];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,310 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Modo servidor: API HTTP/JSON para vários usuários consultarem notícias e alterarem suas listas ao mesmo tempo
+//
+//   GET    /noticias?q=termo                        busca por termo
+//   GET    /noticias?de=AAAA-MM-DD&ate=AAAA-MM-DD   busca por período (ambas aceitam page e qtd)
+//   GET    /usuarios/{id}/{lista}                   lista = favoritos, lidas ou paraLerDepois
+//   POST   /usuarios/{id}/{lista}                   corpo: a notícia em JSON (o id é obrigatório)
+//                                                   resposta: {"adicionada": true|false, "total": N}
+//   DELETE /usuarios/{id}/{lista}/{idNoticia}
+//
+// Todas as buscas passam pelo mesmo cache e pela mesma política de resiliência (IBGENoticiasAPI.buscarPagina),
+// então usuários diferentes pedindo a mesma página fazem uma única requisição à API.
+//
+// Uso: java Main --servidor [porta]     (padrão 8080)
+// Propriedades:
+//   noticias.servidor.endereco   interface onde escutar (padrão: só a local, 127.0.0.1)
+//   noticias.servidor.threads    threads atendendo requisições (padrão 64)
+//   noticias.servidor.usuarios   usuários mantidos em memória (padrão 1000)
+//   noticias.dados               diretório dos dados; cada usuário fica em <noticias.dados>/usuarios/<id>/
+
+public class ServidorNoticias {
+    private static final int PORTA_PADRAO = 8080;
+
+    private static final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .registerTypeAdapter(LocalDateTime.class, new IBGENoticiasAPI.LocalDateTimeAdapter())
+            .registerTypeAdapter(Noticia.class, new IBGENoticiasAPI.NoticiaAdapter())
+            .create();
+    private static final Type TIPO_LISTA = new TypeToken<List<Noticia>>() {}.getType();
+
+    static {
+        // Sem TCP_NODELAY, o HttpServer do JDK manda cabeçalhos e corpo em escritas separadas e cada resposta
+        // pequena espera o ACK atrasado do cliente (~40 ms, algoritmo de Nagle). Vale para todo HttpServer
+        // criado depois, então precisa ser definida antes do primeiro.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    // Erro que vira uma resposta com o status e a mensagem informados
+    private static class ErroHttp extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        ErroHttp(int status, String mensagem) {
+            super(mensagem);
+            this.status = status;
+        }
+    }
+
+    private final CadastroUsuarios cadastro;
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+
+    /**
+     * Cria o servidor (ainda parado).
+     * @param endereco Endereço e porta (porta 0 escolhe uma livre).
+     * @param threads Threads atendendo requisições.
+     * @param cadastro Usuários atendidos.
+     * @throws IOException Se a porta não puder ser aberta.
+     */
+    public ServidorNoticias(InetSocketAddress endereco, int threads, CadastroUsuarios cadastro) throws IOException {
+        this.cadastro = cadastro;
+        this.servidor = HttpServer.create(endereco, 0);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "servidor-http-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        servidor.setExecutor(executor);
+        servidor.createContext("/noticias", troca -> atender(troca, this::noticias));
+        servidor.createContext("/usuarios/", troca -> atender(troca, this::usuarios));
+    }
+
+    public static void main(String[] args) {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : PORTA_PADRAO;
+        String endereco = System.getProperty("noticias.servidor.endereco", "127.0.0.1");
+        File diretorio = new File(System.getProperty("noticias.dados", "data"), "usuarios");
+        CadastroUsuarios cadastro = new CadastroUsuarios(diretorio, Integer.getInteger("noticias.servidor.usuarios", 1000));
+        try {
+            ServidorNoticias servidor = new ServidorNoticias(new InetSocketAddress(endereco, porta),
+                    Integer.getInteger("noticias.servidor.threads", 64), cadastro);
+            Runtime.getRuntime().addShutdownHook(new Thread(servidor::parar, "servidor-encerramento"));
+            servidor.iniciar();
+            System.out.println("Servidor de notícias ouvindo em http://" + endereco + ":" + servidor.getPorta() + "/");
+        } catch (IOException e) {
+            System.err.println("Não foi possível iniciar o servidor: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    public void iniciar() {
+        servidor.start();
+    }
+
+    // Para de aceitar requisições, espera as que estão em andamento e salva os usuários carregados
+    public void parar() {
+        servidor.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        cadastro.salvarTodos();
+    }
+
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    @FunctionalInterface
+    private interface Tratador {
+        String tratar(HttpExchange troca) throws IOException, ErroHttp;
+    }
+
+    // Executa o tratador e escreve a resposta JSON; erros viram {"erro": "..."} com o status adequado
+    private void atender(HttpExchange troca, Tratador tratador) throws IOException {
+        int status = 200;
+        String corpo;
+        try {
+            corpo = tratador.tratar(troca);
+        } catch (ErroHttp e) {
+            status = e.status;
+            corpo = erro(e.getMessage());
+        } catch (IOException e) {
+            // Falha ao falar com a API (ou ao ler os dados de um usuário)
+            status = 502;
+            corpo = erro(e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Erro inesperado em " + troca.getRequestURI() + ": " + e);
+            status = 500;
+            corpo = erro("Erro interno.");
+        }
+
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        troca.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = troca.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String erro(String mensagem) {
+        JsonObject objeto = new JsonObject();
+        objeto.addProperty("erro", mensagem);
+        return gson.toJson(objeto);
+    }
+
+    // GET /noticias?q=... ou ?de=...&ate=...
+    private String noticias(HttpExchange troca) throws IOException, ErroHttp {
+        if (!troca.getRequestMethod().equals("GET")) {
+            throw new ErroHttp(405, "Use GET em /noticias.");
+        }
+        if (!troca.getRequestURI().getPath().equals("/noticias")) {
+            throw new ErroHttp(404, "Caminho não encontrado: " + troca.getRequestURI().getPath());
+        }
+        Map<String, String> consulta = lerConsulta(troca.getRequestURI().getRawQuery());
+        Map<String, String> params;
+        String termo = consulta.get("q");
+        if (termo != null && !termo.trim().isEmpty()) {
+            params = IBGENoticiasAPI.parametrosPorTermo(termo.trim());
+        } else if (consulta.containsKey("de") && consulta.containsKey("ate")) {
+            try {
+                LocalDate de = LocalDate.parse(consulta.get("de"));
+                LocalDate ate = LocalDate.parse(consulta.get("ate"));
+                if (de.isAfter(ate)) {
+                    throw new ErroHttp(400, "A data inicial é posterior à final.");
+                }
+                params = IBGENoticiasAPI.parametrosPorData(de.toString(), ate.toString());
+            } catch (DateTimeParseException e) {
+                throw new ErroHttp(400, "Datas devem estar no formato AAAA-MM-DD.");
+            }
+        } else {
+            throw new ErroHttp(400, "Informe q=termo ou de=AAAA-MM-DD&ate=AAAA-MM-DD.");
+        }
+        for (String paginacao : new String[] {"page", "qtd"}) {
+            String valor = consulta.get(paginacao);
+            if (valor != null) {
+                if (!valor.matches("[0-9]{1,4}")) {
+                    throw new ErroHttp(400, "Valor inválido para " + paginacao + ": " + valor);
+                }
+                params.put(paginacao, valor);
+            }
+        }
+        return gson.toJson(IBGENoticiasAPI.buscarPagina(params));
+    }
+
+    // /usuarios/{id}/{lista}[/{idNoticia}]
+    private String usuarios(HttpExchange troca) throws IOException, ErroHttp {
+        String[] partes = troca.getRequestURI().getPath().substring("/usuarios/".length()).split("/");
+        String id = partes[0];
+        if (!CadastroUsuarios.idValido(id)) {
+            throw new ErroHttp(400, "Id de usuário inválido (use até 64 letras, dígitos, _ ou -).");
+        }
+        if (partes.length < 2 || partes.length > 3) {
+            throw new ErroHttp(404, "Use /usuarios/{id}/{lista}.");
+        }
+        String lista = partes[1];
+        if (!lista.equals("favoritos") && !lista.equals("lidas") && !lista.equals("paraLerDepois")) {
+            throw new ErroHttp(404, "Lista desconhecida: " + lista + " (use favoritos, lidas ou paraLerDepois).");
+        }
+        String metodo = troca.getRequestMethod();
+
+        if (partes.length == 2 && metodo.equals("GET")) {
+            // Serializada com a sessão travada: a lista pode estar sendo alterada por outra requisição
+            return cadastro.executar(id, (usuario, persistencia) -> gson.toJson(lista(usuario, lista), TIPO_LISTA));
+        }
+
+        if (partes.length == 2 && metodo.equals("POST")) {
+            Noticia noticia = lerNoticia(troca);
+            return cadastro.executar(id, (usuario, persistencia) -> {
+                List<Noticia> destino = lista(usuario, lista);
+                boolean adicionada = !destino.contains(noticia);
+                if (adicionada) {
+                    destino.add(noticia);
+                    persistencia.anotarAdicao(usuario, lista, noticia);
+                }
+                JsonObject resposta = new JsonObject();
+                resposta.addProperty("adicionada", adicionada);
+                resposta.addProperty("total", destino.size());
+                return gson.toJson(resposta);
+            });
+        }
+
+        if (partes.length == 3 && metodo.equals("DELETE")) {
+            Noticia alvo = new Noticia();
+            alvo.setId(partes[2]);
+            Noticia removida = cadastro.executar(id, (usuario, persistencia) -> {
+                List<Noticia> origem = lista(usuario, lista);
+                int posicao = origem.indexOf(alvo);
+                if (posicao < 0) {
+                    return null;
+                }
+                Noticia noticia = origem.remove(posicao);
+                persistencia.anotarRemocao(usuario, lista, noticia);
+                return noticia;
+            });
+            if (removida == null) {
+                throw new ErroHttp(404, "A notícia " + partes[2] + " não está em " + lista + ".");
+            }
+            return gson.toJson(removida, Noticia.class);
+        }
+
+        throw new ErroHttp(405, "Método " + metodo + " não suportado em " + troca.getRequestURI().getPath() + ".");
+    }
+
+    private static List<Noticia> lista(Usuario usuario, String nome) {
+        switch (nome) {
+            case "favoritos":
+                return usuario.getFavoritos();
+            case "lidas":
+                return usuario.getLidas();
+            default:
+                return usuario.getParaLerDepois();
+        }
+    }
+
+    private static Noticia lerNoticia(HttpExchange troca) throws ErroHttp, IOException {
+        try (Reader reader = new InputStreamReader(troca.getRequestBody(), StandardCharsets.UTF_8)) {
+            Noticia noticia = gson.fromJson(reader, Noticia.class);
+            if (noticia == null || noticia.getId() == null || noticia.getId().isEmpty()) {
+                throw new ErroHttp(400, "O corpo deve ser uma notícia em JSON com o campo id.");
+            }
+            return noticia;
+        } catch (JsonParseException e) {
+            throw new ErroHttp(400, "JSON inválido: " + e.getMessage());
+        }
+    }
+
+    // Decodifica a query string (a=1&b=2); em parâmetros repetidos vale o último
+    private static Map<String, String> lerConsulta(String consulta) throws ErroHttp {
+        Map<String, String> valores = new HashMap<>();
+        if (consulta == null || consulta.isEmpty()) {
+            return valores;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String nome = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            try {
+                valores.put(URLDecoder.decode(nome, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new ErroHttp(400, "Parâmetro mal codificado: " + par);
+            }
+        }
+        return valores;
+    }
+}
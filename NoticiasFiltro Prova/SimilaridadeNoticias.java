@@ -0,0 +1,305 @@
+import java.util.*;
+
+// Similaridade entre notícias por MinHash, com LSH por faixas para achar candidatas sem comparar com todas
+//
+// Cada notícia vira o conjunto de pares de palavras consecutivas (shingles) de título + introdução, normalizadas
+// como no IndiceNoticias. A assinatura guarda, para cada uma de TAMANHO funções de hash, o menor hash do conjunto;
+// a fração de posições iguais entre duas assinaturas estima a similaridade de Jaccard entre os dois conjuntos.
+//
+// A assinatura é dividida em FAIXAS de LINHAS valores, e duas notícias viram candidatas quando coincidem numa
+// faixa inteira. Com 32 faixas de 3, um par vira candidato com chance de ~58% se o Jaccard for 0,3, ~88% se
+// for 0,4 e ~98% se for 0,5; pares sem relação (Jaccard abaixo de 0,05) quase nunca aparecem. As candidatas
+// mais bem estimadas (REVISADAS_POR_ITEM por recomendação pedida) têm o Jaccard exato recalculado a partir do
+// texto, e é ele que decide a ordem final: com 96 valores, a estimativa erra cerca de 0,05 para cada lado.
+//
+// As assinaturas ficam num único vetor int (TAMANHO por notícia) e cada faixa numa tabela de encadeamento
+// também em vetores int, sem objetos por notícia: cerca de 650 bytes por notícia.
+
+public class SimilaridadeNoticias {
+    public static final int FAIXAS = 32;
+    public static final int LINHAS = 3;
+    public static final int TAMANHO = FAIXAS * LINHAS;
+    // Muda quando o cálculo da assinatura muda (shingles, hashes), invalidando assinaturas gravadas
+    public static final int VERSAO_ASSINATURA = 1;
+    private static final int REVISADAS_POR_ITEM = 8;
+
+    // Funções de hash h(x) = (a * x + b) >>> 32, com 'a' ímpar; sementes fixas para as assinaturas gravadas valerem
+    private static final long[] MULTIPLICADORES = new long[TAMANHO];
+    private static final long[] SOMAS = new long[TAMANHO];
+
+    static {
+        Random aleatorio = new Random(0x4D696E48L);
+        for (int i = 0; i < TAMANHO; i++) {
+            MULTIPLICADORES[i] = aleatorio.nextLong() | 1;
+            SOMAS[i] = aleatorio.nextLong();
+        }
+    }
+
+    // Notícia recomendada, com a similaridade de Jaccard e a notícia do usuário mais parecida com ela
+    public static class Recomendacao {
+        private final Noticia noticia;
+        private final double similaridade;
+        private final Noticia referencia;
+
+        Recomendacao(Noticia noticia, double similaridade, Noticia referencia) {
+            this.noticia = noticia;
+            this.similaridade = similaridade;
+            this.referencia = referencia;
+        }
+
+        public Noticia getNoticia() { return noticia; }
+        public double getSimilaridade() { return similaridade; }
+        public Noticia getReferencia() { return referencia; }
+    }
+
+    private final List<Noticia> documentos = new ArrayList<>();
+    private int[] assinaturas = new int[TAMANHO * 16];
+    // cabecas[faixa * capacidade + posição] = primeira notícia + 1 (0 = vazia);
+    // proximas[notícia * FAIXAS + faixa] = próxima notícia + 1 na mesma posição da faixa
+    private int capacidade = 16;
+    private int[] cabecas = new int[FAIXAS * capacidade];
+    private int[] proximas = new int[FAIXAS * 16];
+
+    /**
+     * Adiciona a notícia, calculando a assinatura. Não confere repetições: cada notícia deve ser adicionada uma vez.
+     * @return A assinatura calculada (para ser gravada junto da notícia).
+     */
+    public synchronized int[] adicionar(Noticia noticia) {
+        int[] assinatura = assinatura(noticia);
+        adicionar(noticia, assinatura);
+        return assinatura;
+    }
+
+    // Adiciona a notícia com uma assinatura já calculada (ex: lida do disco)
+    public synchronized void adicionar(Noticia noticia, int[] assinatura) {
+        int doc = documentos.size();
+        documentos.add(noticia);
+        if ((doc + 1) * TAMANHO > assinaturas.length) {
+            assinaturas = Arrays.copyOf(assinaturas, assinaturas.length * 2);
+            proximas = Arrays.copyOf(proximas, proximas.length * 2);
+        }
+        System.arraycopy(assinatura, 0, assinaturas, doc * TAMANHO, TAMANHO);
+        if (doc >= capacidade) {
+            capacidade *= 2;
+            cabecas = new int[FAIXAS * capacidade];
+            for (int d = 0; d < doc; d++) {
+                encadear(d);
+            }
+        }
+        encadear(doc);
+    }
+
+    public synchronized int tamanho() {
+        return documentos.size();
+    }
+
+    // Cópia da assinatura da notícia na posição 'doc' (ordem de adição)
+    public synchronized int[] getAssinatura(int doc) {
+        return Arrays.copyOfRange(assinaturas, doc * TAMANHO, (doc + 1) * TAMANHO);
+    }
+
+    /**
+     * Notícias mais parecidas com as do perfil, pela maior similaridade de Jaccard com alguma delas.
+     * @param perfil Notícias que representam o interesse do usuário (não precisam estar adicionadas aqui).
+     * @param excluir Ids que não podem ser recomendados (ex: já lidas).
+     * @param limite Número máximo de recomendações.
+     * @return Da mais parecida para a menos parecida (empates: a mais recente primeiro).
+     */
+    public synchronized List<Recomendacao> recomendar(Collection<Noticia> perfil, Set<String> excluir, int limite) {
+        // Para cada candidata: maior número de posições iguais e a notícia do perfil correspondente
+        Map<Integer, int[]> melhores = new HashMap<>();
+        List<Noticia> referencias = new ArrayList<>();
+        List<long[]> shinglesReferencias = new ArrayList<>();
+        Set<Integer> vistas = new HashSet<>();
+        for (Noticia p : perfil) {
+            long[] shingles = shingles(p);
+            if (shingles.length == 0) {
+                continue;
+            }
+            int[] assinatura = assinatura(shingles);
+            int referencia = referencias.size();
+            referencias.add(p);
+            shinglesReferencias.add(shingles);
+            vistas.clear();
+            for (int faixa = 0; faixa < FAIXAS; faixa++) {
+                int posicao = faixa * capacidade + (chaveFaixa(assinatura, 0, faixa) & (capacidade - 1));
+                for (int doc = cabecas[posicao] - 1; doc >= 0; doc = proximas[doc * FAIXAS + faixa] - 1) {
+                    if (!faixaIgual(assinatura, doc, faixa) || !vistas.add(doc) || excluir.contains(documentos.get(doc).getId())) {
+                        continue;
+                    }
+                    int iguais = iguais(assinatura, doc);
+                    int[] melhor = melhores.get(doc);
+                    if (melhor == null) {
+                        melhores.put(doc, new int[] {iguais, referencia});
+                    } else if (iguais > melhor[0]) {
+                        melhor[0] = iguais;
+                        melhor[1] = referencia;
+                    }
+                }
+            }
+        }
+
+        // Só as mais bem estimadas têm o texto relido para o Jaccard exato
+        List<Map.Entry<Integer, int[]>> estimadas = new ArrayList<>(melhores.entrySet());
+        estimadas.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+        int revisar = (int) Math.min(estimadas.size(), (long) limite * REVISADAS_POR_ITEM);
+        List<Recomendacao> resultado = new ArrayList<>(revisar);
+        for (Map.Entry<Integer, int[]> e : estimadas.subList(0, revisar)) {
+            Noticia candidata = documentos.get(e.getKey());
+            long[] shingles = shingles(candidata);
+            double melhor = -1;
+            int referencia = e.getValue()[1];
+            for (int r = 0; r < shinglesReferencias.size(); r++) {
+                double jaccard = jaccard(shingles, shinglesReferencias.get(r));
+                if (jaccard > melhor) {
+                    melhor = jaccard;
+                    referencia = r;
+                }
+            }
+            resultado.add(new Recomendacao(candidata, melhor, referencias.get(referencia)));
+        }
+
+        Comparator<Noticia> porData = OrdenacaoNoticias.comparador(OrdenacaoNoticias.Criterio.DATA);
+        resultado.sort((a, b) -> a.similaridade != b.similaridade
+                ? Double.compare(b.similaridade, a.similaridade)
+                : porData.compare(a.noticia, b.noticia));
+        return resultado.size() > limite ? new ArrayList<>(resultado.subList(0, limite)) : resultado;
+    }
+
+    /**
+     * Shingles da notícia: hashes de 64 bits dos pares de palavras consecutivas de título + introdução,
+     * ordenados e sem repetição. Uma notícia com uma só palavra tem um shingle com ela.
+     */
+    static long[] shingles(Noticia noticia) {
+        List<String> termos = IndiceNoticias.tokenizar(noticia.getTitulo());
+        termos.addAll(IndiceNoticias.tokenizar(noticia.getIntroducao()));
+        if (termos.isEmpty()) {
+            return new long[0];
+        }
+        int quantidade = Math.max(1, termos.size() - 1);
+        long[] hashes = new long[quantidade];
+        int anterior = termos.get(0).hashCode();
+        if (termos.size() == 1) {
+            hashes[0] = misturar((long) anterior << 32);
+        }
+        for (int i = 1; i < termos.size(); i++) {
+            int atual = termos.get(i).hashCode();
+            hashes[i - 1] = misturar(((long) anterior << 32) | (atual & 0xFFFFFFFFL));
+            anterior = atual;
+        }
+        Arrays.sort(hashes);
+        int distintos = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (i == 0 || hashes[i] != hashes[distintos - 1]) {
+                hashes[distintos++] = hashes[i];
+            }
+        }
+        return Arrays.copyOf(hashes, distintos);
+    }
+
+    // Assinatura MinHash da notícia; sem nenhuma palavra, todas as posições ficam em -1 (ver vazia)
+    public static int[] assinatura(Noticia noticia) {
+        return assinatura(shingles(noticia));
+    }
+
+    static int[] assinatura(long[] shingles) {
+        long[] minimos = new long[TAMANHO];
+        Arrays.fill(minimos, 0xFFFFFFFFL);
+        for (long x : shingles) {
+            for (int i = 0; i < TAMANHO; i++) {
+                long h = (MULTIPLICADORES[i] * x + SOMAS[i]) >>> 32;
+                if (h < minimos[i]) {
+                    minimos[i] = h;
+                }
+            }
+        }
+        int[] assinatura = new int[TAMANHO];
+        for (int i = 0; i < TAMANHO; i++) {
+            assinatura[i] = (int) minimos[i];
+        }
+        return assinatura;
+    }
+
+    // Jaccard exato entre dois conjuntos de shingles ordenados
+    static double jaccard(long[] a, long[] b) {
+        if (a.length == 0 && b.length == 0) {
+            return 0;
+        }
+        int i = 0;
+        int j = 0;
+        int comuns = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                comuns++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return comuns / (double) (a.length + b.length - comuns);
+    }
+
+    private void encadear(int doc) {
+        if (vazia(assinaturas, doc * TAMANHO)) {
+            return; // Sem texto: não é parecida com nada
+        }
+        for (int faixa = 0; faixa < FAIXAS; faixa++) {
+            int posicao = faixa * capacidade + (chaveFaixa(assinaturas, doc * TAMANHO, faixa) & (capacidade - 1));
+            proximas[doc * FAIXAS + faixa] = cabecas[posicao];
+            cabecas[posicao] = doc + 1;
+        }
+    }
+
+    private static int chaveFaixa(int[] vetor, int inicio, int faixa) {
+        int h = 0;
+        for (int i = inicio + faixa * LINHAS; i < inicio + (faixa + 1) * LINHAS; i++) {
+            h = h * 0x9E3779B1 + vetor[i];
+        }
+        // Espalha os bits altos para os baixos, que escolhem a posição na tabela
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private boolean faixaIgual(int[] assinatura, int doc, int faixa) {
+        for (int i = faixa * LINHAS; i < (faixa + 1) * LINHAS; i++) {
+            if (assinatura[i] != assinaturas[doc * TAMANHO + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int iguais(int[] assinatura, int doc) {
+        int iguais = 0;
+        for (int i = 0; i < TAMANHO; i++) {
+            if (assinatura[i] == assinaturas[doc * TAMANHO + i]) {
+                iguais++;
+            }
+        }
+        return iguais;
+    }
+
+    private static boolean vazia(int[] vetor, int inicio) {
+        for (int i = inicio; i < inicio + TAMANHO; i++) {
+            if (vetor[i] != -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Finalizador do MurmurHash3 (64 bits)
+    private static long misturar(long x) {
+        x ^= x >>> 33;
+        x *= 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        x *= 0xC4CEB9FE1A85EC53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
\ No newline at end of file
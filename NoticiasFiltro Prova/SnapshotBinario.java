@@ -0,0 +1,283 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+// Snapshot binário do usuário (usuario.bin), aberto com FileChannel.map para a inicialização não depender do JSON
+//
+// O usuario.json continua sendo o formato de exportação/importação; o binário é só uma cópia derivada dele,
+// gravada logo depois, e guarda o tamanho e a data de modificação do JSON de onde veio. Se o JSON mudar
+// (edição manual, compactação interrompida), o binário é ignorado e o JSON é lido normalmente.
+//
+// Layout (big-endian):
+//   cabeçalho  int MAGICO, int VERSAO, long tamanhoJson, long modificadoJson,
+//              int quantidade, int posicaoTabela, int posicaoListas
+//   registros  long data (segundos UTC, Long.MIN_VALUE = sem data) + id, titulo, introducao, link, tipo
+//              (cada texto: int tamanho em bytes, -1 = null, seguido do UTF-8)
+//   tabela     int posição de cada registro
+//   listas     nome + favoritos, lidas e paraLerDepois (int quantidade + int índice de cada registro)
+
+public class SnapshotBinario {
+    private static final int MAGICO = 0x4E465553; // "NFUS"
+    private static final int VERSAO = 1;
+    private static final int TAMANHO_CABECALHO = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+
+    /**
+     * Notícia lida do snapshot mapeado: só o id é decodificado na abertura; os demais campos
+     * são decodificados na primeira vez que algum deles é pedido (normalmente quando a notícia é exibida).
+     */
+    static class NoticiaMapeada extends Noticia {
+        // transient: o Gson nunca deve serializar o buffer mapeado
+        private transient ByteBuffer mapa;
+        private final transient int posicao;
+
+        NoticiaMapeada(ByteBuffer mapa, int posicao, String id) {
+            this.mapa = mapa;
+            this.posicao = posicao;
+            super.setId(id);
+        }
+
+        synchronized void carregar() {
+            if (mapa == null) {
+                return;
+            }
+            ByteBuffer registro = mapa.duplicate();
+            registro.position(posicao);
+            long segundos = registro.getLong();
+            super.setDataPublicacao(segundos == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(segundos, 0, ZoneOffset.UTC));
+            lerTexto(registro, false); // id, já decodificado
+            super.setTitulo(lerTexto(registro, true));
+            super.setIntroducao(lerTexto(registro, true));
+            super.setLink(lerTexto(registro, true));
+            super.setTipo(lerTexto(registro, true));
+            mapa = null;
+        }
+
+        @Override public String getTitulo() { carregar(); return super.getTitulo(); }
+        @Override public String getIntroducao() { carregar(); return super.getIntroducao(); }
+        @Override public LocalDateTime getDataPublicacao() { carregar(); return super.getDataPublicacao(); }
+        @Override public String getLink() { carregar(); return super.getLink(); }
+        @Override public String getTipo() { carregar(); return super.getTipo(); }
+
+        // Os setters carregam antes, para a decodificação tardia não sobrescrever o valor novo
+        @Override public void setTitulo(String titulo) { carregar(); super.setTitulo(titulo); }
+        @Override public void setIntroducao(String introducao) { carregar(); super.setIntroducao(introducao); }
+        @Override public void setDataPublicacao(LocalDateTime dataPublicacao) { carregar(); super.setDataPublicacao(dataPublicacao); }
+        @Override public void setDataPublicacao(String dataPublicacao) { carregar(); super.setDataPublicacao(dataPublicacao); }
+        @Override public void setLink(String link) { carregar(); super.setLink(link); }
+        @Override public void setTipo(String tipo) { carregar(); super.setTipo(tipo); }
+
+        @Override
+        public String toString() {
+            carregar();
+            return super.toString();
+        }
+    }
+
+    /**
+     * Garante que todos os campos da notícia estejam decodificados, para quem lê os campos
+     * diretamente em vez de usar os getters.
+     * @param noticia Notícia possivelmente mapeada.
+     * @return A própria notícia.
+     */
+    public static Noticia carregar(Noticia noticia) {
+        if (noticia instanceof NoticiaMapeada) {
+            ((NoticiaMapeada) noticia).carregar();
+        }
+        return noticia;
+    }
+
+    /**
+     * Grava o snapshot binário do usuário, derivado do JSON informado (que já deve estar gravado).
+     * A troca do arquivo só fica garantida no disco depois que quem chama sincroniza o diretório
+     * (Persistencia.sincronizarDiretorio).
+     * @param usuario Usuário a gravar.
+     * @param arquivo Destino do snapshot binário.
+     * @param json Arquivo JSON correspondente; seu tamanho e data identificam a versão.
+     * @throws IOException Se o snapshot não puder ser gravado.
+     */
+    public static void gravar(Usuario usuario, File arquivo, File json) throws IOException {
+        // Como no JSON, só entram as notícias que ainda estão em alguma lista, cada uma uma vez;
+        // registros[i] é o número do registro da notícia de índice i no repositório (-1 se não gravada)
+        RepositorioNoticias repositorio = usuario.getRepositorio();
+        int[] registros = new int[repositorio.tamanho()];
+        Arrays.fill(registros, -1);
+        int[] posicoes = new int[registros.length];
+        int quantidade = 0;
+        File temporario = new File(arquivo.getPath() + ".tmp");
+
+        int posicaoTabela;
+        int posicaoListas;
+        try (FileOutputStream arquivoSaida = new FileOutputStream(temporario)) {
+            ContadorSaida contador = new ContadorSaida(new BufferedOutputStream(arquivoSaida, 1 << 16));
+            DataOutputStream out = new DataOutputStream(contador);
+            out.write(new byte[TAMANHO_CABECALHO]); // preenchido no fim
+
+            for (List<Noticia> lista : Arrays.asList(usuario.getFavoritos(), usuario.getLidas(), usuario.getParaLerDepois())) {
+                for (Noticia n : lista) {
+                    int indice = repositorio.indiceDe(n.getId());
+                    if (registros[indice] >= 0) {
+                        continue;
+                    }
+                    carregar(n);
+                    registros[indice] = quantidade;
+                    posicoes[quantidade++] = contador.posicao();
+                    out.writeLong(n.getDataPublicacao() == null ? Long.MIN_VALUE : n.getDataPublicacao().toEpochSecond(ZoneOffset.UTC));
+                    escreverTexto(out, n.getId());
+                    escreverTexto(out, n.getTitulo());
+                    escreverTexto(out, n.getIntroducao());
+                    escreverTexto(out, n.getLink());
+                    escreverTexto(out, n.getTipo());
+                }
+            }
+
+            posicaoTabela = contador.posicao();
+            for (int i = 0; i < quantidade; i++) {
+                out.writeInt(posicoes[i]);
+            }
+
+            posicaoListas = contador.posicao();
+            escreverTexto(out, usuario.getNome());
+            escreverLista(out, usuario.getFavoritos(), repositorio, registros);
+            escreverLista(out, usuario.getLidas(), repositorio, registros);
+            escreverLista(out, usuario.getParaLerDepois(), repositorio, registros);
+            out.flush();
+            contador.posicao(); // O arquivo inteiro é mapeado num único buffer
+
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            cabecalho.putInt(MAGICO).putInt(VERSAO).putLong(json.length()).putLong(json.lastModified())
+                    .putInt(quantidade).putInt(posicaoTabela).putInt(posicaoListas).flip();
+            FileChannel canal = arquivoSaida.getChannel();
+            while (cabecalho.hasRemaining()) {
+                canal.write(cabecalho, cabecalho.position());
+            }
+            canal.force(true);
+        }
+        // No Windows a troca falha enquanto o snapshot anterior estiver mapeado; nesse caso o binário antigo
+        // fica no disco, não corresponde mais ao JSON e é ignorado no próximo carregamento
+        Files.move(temporario.toPath(), arquivo.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Conta os bytes gravados em long: DataOutputStream.size() para em Integer.MAX_VALUE em vez de estourar,
+    // e as posições do arquivo passariam de 2 GB sem aviso
+    private static class ContadorSaida extends FilterOutputStream {
+        private long posicao;
+
+        ContadorSaida(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            posicao++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int inicio, int tamanho) throws IOException {
+            out.write(bytes, inicio, tamanho);
+            posicao += tamanho;
+        }
+
+        // Posição atual, que precisa caber nos int do cabeçalho e da tabela
+        int posicao() throws IOException {
+            if (posicao > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot binário maior que 2 GB.");
+            }
+            return (int) posicao;
+        }
+    }
+
+    /**
+     * Abre o snapshot binário, decodificando só os ids e as listas.
+     * @param arquivo Snapshot binário.
+     * @param json Arquivo JSON de que o snapshot deve ter sido derivado.
+     * @return O usuário, ou null se o snapshot não existir ou não corresponder ao JSON atual.
+     * @throws IOException Se o arquivo não puder ser mapeado ou estiver corrompido.
+     */
+    public static Usuario ler(File arquivo, File json) throws IOException {
+        if (!arquivo.exists() || arquivo.length() < TAMANHO_CABECALHO) {
+            return null;
+        }
+        MappedByteBuffer mapa;
+        try (FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ)) {
+            // O mapeamento continua válido depois que o canal é fechado
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        if (mapa.getInt() != MAGICO || mapa.getInt() != VERSAO
+                || mapa.getLong() != json.length() || mapa.getLong() != json.lastModified()) {
+            return null;
+        }
+        int quantidade = mapa.getInt();
+        int posicaoTabela = mapa.getInt();
+        int posicaoListas = mapa.getInt();
+
+        try {
+            Usuario usuario = new Usuario();
+            RepositorioNoticias repositorio = usuario.getRepositorio();
+            ByteBuffer leitor = mapa.duplicate();
+            for (int i = 0; i < quantidade; i++) {
+                int posicao = mapa.getInt(posicaoTabela + 4 * i);
+                leitor.position(posicao + 8);
+                repositorio.internar(new NoticiaMapeada(mapa, posicao, lerTexto(leitor, true)));
+            }
+
+            leitor.position(posicaoListas);
+            usuario.setNome(lerTexto(leitor, true));
+            lerLista(leitor, usuario.getFavoritos(), repositorio);
+            lerLista(leitor, usuario.getLidas(), repositorio);
+            lerLista(leitor, usuario.getParaLerDepois(), repositorio);
+            return usuario;
+        } catch (RuntimeException e) {
+            // Posições fora do arquivo ou textos truncados
+            throw new IOException("Snapshot binário corrompido: " + e, e);
+        }
+    }
+
+    private static void escreverLista(DataOutputStream out, List<Noticia> lista, RepositorioNoticias repositorio, int[] registros) throws IOException {
+        out.writeInt(lista.size());
+        for (Noticia n : lista) {
+            out.writeInt(registros[repositorio.indiceDe(n.getId())]);
+        }
+    }
+
+    private static void lerLista(ByteBuffer leitor, List<Noticia> lista, RepositorioNoticias repositorio) {
+        int quantidade = leitor.getInt();
+        for (int i = 0; i < quantidade; i++) {
+            lista.add(repositorio.get(leitor.getInt()));
+        }
+    }
+
+    private static void escreverTexto(DataOutputStream out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Lê um texto na posição atual do buffer; quando não é necessário, só avança sobre ele
+    private static String lerTexto(ByteBuffer leitor, boolean decodificar) {
+        int tamanho = leitor.getInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        if (!decodificar) {
+            leitor.position(leitor.position() + tamanho);
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        leitor.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,355 @@
+import java.io.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+// Classe de transporte HTTP compartilhada: um único HttpClient (HTTP/2, reuso de conexões, gzip) para todas as buscas
+// Cada requisição passa antes pelo LimitadorRequisicoes (taxa e concorrência adaptativa)
+
+public class TransporteHttp {
+
+    // Instância padrão, com timeouts configuráveis pelas propriedades "ibge.api.connectTimeout" e "ibge.api.readTimeout" (ms).
+    // O readTimeout vale para a chegada dos cabeçalhos e também para cada leitura do corpo (ver PrazoDeLeitura)
+    private static final TransporteHttp PADRAO = new TransporteHttp(
+            Duration.ofMillis(Long.getLong("ibge.api.connectTimeout", 10_000)),
+            Duration.ofMillis(Long.getLong("ibge.api.readTimeout", 30_000)));
+
+    private final HttpClient client;
+    private final Duration readTimeout;
+    private final LimitadorRequisicoes limitador;
+    // Bytes recebidos da rede (antes de descompactar), somando todas as respostas
+    private final AtomicLong bytesRecebidos = new AtomicLong();
+
+    // Quanto do corpo ainda não lido é descartado ao fechar, para a conexão voltar ao pool; acima disso ela é fechada
+    private static final int DRENAGEM_MAXIMA = 64 * 1024;
+
+    // Vigia das leituras de corpo paradas, compartilhado por todas as instâncias. A tarefa de cada corpo é
+    // cancelada quando ele termina; sem a remoção no cancelamento, ela ficaria na fila até a próxima conferência
+    private static final ScheduledThreadPoolExecutor vigia = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "prazo-leitura-ibge");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        vigia.setRemoveOnCancelPolicy(true);
+    }
+
+    public TransporteHttp(Duration connectTimeout, Duration readTimeout) {
+        this(connectTimeout, readTimeout, LimitadorRequisicoes.padrao());
+    }
+
+    public TransporteHttp(Duration connectTimeout, Duration readTimeout, LimitadorRequisicoes limitador) {
+        this.limitador = limitador;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.readTimeout = readTimeout;
+    }
+
+    public static TransporteHttp padrao() {
+        return PADRAO;
+    }
+
+    public long getBytesRecebidos() {
+        return bytesRecebidos.get();
+    }
+
+    /**
+     * Faz um GET e devolve o corpo da resposta já descompactado, pronto para ser lido em streaming.
+     * @param uri Endereço completo da requisição.
+     * @return InputStream do corpo; quem chama deve fechá-lo.
+     * @throws IOException Se a resposta não for 200 ou ocorrer um erro de I/O (inclusive timeout).
+     */
+    public InputStream get(URI uri) throws IOException {
+        return corpo(enviar(requisicao(uri).build()));
+    }
+
+    /**
+     * Faz um GET condicional (If-None-Match / If-Modified-Since) para revalidar uma resposta guardada.
+     * @param uri Endereço completo da requisição.
+     * @param etag ETag da resposta guardada, ou null.
+     * @param lastModified Last-Modified da resposta guardada, ou null.
+     * @return A resposta; com status 304 o corpo é null e a cópia guardada continua válida.
+     * @throws IOException Se a resposta não for 200 nem 304 ou ocorrer um erro de I/O.
+     */
+    public Resposta getCondicional(URI uri, String etag, String lastModified) throws IOException {
+        HttpRequest.Builder builder = requisicao(uri);
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+        HttpResponse<InputStream> resposta = enviar(builder.build());
+        String novaEtag = resposta.headers().firstValue("ETag").orElse(null);
+        String novoLastModified = resposta.headers().firstValue("Last-Modified").orElse(null);
+        if (resposta.statusCode() == 304) {
+            resposta.body().close();
+            return new Resposta(304, null, novaEtag != null ? novaEtag : etag,
+                    novoLastModified != null ? novoLastModified : lastModified);
+        }
+        return new Resposta(resposta.statusCode(), corpo(resposta), novaEtag, novoLastModified);
+    }
+
+    // Envia a requisição; a latência medida (e a vaga no limitador) vai até a chegada dos cabeçalhos da resposta
+    private HttpResponse<InputStream> enviar(HttpRequest requisicao) throws IOException {
+        LimitadorRequisicoes.Permissao permissao = limitador.adquirir();
+        long inicio = Metricas.inicio();
+        Metricas.contar(Metricas.Contador.REQUISICOES, 1);
+        try {
+            HttpResponse<InputStream> resposta = client.send(requisicao, HttpResponse.BodyHandlers.ofInputStream());
+            permissao.concluir(resposta);
+            Metricas.registrar(Metricas.Operacao.HTTP, inicio);
+            return resposta;
+        } catch (IOException e) {
+            permissao.concluirComErro(e);
+            throw e;
+        } catch (InterruptedException e) {
+            permissao.concluirComErro(e);
+            Thread.currentThread().interrupt();
+            throw ResilienciaHttp.interrupcao("Requisição interrompida: " + requisicao.uri(), e);
+        }
+    }
+
+    /**
+     * Versão assíncrona de get. A future falha com UncheckedIOException nas mesmas situações.
+     * @param uri Endereço completo da requisição.
+     * @return Future com o corpo da resposta já descompactado.
+     */
+    public CompletableFuture<InputStream> getAsync(URI uri) {
+        // A espera pela vaga também é assíncrona: nenhuma thread fica parada na fila do limitador
+        return limitador.adquirirAsync().thenCompose(permissao -> {
+            long inicio = Metricas.inicio();
+            Metricas.contar(Metricas.Contador.REQUISICOES, 1);
+            return client.sendAsync(requisicao(uri).build(), HttpResponse.BodyHandlers.ofInputStream())
+                    .whenComplete((resposta, erro) -> {
+                        if (erro != null) {
+                            permissao.concluirComErro(erro instanceof CompletionException ? erro.getCause() : erro);
+                        } else {
+                            permissao.concluir(resposta);
+                        }
+                    })
+                    .thenApply(resposta -> {
+                        Metricas.registrar(Metricas.Operacao.HTTP, inicio);
+                        try {
+                            return corpo(resposta);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        });
+    }
+
+    private HttpRequest.Builder requisicao(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET();
+    }
+
+    // Valida o código HTTP e descompacta o corpo quando o servidor responde com gzip
+    private InputStream corpo(HttpResponse<InputStream> resposta) throws IOException {
+        InputStream in = new ContadorDeBytes(new PrazoDeLeitura(resposta.body(), resposta.uri()));
+        boolean gzip = resposta.headers().firstValue("Content-Encoding")
+                .map(v -> v.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        if (gzip) {
+            in = new GZIPInputStream(in);
+        }
+
+        // Tratamento de erros HTTP
+        if (resposta.statusCode() != 200) {
+            String detalhes;
+            try (InputStream erro = in) {
+                detalhes = new String(erro.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            throw new ErroHttp(resposta.statusCode(), "Erro na requisição à API: Código " + resposta.statusCode()
+                    + (detalhes.isEmpty() ? "" : "\nDetalhes: " + detalhes));
+        }
+        return in;
+    }
+
+    // Limita cada leitura do corpo ao readTimeout: HttpRequest.timeout só cobre a espera pelos cabeçalhos, e um
+    // servidor que para no meio do corpo deixaria quem lê parado para sempre. Uma tarefa do vigia confere a
+    // leitura em andamento a cada quarto do prazo e, passado o prazo, fecha o corpo (o que destrava o read);
+    // a leitura então falha com HttpTimeoutException, tratada como erro temporário pelo ResilienciaHttp.
+    // O prazo efetivo fica entre 1 e 1,25 vez o readTimeout.
+    private class PrazoDeLeitura extends FilterInputStream {
+        private final URI uri;
+        private final long prazoNanos = readTimeout.toNanos();
+        private final ScheduledFuture<?> tarefa;
+        private volatile long lendoDesde; // 0 = nenhuma leitura em andamento
+        private volatile boolean expirou;
+        private boolean fim;
+
+        PrazoDeLeitura(InputStream in, URI uri) {
+            super(in);
+            this.uri = uri;
+            long intervalo = Math.max(1, readTimeout.toMillis() / 4);
+            this.tarefa = vigia.scheduleWithFixedDelay(this::conferir, intervalo, intervalo, TimeUnit.MILLISECONDS);
+        }
+
+        private void conferir() {
+            long desde = lendoDesde;
+            if (desde != 0 && System.nanoTime() - desde > prazoNanos) {
+                expirou = true;
+                tarefa.cancel(false);
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // O read travado falha de qualquer forma
+                }
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            iniciarLeitura();
+            try {
+                return terminarLeitura(super.read());
+            } catch (IOException e) {
+                throw erro(e);
+            } finally {
+                lendoDesde = 0;
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int inicio, int tamanho) throws IOException {
+            iniciarLeitura();
+            try {
+                return terminarLeitura(super.read(buffer, inicio, tamanho));
+            } catch (IOException e) {
+                throw erro(e);
+            } finally {
+                lendoDesde = 0;
+            }
+        }
+
+        // Lê o que sobrou do corpo (até DRENAGEM_MAXIMA bytes) antes de fechar: o GZIPInputStream para no fim dos
+        // dados compactados sem esperar o fim do corpo, e um corpo fechado antes do fim faz o HttpClient descartar
+        // a conexão em vez de devolvê-la ao pool
+        @Override
+        public void close() throws IOException {
+            try {
+                if (!fim && !expirou) {
+                    drenar();
+                }
+            } catch (IOException e) {
+                // A conexão só não será reaproveitada
+            } finally {
+                tarefa.cancel(false);
+                super.close();
+            }
+        }
+
+        private void drenar() throws IOException {
+            byte[] descarte = new byte[4096];
+            for (long restante = DRENAGEM_MAXIMA; restante > 0 && !fim; ) {
+                int lidos = read(descarte, 0, (int) Math.min(descarte.length, restante));
+                if (lidos > 0) {
+                    restante -= lidos;
+                }
+            }
+        }
+
+        private void iniciarLeitura() throws IOException {
+            if (expirou) {
+                throw erro(null);
+            }
+            lendoDesde = System.nanoTime();
+        }
+
+        // No fim do corpo o vigia não é mais necessário, mesmo que quem lê esqueça de fechar
+        private int terminarLeitura(int resultado) {
+            if (resultado < 0) {
+                fim = true;
+                tarefa.cancel(false);
+            }
+            return resultado;
+        }
+
+        private IOException erro(IOException causa) {
+            if (!expirou) {
+                return causa;
+            }
+            HttpTimeoutException e = new HttpTimeoutException("Leitura da resposta parada por mais de "
+                    + readTimeout.toMillis() + " ms: " + uri);
+            if (causa != null) {
+                e.initCause(causa);
+            }
+            return e;
+        }
+    }
+
+    // Conta os bytes lidos do corpo da resposta
+    private class ContadorDeBytes extends FilterInputStream {
+        ContadorDeBytes(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                bytesRecebidos.incrementAndGet();
+                Metricas.contar(Metricas.Contador.BYTES_RECEBIDOS, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int inicio, int tamanho) throws IOException {
+            int lidos = super.read(buffer, inicio, tamanho);
+            if (lidos > 0) {
+                bytesRecebidos.addAndGet(lidos);
+                Metricas.contar(Metricas.Contador.BYTES_RECEBIDOS, lidos);
+            }
+            return lidos;
+        }
+    }
+
+    // Resposta de um GET condicional: status, corpo (null em 304) e os validadores enviados pelo servidor
+    public static class Resposta {
+        private final int status;
+        private final InputStream corpo;
+        private final String etag;
+        private final String lastModified;
+
+        public Resposta(int status, InputStream corpo, String etag, String lastModified) {
+            this.status = status;
+            this.corpo = corpo;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public int getStatus() { return status; }
+        public InputStream getCorpo() { return corpo; }
+        public String getEtag() { return etag; }
+        public String getLastModified() { return lastModified; }
+    }
+
+    // Erro de resposta HTTP (código diferente de 200/304), guardando o código para decidir se vale repetir
+    public static class ErroHttp extends IOException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        public ErroHttp(int status, String mensagem) {
+            super(mensagem);
+            this.status = status;
+        }
+
+        public int getStatus() { return status; }
+    }
+}
\ No newline at end of file
@@ -1,26 +1,26 @@
-import java.util.ArrayList;
 import java.util.List;
 
 // Classe que representa um usuário do sistema de notícias
+// As três listas compartilham o mesmo repositório, então cada notícia é guardada uma única vez
 
 public class Usuario {
     private String nome;
-    private List<Noticia> favoritos;
-    private List<Noticia> lidas;
-    private List<Noticia> paraLerDepois;
+    private final RepositorioNoticias repositorio;
+    private ListaNoticias favoritos;
+    private ListaNoticias lidas;
+    private ListaNoticias paraLerDepois;
 
     public Usuario(String nome) {
+        this();
         this.nome = nome;
-        this.favoritos = new ArrayList<>();
-        this.lidas = new ArrayList<>();
-        this.paraLerDepois = new ArrayList<>();
     }
 
     // Construtor padrão para permitir a criação de um usuário sem nome
     public Usuario() {
-        this.favoritos = new ArrayList<>();
-        this.lidas = new ArrayList<>();
-        this.paraLerDepois = new ArrayList<>();
+        this.repositorio = new RepositorioNoticias();
+        this.favoritos = new ListaNoticias(repositorio);
+        this.lidas = new ListaNoticias(repositorio);
+        this.paraLerDepois = new ListaNoticias(repositorio);
     }
 
     public String getNome() {
@@ -31,6 +31,10 @@ public class Usuario {
         this.nome = nome;
     }
 
+    public RepositorioNoticias getRepositorio() {
+        return repositorio;
+    }
+
     public List<Noticia> getFavoritos() {
         return favoritos;
     }
@@ -43,16 +47,16 @@ public class Usuario {
         return paraLerDepois;
     }
 
-    // Métodos para definir as listas de notícias
+    // Métodos para definir as listas de notícias (as notícias são internadas no repositório do usuário)
     public void setFavoritos(List<Noticia> favoritos) {
-        this.favoritos = favoritos;
+        this.favoritos = new ListaNoticias(repositorio, favoritos);
     }
 
     public void setLidas(List<Noticia> lidas) {
-        this.lidas = lidas;
+        this.lidas = new ListaNoticias(repositorio, lidas);
     }
 
     public void setParaLerDepois(List<Noticia> paraLerDepois) {
-        this.paraLerDepois = paraLerDepois;
+        this.paraLerDepois = new ListaNoticias(repositorio, paraLerDepois);
     }
 }
\ No newline at end of file
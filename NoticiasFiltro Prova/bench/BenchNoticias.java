@@ -0,0 +1,659 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.internal.Streams;
+import com.google.gson.stream.JsonWriter;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+// Benchmarks dos caminhos mais usados do programa, rodando offline a partir de bench/fixtures
+//
+// Não há build nem dependências além da Gson, então o harness é feito à mão no estilo do JMH:
+// aquecimento, várias iterações de tempo fixo por tamanho de dados, média e desvio padrão em itens/s.
+// Também mostra os bytes alocados por execução (B/op), medidos pela JVM na thread do benchmark.
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -Xmx2g -cp out:lib/gson-2.10.1.jar BenchNoticias [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --filtro texto       roda só os benchmarks cujo nome contém o texto
+//   --rapido             menos iterações (para conferir se tudo roda, não para comparar números)
+//   --gravar arquivo     grava os resultados (ex: bench/baseline.tsv)
+//   --comparar arquivo   compara com resultados gravados; sai com código 1 se houver regressão
+//   --limite fração      queda tolerada na comparação (padrão 0.10 = 10%)
+//
+// O baseline é gravado com as métricas desligadas (padrão). Rodar com -Dnoticias.metricas=true e --comparar
+// mostra o custo das métricas ligadas nos caminhos medidos (api.decodificar, persistencia, metricas.*).
+
+public class BenchNoticias {
+    private static final String FIXTURE = "bench" + File.separator + "fixtures" + File.separator + "pagina-ibge.json";
+    private static final DateTimeFormatter FORMATO_API = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private static final int ID_INICIAL = 100_000;
+    private static final LocalDateTime DATA_INICIAL = LocalDateTime.of(2025, 6, 30, 18, 0);
+
+    // Período dos casos *.periodo.um.ano e campos lidos, os de uma listagem
+    private static final LocalDate UM_ANO_INICIO = LocalDate.of(2024, 7, 1);
+    private static final LocalDate UM_ANO_FIM = LocalDate.of(2025, 6, 30);
+    private static final Set<Noticia.Campo> CAMPOS_LISTAGEM = EnumSet.of(Noticia.Campo.ID, Noticia.Campo.TITULO, Noticia.Campo.DATA);
+
+    // Evita que o JIT descarte o trabalho medido
+    static volatile long sumidouro;
+
+    // Bytes alocados por thread (extensão da HotSpot); null se a JVM não souber medir
+    private static final com.sun.management.ThreadMXBean ALOCACAO = alocacaoPorThread();
+
+    /**
+     * Um benchmark: prepara os dados para um tamanho e executa a operação medida.
+     * executar() devolve quantos itens processou, para o resultado sair em itens/s.
+     */
+    abstract static class Caso {
+        final String nome;
+        final int[] tamanhos;
+
+        Caso(String nome, int... tamanhos) {
+            this.nome = nome;
+            this.tamanhos = tamanhos;
+        }
+
+        abstract void preparar(int tamanho) throws Exception;
+
+        // Chamado antes de cada execução, fora da medição (ex: montar uma lista nova)
+        void antesDeExecutar() throws Exception {
+        }
+
+        abstract long executar() throws Exception;
+    }
+
+    // Resultado de um benchmark em um tamanho
+    static class Resultado {
+        final String nome;
+        final int tamanho;
+        final double itensPorSegundo;
+        final double desvio;
+        final double bytesPorOp; // -1 se não medido
+
+        Resultado(String nome, int tamanho, double itensPorSegundo, double desvio, double bytesPorOp) {
+            this.nome = nome;
+            this.tamanho = tamanho;
+            this.itensPorSegundo = itensPorSegundo;
+            this.desvio = desvio;
+            this.bytesPorOp = bytesPorOp;
+        }
+
+        String chave() {
+            return nome + "/" + tamanho;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String filtro = "";
+        boolean rapido = false;
+        String gravar = null;
+        String comparar = null;
+        double limite = 0.10;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filtro":
+                    filtro = args[++i];
+                    break;
+                case "--rapido":
+                    rapido = true;
+                    break;
+                case "--gravar":
+                    gravar = args[++i];
+                    break;
+                case "--comparar":
+                    comparar = args[++i];
+                    break;
+                case "--limite":
+                    limite = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        // A persistência grava em um diretório temporário, nunca nos dados reais do usuário
+        File dados = Files.createTempDirectory("bench-noticias").toFile();
+        System.setProperty("noticias.dados", dados.getPath());
+
+        int aquecimentos = rapido ? 1 : 5;
+        int iteracoes = rapido ? 2 : 5;
+        long milisPorIteracao = rapido ? 100 : 500;
+
+        List<Resultado> resultados = new ArrayList<>();
+        PrintStream saidaOriginal = System.out;
+        try {
+            List<Caso> casos = casos();
+            for (int c = 0; c < casos.size(); c++) {
+                // Solta o caso anterior (e os dados que ele preparou) antes de preparar o próximo
+                Caso caso = casos.set(c, null);
+                if (!caso.nome.contains(filtro)) {
+                    continue;
+                }
+                for (int tamanho : caso.tamanhos) {
+                    caso.preparar(tamanho);
+                    // Silencia as mensagens do programa (ex: "Dados do usuário salvos...") durante a medição
+                    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                    double[] medidas = new double[iteracoes];
+                    long[] alocado = new long[2];
+                    try {
+                        for (int i = 0; i < aquecimentos; i++) {
+                            iteracao(caso, milisPorIteracao, new long[2]);
+                        }
+                        for (int i = 0; i < iteracoes; i++) {
+                            medidas[i] = iteracao(caso, milisPorIteracao, alocado);
+                        }
+                    } finally {
+                        System.setOut(saidaOriginal);
+                    }
+                    Resultado r = resumir(caso.nome, tamanho, medidas, ALOCACAO != null ? (double) alocado[0] / alocado[1] : -1);
+                    resultados.add(r);
+                    System.out.printf(Locale.ROOT, "%-32s %9d %16.1f itens/s  ± %5.1f%%  %14s B/op%n",
+                            r.nome, r.tamanho, r.itensPorSegundo, 100 * r.desvio / r.itensPorSegundo, bytes(r.bytesPorOp));
+                }
+            }
+        } finally {
+            apagar(dados);
+        }
+
+        if (gravar != null) {
+            gravarResultados(resultados, new File(gravar));
+            System.out.println("\nResultados gravados em " + gravar);
+        }
+        if (comparar != null && !compararResultados(resultados, lerResultados(new File(comparar)), limite)) {
+            System.exit(1);
+        }
+    }
+
+    // Executa a operação repetidamente por pelo menos 'milis' ms de tempo medido; devolve itens/s.
+    // Soma em alocado[0] os bytes alocados pelas execuções (sem antesDeExecutar) e em alocado[1] quantas foram.
+    private static double iteracao(Caso caso, long milis, long[] alocado) throws Exception {
+        long medido = 0;
+        long itens = 0;
+        long limite = milis * 1_000_000L;
+        long thread = Thread.currentThread().getId();
+        while (medido < limite) {
+            caso.antesDeExecutar();
+            // A leitura da alocação fica fora do tempo medido
+            long bytesAntes = ALOCACAO != null ? ALOCACAO.getThreadAllocatedBytes(thread) : 0;
+            long inicio = System.nanoTime();
+            itens += caso.executar();
+            medido += System.nanoTime() - inicio;
+            if (ALOCACAO != null) {
+                alocado[0] += ALOCACAO.getThreadAllocatedBytes(thread) - bytesAntes;
+            }
+            alocado[1]++;
+        }
+        return itens / (medido / 1e9);
+    }
+
+    private static com.sun.management.ThreadMXBean alocacaoPorThread() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+            if (hotspot.isThreadAllocatedMemorySupported()) {
+                hotspot.setThreadAllocatedMemoryEnabled(true);
+                return hotspot;
+            }
+        }
+        return null;
+    }
+
+    private static String bytes(double bytesPorOp) {
+        return bytesPorOp < 0 ? "-" : String.format(Locale.ROOT, "%.0f", bytesPorOp);
+    }
+
+    private static Resultado resumir(String nome, int tamanho, double[] medidas, double bytesPorOp) {
+        double media = 0;
+        for (double m : medidas) {
+            media += m;
+        }
+        media /= medidas.length;
+        double variancia = 0;
+        for (double m : medidas) {
+            variancia += (m - media) * (m - media);
+        }
+        double desvio = medidas.length > 1 ? Math.sqrt(variancia / (medidas.length - 1)) : 0;
+        return new Resultado(nome, tamanho, media, desvio, bytesPorOp);
+    }
+
+    // ---- Casos ----
+
+    private static List<Caso> casos() {
+        List<Caso> casos = new ArrayList<>();
+
+        // IBGENoticiasAPI: leitura de uma página da API (JSON gravado, expandido para o tamanho pedido)
+        casos.add(new Caso("api.decodificar", 100, 1_000, 10_000) {
+            byte[] pagina;
+
+            void preparar(int tamanho) throws IOException {
+                pagina = paginaExpandida(tamanho);
+            }
+
+            long executar() throws IOException {
+                PaginaNoticias p = IBGENoticiasAPI.lerPagina(new InputStreamReader(new ByteArrayInputStream(pagina), StandardCharsets.UTF_8));
+                sumidouro += p.getNoticias().size();
+                return p.getNoticias().size();
+            }
+        });
+        // Como era antes da leitura em streaming: corpo inteiro em uma String, árvore JSON e Gson por reflexão,
+        // com um Gson novo por página (o nome "data_publicacao" da API é mapeado para o campo da data)
+        casos.add(new Caso("api.decodificar.legado", 100, 1_000, 10_000) {
+            byte[] pagina;
+
+            void preparar(int tamanho) throws IOException {
+                pagina = paginaExpandida(tamanho);
+            }
+
+            long executar() throws IOException {
+                StringBuilder json = new StringBuilder();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(pagina), StandardCharsets.UTF_8))) {
+                    String linha;
+                    while ((linha = reader.readLine()) != null) {
+                        json.append(linha);
+                    }
+                }
+                Gson gson = new GsonBuilder()
+                        .registerTypeAdapter(LocalDateTime.class, new IBGENoticiasAPI.LocalDateTimeAdapter())
+                        .setFieldNamingStrategy(campo -> campo.getName().equals("dataPublicacao") ? "data_publicacao" : campo.getName())
+                        .create();
+                List<Noticia> lista = new ArrayList<>();
+                for (JsonElement item : JsonParser.parseString(json.toString()).getAsJsonObject().getAsJsonArray("items")) {
+                    lista.add(gson.fromJson(item, Noticia.class));
+                }
+                sumidouro += lista.size();
+                return lista.size();
+            }
+        });
+        casos.add(new Caso("api.decodificar.projetado", 100, 1_000, 10_000) {
+            byte[] pagina;
+            final Set<Noticia.Campo> campos = EnumSet.of(Noticia.Campo.ID, Noticia.Campo.TITULO, Noticia.Campo.DATA);
+
+            void preparar(int tamanho) throws IOException {
+                pagina = paginaExpandida(tamanho);
+            }
+
+            long executar() throws IOException {
+                PaginaNoticias p = IBGENoticiasAPI.lerPagina(new InputStreamReader(new ByteArrayInputStream(pagina), StandardCharsets.UTF_8), campos);
+                sumidouro += p.getNoticias().size();
+                return p.getNoticias().size();
+            }
+        });
+
+        // IBGENoticiasAPI.NoticiaAdapter.write: o caminho de gravação do cache, do espelho, do log e do servidor.
+        // As notícias vêm de uma página lida da API, com introdução e link no bloco UTF-8 compartilhado
+        casos.add(new Caso("api.serializar", 100, 1_000, 10_000) {
+            List<Noticia> noticias;
+            final IBGENoticiasAPI.NoticiaAdapter adapter = new IBGENoticiasAPI.NoticiaAdapter();
+
+            void preparar(int tamanho) throws IOException {
+                noticias = IBGENoticiasAPI.lerPagina(new InputStreamReader(new ByteArrayInputStream(paginaExpandida(tamanho)),
+                        StandardCharsets.UTF_8)).getNoticias();
+            }
+
+            long executar() throws IOException {
+                try (JsonWriter out = new JsonWriter(Writer.nullWriter())) {
+                    out.beginArray();
+                    for (Noticia n : noticias) {
+                        adapter.write(out, n);
+                    }
+                    out.endArray();
+                }
+                sumidouro += noticias.size();
+                return noticias.size();
+            }
+        });
+
+        // Persistencia: snapshot completo (JSON + binário) e carregamento na inicialização
+        casos.add(new Caso("persistencia.salvar", 1_000, 10_000, 100_000) {
+            Usuario usuario;
+
+            void preparar(int tamanho) throws IOException {
+                usuario = usuarioCom(tamanho);
+            }
+
+            long executar() {
+                Persistencia.salvarUsuario(usuario);
+                return usuario.getFavoritos().size() + usuario.getLidas().size() + usuario.getParaLerDepois().size();
+            }
+        });
+        casos.add(new Caso("persistencia.carregar", 1_000, 10_000, 100_000) {
+            void preparar(int tamanho) throws IOException {
+                Persistencia.salvarUsuario(usuarioCom(tamanho));
+            }
+
+            long executar() {
+                Usuario u = Persistencia.carregarUsuario();
+                return u.getFavoritos().size() + u.getLidas().size() + u.getParaLerDepois().size();
+            }
+        });
+
+        // Usuario: pertinência e remoção/reinserção nas listas (cada execução faz 10 mil operações)
+        casos.add(new Caso("usuario.contem", 1_000, 100_000, 1_000_000) {
+            List<Noticia> lista;
+            Noticia[] sondas;
+
+            void preparar(int tamanho) throws IOException {
+                lista = usuarioSimples(tamanho).getFavoritos();
+                sondas = sondas(lista, 10_000);
+            }
+
+            long executar() {
+                long achadas = 0;
+                for (Noticia n : sondas) {
+                    if (lista.contains(n)) {
+                        achadas++;
+                    }
+                }
+                sumidouro += achadas;
+                return sondas.length;
+            }
+        });
+        casos.add(new Caso("usuario.remover.readicionar", 1_000, 100_000, 1_000_000) {
+            List<Noticia> lista;
+            Noticia[] sondas;
+
+            void preparar(int tamanho) throws IOException {
+                lista = usuarioSimples(tamanho).getFavoritos();
+                sondas = sondas(lista, 10_000);
+            }
+
+            long executar() {
+                for (Noticia n : sondas) {
+                    lista.remove(n);
+                    lista.add(n);
+                }
+                sumidouro += lista.size();
+                return sondas.length;
+            }
+        });
+
+        // GerenciadorNoticias.exibirLista: ordenação de uma lista recém-carregada (primeira exibição)
+        for (OrdenacaoNoticias.Criterio criterio : OrdenacaoNoticias.Criterio.values()) {
+            casos.add(new Caso("exibirLista.ordenar." + criterio.name().toLowerCase(Locale.ROOT), 1_000, 10_000, 100_000) {
+                List<Noticia> origem;
+                List<Noticia> lista;
+
+                void preparar(int tamanho) throws IOException {
+                    origem = new ArrayList<>(usuarioSimples(tamanho).getFavoritos());
+                }
+
+                void antesDeExecutar() {
+                    lista = new Usuario("bench").getFavoritos();
+                    lista.addAll(origem);
+                }
+
+                long executar() {
+                    List<Noticia> ordenada = GerenciadorNoticias.ordenar(lista, criterio);
+                    // Lê a primeira página, como a exibição faz
+                    for (int i = 0; i < Math.min(10, ordenada.size()); i++) {
+                        sumidouro += ordenada.get(i).hashCode();
+                    }
+                    return ordenada.size();
+                }
+            });
+        }
+
+        // Metricas: o mesmo laço sem e com uma medida (inicio/registrar) e um contador por volta; o tamanho é o
+        // número de voltas. Com as métricas desligadas os dois devem empatar (ver o comentário no topo)
+        casos.add(new Caso("metricas.laco.puro", 10_000) {
+            int voltas;
+
+            void preparar(int tamanho) {
+                voltas = tamanho;
+            }
+
+            long executar() {
+                long soma = 0;
+                for (int i = 0; i < voltas; i++) {
+                    soma += i ^ (soma >>> 3);
+                }
+                sumidouro += soma;
+                return voltas;
+            }
+        });
+        casos.add(new Caso("metricas.laco.medido", 10_000) {
+            int voltas;
+
+            void preparar(int tamanho) {
+                voltas = tamanho;
+            }
+
+            long executar() {
+                long soma = 0;
+                for (int i = 0; i < voltas; i++) {
+                    long inicio = Metricas.inicio();
+                    soma += i ^ (soma >>> 3);
+                    Metricas.registrar(Metricas.Operacao.RENDERIZAR, inicio);
+                    Metricas.contar(Metricas.Contador.REQUISICOES, 1);
+                }
+                sumidouro += soma;
+                return voltas;
+            }
+        });
+
+        // Busca por período: um ano (jul/2024 a jun/2025) com 1 ou 10 anos gravados. O tamanho é a quantidade de anos;
+        // o armazém colunar só abre os 12 meses pedidos, a lista em memória é percorrida inteira
+        casos.add(new Caso("colunar.periodo.um.ano", 1, 10) {
+            ArmazemColunar armazem;
+
+            void preparar(int tamanho) throws IOException {
+                File diretorio = new File(System.getProperty("noticias.dados"), "colunar-" + tamanho);
+                apagar(diretorio);
+                armazem = new ArmazemColunar(diretorio);
+                armazem.gravar(noticiasDeAnos(tamanho));
+            }
+
+            long executar() throws IOException {
+                List<Noticia> achadas = armazem.buscarPorData(UM_ANO_INICIO, UM_ANO_FIM, CAMPOS_LISTAGEM);
+                sumidouro += achadas.size();
+                return achadas.size();
+            }
+        });
+        casos.add(new Caso("lista.periodo.um.ano", 1, 10) {
+            List<Noticia> lista;
+
+            void preparar(int tamanho) throws IOException {
+                lista = noticiasDeAnos(tamanho);
+            }
+
+            long executar() {
+                LocalDateTime inicio = UM_ANO_INICIO.atStartOfDay();
+                LocalDateTime fim = UM_ANO_FIM.plusDays(1).atStartOfDay();
+                long achadas = 0;
+                for (Noticia n : lista) {
+                    if (!n.getDataPublicacao().isBefore(inicio) && n.getDataPublicacao().isBefore(fim)) {
+                        achadas++;
+                    }
+                }
+                sumidouro += achadas;
+                return achadas;
+            }
+        });
+        return casos;
+    }
+
+    // ---- Dados ----
+
+    // Página no formato da API com 'quantidade' itens, gerada a partir dos itens gravados em bench/fixtures.
+    // Cada cópia recebe id, título e data próprios, sempre da mesma forma (os resultados são reproduzíveis).
+    static byte[] paginaExpandida(int quantidade) throws IOException {
+        JsonObject fixture = lerFixture();
+        JsonArray modelos = fixture.getAsJsonArray("items");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonWriter out = new JsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            out.beginObject();
+            for (Map.Entry<String, JsonElement> campo : fixture.entrySet()) {
+                if (!campo.getKey().equals("items")) {
+                    out.name(campo.getKey());
+                    Streams.write(campo.getKey().equals("count") || campo.getKey().equals("showingTo")
+                            ? new JsonPrimitive(quantidade) : campo.getValue(), out);
+                }
+            }
+            out.name("items").beginArray();
+            for (int i = 0; i < quantidade; i++) {
+                JsonObject item = modelos.get(i % modelos.size()).getAsJsonObject().deepCopy();
+                item.addProperty("id", ID_INICIAL + i);
+                item.addProperty("titulo", item.get("titulo").getAsString() + " (" + (quantidade - i) + ")");
+                item.addProperty("data_publicacao", DATA_INICIAL.minusMinutes(37L * i).format(FORMATO_API));
+                Streams.write(item, out);
+            }
+            out.endArray();
+            out.endObject();
+        }
+        return bytes.toByteArray();
+    }
+
+    // As mesmas notícias de paginaExpandida, montadas direto (sem JSON) para os tamanhos grandes;
+    // introdução, link e tipo são compartilhados com o modelo
+    static List<Noticia> noticiasExpandidas(int quantidade) throws IOException {
+        List<Noticia> modelos = IBGENoticiasAPI.lerPagina(new StringReader(lerFixture().toString())).getNoticias();
+        List<Noticia> noticias = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Noticia modelo = modelos.get(i % modelos.size());
+            Noticia n = new Noticia();
+            n.setId(String.valueOf(ID_INICIAL + i));
+            n.setTitulo(modelo.getTitulo() + " (" + (quantidade - i) + ")");
+            n.setIntroducao(modelo.getIntroducao());
+            n.setLink(modelo.getLink());
+            n.setTipo(modelo.getTipo());
+            n.setDataPublicacao(DATA_INICIAL.minusMinutes(37L * i));
+            noticias.add(n);
+        }
+        return noticias;
+    }
+
+    // Notícias de paginaExpandida cobrindo 'anos' anos completos até DATA_INICIAL (uma a cada 37 minutos)
+    static List<Noticia> noticiasDeAnos(int anos) throws IOException {
+        return noticiasExpandidas((int) (anos * 366L * 24 * 60 / 37));
+    }
+
+    private static JsonObject lerFixture() throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(FIXTURE), StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        }
+    }
+
+    // Usuário com as notícias distribuídas entre as três listas, uma parte delas em mais de uma lista
+    static Usuario usuarioCom(int quantidade) throws IOException {
+        List<Noticia> noticias = noticiasExpandidas(quantidade);
+        Usuario usuario = new Usuario("bench");
+        for (int i = 0; i < noticias.size(); i++) {
+            Noticia n = noticias.get(i);
+            switch (i % 3) {
+                case 0:
+                    usuario.getFavoritos().add(n);
+                    break;
+                case 1:
+                    usuario.getLidas().add(n);
+                    break;
+                default:
+                    usuario.getParaLerDepois().add(n);
+            }
+            if (i % 10 == 0) {
+                usuario.getLidas().add(n);
+            }
+        }
+        return usuario;
+    }
+
+    // Usuário com todas as notícias nos favoritos
+    static Usuario usuarioSimples(int quantidade) throws IOException {
+        Usuario usuario = new Usuario("bench");
+        usuario.getFavoritos().addAll(noticiasExpandidas(quantidade));
+        return usuario;
+    }
+
+    // Metade das sondas está na lista, metade não
+    static Noticia[] sondas(List<Noticia> lista, int quantidade) {
+        Random aleatorio = new Random(42);
+        Noticia[] sondas = new Noticia[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            if (i % 2 == 0) {
+                sondas[i] = lista.get(aleatorio.nextInt(lista.size()));
+            } else {
+                Noticia ausente = new Noticia();
+                ausente.setId("ausente-" + i);
+                sondas[i] = ausente;
+            }
+        }
+        return sondas;
+    }
+
+    // ---- Resultados gravados ----
+
+    private static void gravarResultados(List<Resultado> resultados, File arquivo) throws IOException {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(arquivo), StandardCharsets.UTF_8))) {
+            out.println("# benchmark\ttamanho\titens_por_s\tdesvio\tbytes_por_op");
+            out.println("# java " + System.getProperty("java.version") + ", " + System.getProperty("os.name") + " "
+                    + System.getProperty("os.arch") + ", " + Runtime.getRuntime().availableProcessors() + " CPUs");
+            for (Resultado r : resultados) {
+                out.printf(Locale.ROOT, "%s\t%d\t%.1f\t%.1f\t%.0f%n", r.nome, r.tamanho, r.itensPorSegundo, r.desvio, r.bytesPorOp);
+            }
+        }
+    }
+
+    private static Map<String, Resultado> lerResultados(File arquivo) throws IOException {
+        Map<String, Resultado> resultados = new LinkedHashMap<>();
+        for (String linha : Files.readAllLines(arquivo.toPath(), StandardCharsets.UTF_8)) {
+            if (linha.isBlank() || linha.startsWith("#")) {
+                continue;
+            }
+            String[] campos = linha.split("\t");
+            // Arquivos gravados antes da medida de alocação não têm a quinta coluna
+            Resultado r = new Resultado(campos[0], Integer.parseInt(campos[1]), Double.parseDouble(campos[2]), Double.parseDouble(campos[3]),
+                    campos.length > 4 ? Double.parseDouble(campos[4]) : -1);
+            resultados.put(r.chave(), r);
+        }
+        return resultados;
+    }
+
+    // Relatório de comparação; devolve false se algum benchmark caiu mais que o limite
+    private static boolean compararResultados(List<Resultado> atuais, Map<String, Resultado> base, double limite) {
+        System.out.printf("%n%-32s %9s %16s %16s %9s %14s %14s%n", "benchmark", "tamanho", "base (itens/s)", "atual (itens/s)", "variação",
+                "base B/op", "atual B/op");
+        boolean ok = true;
+        for (Resultado atual : atuais) {
+            Resultado anterior = base.get(atual.chave());
+            if (anterior == null) {
+                System.out.printf(Locale.ROOT, "%-32s %9d %16s %16.1f %9s %14s %14s%n", atual.nome, atual.tamanho, "-", atual.itensPorSegundo, "novo",
+                        "-", bytes(atual.bytesPorOp));
+                continue;
+            }
+            double variacao = atual.itensPorSegundo / anterior.itensPorSegundo - 1;
+            // Só conta como regressão se a queda passar do limite e as faixas de erro não se sobrepuserem
+            boolean regressao = variacao < -limite
+                    && atual.itensPorSegundo + atual.desvio < anterior.itensPorSegundo - anterior.desvio;
+            ok &= !regressao;
+            System.out.printf(Locale.ROOT, "%-32s %9d %16.1f %16.1f %+8.1f%% %14s %14s%s%n", atual.nome, atual.tamanho,
+                    anterior.itensPorSegundo, atual.itensPorSegundo, 100 * variacao, bytes(anterior.bytesPorOp), bytes(atual.bytesPorOp),
+                    regressao ? "  REGRESSÃO" : "");
+        }
+        System.out.println(ok ? "\nNenhuma regressão acima de " + Math.round(limite * 100) + "%."
+                : "\nHá regressões acima de " + Math.round(limite * 100) + "%.");
+        return ok;
+    }
+
+    static void apagar(File arquivo) {
+        File[] filhos = arquivo.listFiles();
+        if (filhos != null) {
+            for (File filho : filhos) {
+                apagar(filho);
+            }
+        }
+        arquivo.delete();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,167 @@
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Latência de cauda da busca de vários termos (BuscaMultipla) contra uma API falsa com atraso artificial, offline
+//
+// A API falsa responde a página de bench/fixtures depois de 'atraso' ms; uma fração 'lentas' das requisições
+// demora 'lento' ms a mais, a cauda que uma busca em sequência soma e uma busca em paralelo só paga uma vez.
+// Em cada rodada, 50 termos (novos a cada rodada, para nenhum vir do cache) são buscados:
+//   - em sequência: buscarNoticiasPorTermo um termo depois do outro, como era antes;
+//   - pela BuscaMultipla, com cada limite de requisições simultâneas pedido.
+// Mostra, por modo, o tempo até o primeiro termo concluído e até o último (p50, p99 e máximo entre as rodadas).
+// O limitador de requisições fica folgado para medir só a busca.
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -cp out:lib/gson-2.10.1.jar BuscaMultiplaLatencia [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --termos N             termos por busca (padrão 50)
+//   --rodadas N            rodadas por modo (padrão 20)
+//   --atraso ms            latência da API falsa (padrão 50)
+//   --lentas f             fração das requisições lentas (padrão 0.05)
+//   --lento ms             atraso extra das requisições lentas (padrão 500)
+//   --simultaneas N,N...   limites de requisições simultâneas da BuscaMultipla (padrão 1,8,16,50)
+
+public class BuscaMultiplaLatencia {
+
+    public static void main(String[] args) throws Exception {
+        int termos = 50;
+        int rodadas = 20;
+        int atraso = 50;
+        double lentas = 0.05;
+        int lento = 500;
+        int[] simultaneas = {1, 8, 16, 50};
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--termos":
+                    termos = Integer.parseInt(args[++i]);
+                    break;
+                case "--rodadas":
+                    rodadas = Integer.parseInt(args[++i]);
+                    break;
+                case "--atraso":
+                    atraso = Integer.parseInt(args[++i]);
+                    break;
+                case "--lentas":
+                    lentas = Double.parseDouble(args[++i]);
+                    break;
+                case "--lento":
+                    lento = Integer.parseInt(args[++i]);
+                    break;
+                case "--simultaneas":
+                    simultaneas = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        // Sem TCP_NODELAY, o HttpServer do JDK atrasa cada resposta ~40 ms (Nagle com o ACK atrasado do cliente);
+        // precisa estar definida antes de criar o HttpServer
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        File dados = Files.createTempDirectory("busca-multipla").toFile();
+        AtomicLong requisicoesApi = new AtomicLong();
+        HttpServer api = apiComCauda(atraso, lentas, lento, requisicoesApi);
+        int maximo = Arrays.stream(simultaneas).max().orElse(1);
+        // Precisam estar definidas antes de qualquer uso de IBGENoticiasAPI e CacheNoticias
+        System.setProperty("ibge.api.url", "http://127.0.0.1:" + api.getAddress().getPort() + "/api/v3/noticias/");
+        System.setProperty("ibge.cache.diretorio", new File(dados, "cache").getPath());
+        System.setProperty("ibge.limite.taxa", "0");
+        System.setProperty("ibge.limite.inicial", String.valueOf(maximo));
+        System.setProperty("ibge.limite.maximo", String.valueOf(maximo));
+        try {
+            // Aquecimento: conexões abertas e classes carregadas antes das medidas
+            new BuscaMultipla(maximo).buscarTermos(termos("aquecimento", 0, termos), null);
+
+            System.out.printf(Locale.ROOT, "%d termos por busca, %d rodadas; API com %d ms, %.0f%% das requisições com +%d ms%n%n",
+                    termos, rodadas, atraso, lentas * 100, lento);
+            System.out.printf(Locale.ROOT, "%-22s %12s %12s %12s %12s %12s%n",
+                    "modo", "1º p50 ms", "último p50", "último p99", "último máx", "req. API");
+            medir("sequencial", 0, termos, rodadas, requisicoesApi);
+            for (int s : simultaneas) {
+                medir("BuscaMultipla (" + s + ")", s, termos, rodadas, requisicoesApi);
+            }
+        } finally {
+            api.stop(0);
+            BenchNoticias.apagar(dados);
+        }
+        System.exit(0);
+    }
+
+    // simultaneas = 0: em sequência
+    private static void medir(String nome, int simultaneas, int termos, int rodadas, AtomicLong requisicoesApi) throws IOException {
+        Metricas.Histograma primeiro = new Metricas.Histograma();
+        Metricas.Histograma ultimo = new Metricas.Histograma();
+        long antes = requisicoesApi.get();
+        for (int r = 0; r < rodadas; r++) {
+            List<String> lista = termos(nome, r, termos);
+            long inicio = System.nanoTime();
+            long[] primeiroConcluido = {0};
+            if (simultaneas == 0) {
+                for (String termo : lista) {
+                    IBGENoticiasAPI.buscarNoticiasPorTermo(termo);
+                    if (primeiroConcluido[0] == 0) {
+                        primeiroConcluido[0] = System.nanoTime();
+                    }
+                }
+            } else {
+                new BuscaMultipla(simultaneas).buscarTermos(lista, (params, noticias) -> {
+                    if (primeiroConcluido[0] == 0) {
+                        primeiroConcluido[0] = System.nanoTime();
+                    }
+                });
+            }
+            ultimo.registrar(System.nanoTime() - inicio);
+            primeiro.registrar(primeiroConcluido[0] - inicio);
+        }
+        System.out.printf(Locale.ROOT, "%-22s %12.1f %12.1f %12.1f %12.1f %12.1f%n", nome, primeiro.percentil(0.50) / 1e6,
+                ultimo.percentil(0.50) / 1e6, ultimo.percentil(0.99) / 1e6, ultimo.getMaximo() / 1e6,
+                (requisicoesApi.get() - antes) / (double) rodadas);
+    }
+
+    // Termos diferentes por modo e rodada, para que todas as buscas sejam faltas de cache
+    private static List<String> termos(String modo, int rodada, int quantidade) {
+        List<String> termos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            termos.add(modo.replaceAll("\\W", "") + "-" + rodada + "-" + i);
+        }
+        return termos;
+    }
+
+    // API falsa: a página da fixture depois de 'atraso' ms, e 'lento' ms a mais numa fração 'lentas' das vezes
+    private static HttpServer apiComCauda(int atraso, double lentas, int lento, AtomicLong requisicoes) throws IOException {
+        byte[] pagina = BenchNoticias.paginaExpandida(10);
+        HttpServer api = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        api.createContext("/", troca -> {
+            requisicoes.incrementAndGet();
+            try {
+                Thread.sleep(atraso + (ThreadLocalRandom.current().nextDouble() < lentas ? lento : 0));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            troca.sendResponseHeaders(200, pagina.length);
+            try (OutputStream out = troca.getResponseBody()) {
+                out.write(pagina);
+            }
+        });
+        api.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "api-falsa");
+            t.setDaemon(true);
+            return t;
+        }));
+        api.start();
+        return api;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,234 @@
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Teste de carga do modo servidor (ServidorNoticias), rodando offline
+//
+// Sobe no mesmo processo uma API do IBGE falsa (a página de bench/fixtures, com latência configurável) e o
+// servidor em uma porta livre, com dados e cache em um diretório temporário. Cada usuário simulado faz
+// algumas rodadas de: buscar notícias, adicionar um favorito, ver os favoritos e remover o favorito.
+// No fim, mostra a vazão e os percentis de latência (p50, p99, máximo) por operação.
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -cp out:lib/gson-2.10.1.jar CargaServidor [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --usuarios N       usuários simulados (padrão 1000)
+//   --concorrencia N   usuários ativos ao mesmo tempo (padrão 100)
+//   --rodadas N        rodadas por usuário (padrão 5)
+//   --termos N         termos de busca diferentes entre todos os usuários (padrão 50)
+//   --atraso ms        latência da API falsa (padrão 20)
+//   --threads N        threads do servidor (padrão 64)
+//   --memoria N        usuários mantidos em memória pelo servidor (padrão 1000)
+
+public class CargaServidor {
+    private static final String[] OPERACOES = {"buscar", "adicionar", "listar", "remover"};
+
+    public static void main(String[] args) throws Exception {
+        int usuarios = 1000;
+        int concorrencia = 100;
+        int rodadas = 5;
+        int termos = 50;
+        int atraso = 20;
+        int threads = 64;
+        int memoria = 1000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--usuarios":
+                    usuarios = Integer.parseInt(args[++i]);
+                    break;
+                case "--concorrencia":
+                    concorrencia = Integer.parseInt(args[++i]);
+                    break;
+                case "--rodadas":
+                    rodadas = Integer.parseInt(args[++i]);
+                    break;
+                case "--termos":
+                    termos = Integer.parseInt(args[++i]);
+                    break;
+                case "--atraso":
+                    atraso = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--memoria":
+                    memoria = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        File dados = Files.createTempDirectory("carga-noticias").toFile();
+        // Precisam estar definidas antes de qualquer uso de IBGENoticiasAPI e CacheNoticias
+        System.setProperty("ibge.cache.diretorio", new File(dados, "cache").getPath());
+        AtomicLong requisicoesApi = new AtomicLong();
+        HttpServer api = apiFalsa(atraso, requisicoesApi);
+        System.setProperty("ibge.api.url", "http://127.0.0.1:" + api.getAddress().getPort() + "/api/v3/noticias/");
+
+        CadastroUsuarios cadastro = new CadastroUsuarios(new File(dados, "usuarios"), memoria);
+        ServidorNoticias servidor = new ServidorNoticias(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), threads, cadastro);
+        servidor.iniciar();
+        String base = "http://127.0.0.1:" + servidor.getPorta();
+
+        ExecutorService clientes = Executors.newFixedThreadPool(concorrencia, daemons("cliente"));
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newCachedThreadPool(daemons("cliente-http")))
+                .build();
+        try {
+            // Aquecimento com outros usuários, para o JIT e as conexões; os números são zerados depois
+            Map<String, Metricas.Histograma> latencias = novasLatencias();
+            AtomicLong erros = new AtomicLong();
+            simular(http, base, clientes, "aquecimento", Math.min(usuarios, 100), 2, termos, latencias, erros);
+
+            latencias = novasLatencias();
+            erros.set(0);
+            long apiAntes = requisicoesApi.get();
+            long inicio = System.nanoTime();
+            simular(http, base, clientes, "usuario", usuarios, rodadas, termos, latencias, erros);
+            long duracao = System.nanoTime() - inicio;
+
+            imprimir(usuarios, concorrencia, duracao, latencias, erros.get(), requisicoesApi.get() - apiAntes, cadastro);
+        } finally {
+            clientes.shutdownNow();
+            servidor.parar();
+            api.stop(0);
+            BenchNoticias.apagar(dados);
+        }
+    }
+
+    // Cada usuário é uma tarefa; no máximo 'concorrencia' deles estão ativos ao mesmo tempo
+    private static void simular(HttpClient http, String base, ExecutorService clientes, String prefixo, int usuarios,
+                                int rodadas, int termos, Map<String, Metricas.Histograma> latencias, AtomicLong erros)
+            throws InterruptedException, ExecutionException {
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int u = 0; u < usuarios; u++) {
+            String usuario = prefixo + "-" + u;
+            int primeiroTermo = u;
+            tarefas.add(clientes.submit(() -> {
+                for (int r = 0; r < rodadas; r++) {
+                    String termo = "termo" + ((primeiroTermo + r) % termos);
+                    String idNoticia = usuario + "-" + r;
+                    chamar(http, HttpRequest.newBuilder(URI.create(base + "/noticias?q=" + URLEncoder.encode(termo, StandardCharsets.UTF_8))).GET(),
+                            "buscar", latencias, erros);
+                    chamar(http, HttpRequest.newBuilder(URI.create(base + "/usuarios/" + usuario + "/favoritos"))
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(noticia(idNoticia, termo), StandardCharsets.UTF_8)),
+                            "adicionar", latencias, erros);
+                    chamar(http, HttpRequest.newBuilder(URI.create(base + "/usuarios/" + usuario + "/favoritos")).GET(),
+                            "listar", latencias, erros);
+                    chamar(http, HttpRequest.newBuilder(URI.create(base + "/usuarios/" + usuario + "/favoritos/" + idNoticia)).DELETE(),
+                            "remover", latencias, erros);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+    }
+
+    private static void chamar(HttpClient http, HttpRequest.Builder requisicao, String operacao,
+                               Map<String, Metricas.Histograma> latencias, AtomicLong erros) {
+        long inicio = System.nanoTime();
+        try {
+            HttpResponse<byte[]> resposta = http.send(requisicao.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (resposta.statusCode() >= 400) {
+                erros.incrementAndGet();
+            }
+        } catch (IOException e) {
+            erros.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            erros.incrementAndGet();
+        }
+        long nanos = System.nanoTime() - inicio;
+        latencias.get(operacao).registrar(nanos);
+        latencias.get("total").registrar(nanos);
+    }
+
+    private static Map<String, Metricas.Histograma> novasLatencias() {
+        Map<String, Metricas.Histograma> latencias = new LinkedHashMap<>();
+        for (String operacao : OPERACOES) {
+            latencias.put(operacao, new Metricas.Histograma());
+        }
+        latencias.put("total", new Metricas.Histograma());
+        return latencias;
+    }
+
+    private static String noticia(String id, String termo) {
+        JsonObject noticia = new JsonObject();
+        noticia.addProperty("id", id);
+        noticia.addProperty("titulo", "Notícia sobre " + termo);
+        noticia.addProperty("dataPublicacao", "30/06/2025 18:00:00");
+        noticia.addProperty("tipo", "Notícia");
+        return noticia.toString();
+    }
+
+    // API do IBGE falsa: responde sempre a mesma página (10 itens gerados da fixture) depois de 'atraso' ms
+    static HttpServer apiFalsa(int atraso, AtomicLong requisicoes) throws IOException {
+        byte[] pagina = BenchNoticias.paginaExpandida(10);
+        HttpServer api = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        api.createContext("/", troca -> {
+            requisicoes.incrementAndGet();
+            try {
+                Thread.sleep(atraso);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            troca.sendResponseHeaders(200, pagina.length);
+            try (OutputStream out = troca.getResponseBody()) {
+                out.write(pagina);
+            }
+        });
+        api.setExecutor(Executors.newCachedThreadPool(daemons("api-falsa")));
+        api.start();
+        return api;
+    }
+
+    // Threads daemon, para as ociosas não segurarem o fim do programa
+    private static ThreadFactory daemons(String nome) {
+        AtomicInteger contador = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, nome + "-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static void imprimir(int usuarios, int concorrencia, long duracao, Map<String, Metricas.Histograma> latencias,
+                                 long erros, long requisicoesApi, CadastroUsuarios cadastro) {
+        long total = latencias.get("total").getContagem();
+        double segundos = duracao / 1e9;
+        System.out.printf(Locale.ROOT, "%d usuários simulados (%d ao mesmo tempo): %d requisições em %.2f s = %.0f req/s, %d erros%n",
+                usuarios, concorrencia, total, segundos, total / segundos, erros);
+        System.out.printf(Locale.ROOT, "Requisições à API: %d; usuários carregados: %d, despejados: %d%n%n",
+                requisicoesApi, cadastro.getCarregamentos(), cadastro.getDespejos());
+        System.out.printf(Locale.ROOT, "%-10s %9s %10s %10s %10s %10s%n", "operação", "qtd", "média ms", "p50 ms", "p99 ms", "máx ms");
+        for (Map.Entry<String, Metricas.Histograma> e : latencias.entrySet()) {
+            Metricas.Histograma h = e.getValue();
+            System.out.printf(Locale.ROOT, "%-10s %9d %10.2f %10.2f %10.2f %10.2f%n", e.getKey(), h.getContagem(),
+                    h.getSoma() / 1e6 / Math.max(1, h.getContagem()), h.percentil(0.50) / 1e6, h.percentil(0.99) / 1e6, h.getMaximo() / 1e6);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Teste de concorrência da coalescência de buscas (ChamadaUnica no CacheNoticias), rodando offline
+//
+// Várias threads fazem a mesma busca no mesmo instante, rodada após rodada, contra a API falsa do
+// CargaServidor. Primeiro sem coalescência (cada thread vai direto à API, como antes), depois pelo
+// CacheNoticias com TTL zero, para que cada rodada seja uma falta de cache e só a coalescência evite
+// requisições repetidas. Mostra as requisições que chegaram à API e as latências nos dois casos, e confere
+// que as threads de uma mesma busca receberam as mesmas notícias (os mesmos objetos).
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -cp out:lib/gson-2.10.1.jar CoalescenciaBuscas [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --threads N   threads buscando ao mesmo tempo (padrão 64)
+//   --rodadas N   rodadas (padrão 20)
+//   --termos N    termos diferentes entre as threads de uma rodada (padrão 4)
+//   --atraso ms   latência da API falsa (padrão 50)
+//
+// Sai com código 1 se, com coalescência, a API receber mais de uma requisição por termo em cada rodada.
+
+public class CoalescenciaBuscas {
+
+    // Uma forma de buscar: direto na API ou pelo cache com coalescência
+    private interface Busca {
+        PaginaNoticias buscar(Map<String, String> params) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = 64;
+        int rodadas = 20;
+        int termos = 4;
+        int atraso = 50;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--rodadas":
+                    rodadas = Integer.parseInt(args[++i]);
+                    break;
+                case "--termos":
+                    termos = Integer.parseInt(args[++i]);
+                    break;
+                case "--atraso":
+                    atraso = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        File dados = Files.createTempDirectory("coalescencia-noticias").toFile();
+        AtomicLong requisicoesApi = new AtomicLong();
+        HttpServer api = CargaServidor.apiFalsa(atraso, requisicoesApi);
+        // Precisam estar definidas antes de qualquer uso de IBGENoticiasAPI; o limitador de requisições fica
+        // folgado para medir só o efeito da coalescência
+        System.setProperty("ibge.api.url", "http://127.0.0.1:" + api.getAddress().getPort() + "/api/v3/noticias/");
+        System.setProperty("ibge.limite.taxa", System.getProperty("ibge.limite.taxa", "0"));
+        System.setProperty("ibge.limite.inicial", System.getProperty("ibge.limite.inicial", String.valueOf(threads)));
+        System.setProperty("ibge.limite.maximo", System.getProperty("ibge.limite.maximo", String.valueOf(threads)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        boolean ok;
+        try {
+            // TTL zero: nada é reaproveitado entre rodadas, só entre buscas simultâneas
+            CacheNoticias cache = new CacheNoticias(256, 0, new File(dados, "cache"));
+
+            rodar("aquecimento", executor, threads, 3, termos, requisicoesApi, IBGENoticiasAPI::buscarPaginaRemota);
+            rodar("aquecimento", executor, threads, 3, termos, requisicoesApi, cache::obter);
+            long coalescidasAntes = cache.getCoalescidas();
+
+            System.out.printf(Locale.ROOT, "%d threads, %d rodadas, %d termos, API com %d ms de latência%n%n",
+                    threads, rodadas, termos, atraso);
+            System.out.printf(Locale.ROOT, "%-18s %10s %10s %10s %10s %14s%n",
+                    "", "req. API", "média ms", "p50 ms", "p99 ms", "mesmos objetos");
+            rodar("sem coalescência", executor, threads, rodadas, termos, requisicoesApi, IBGENoticiasAPI::buscarPaginaRemota);
+            long comCoalescencia = rodar("com coalescência", executor, threads, rodadas, termos, requisicoesApi, cache::obter);
+            System.out.printf(Locale.ROOT, "%nBuscas coalescidas: %d%n", cache.getCoalescidas() - coalescidasAntes);
+
+            ok = comCoalescencia <= (long) rodadas * termos;
+            if (!ok) {
+                System.out.println("FALHA: a API recebeu mais de uma requisição por termo e rodada.");
+            }
+        } finally {
+            executor.shutdownNow();
+            api.stop(0);
+            BenchNoticias.apagar(dados);
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    // Executa as rodadas e imprime uma linha de resultado; devolve quantas requisições chegaram à API
+    private static long rodar(String nome, ExecutorService executor, int threads, int rodadas, int termos,
+                              AtomicLong requisicoesApi, Busca busca) throws Exception {
+        Metricas.Histograma latencias = new Metricas.Histograma();
+        long antes = requisicoesApi.get();
+        boolean mesmosObjetos = true;
+        for (int r = 0; r < rodadas; r++) {
+            // Todas as threads da rodada saem juntas da barreira
+            CyclicBarrier largada = new CyclicBarrier(threads);
+            List<Future<PaginaNoticias>> resultados = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Map<String, String> params = IBGENoticiasAPI.parametrosPorTermo("termo" + (t % termos));
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    long inicio = System.nanoTime();
+                    PaginaNoticias pagina = busca.buscar(params);
+                    latencias.registrar(System.nanoTime() - inicio);
+                    return pagina;
+                }));
+            }
+            // Threads com o mesmo termo devem ter recebido a mesma notícia decodificada, não cópias
+            for (int t = 0; t < threads; t++) {
+                Noticia primeira = resultados.get(t).get().getNoticias().get(0);
+                if (primeira != resultados.get(t % termos).get().getNoticias().get(0)) {
+                    mesmosObjetos = false;
+                }
+            }
+        }
+        long requisicoes = requisicoesApi.get() - antes;
+        if (!nome.equals("aquecimento")) {
+            System.out.printf(Locale.ROOT, "%-18s %10d %10.2f %10.2f %10.2f %14s%n", nome, requisicoes,
+                    latencias.getSoma() / 1e6 / Math.max(1, latencias.getContagem()),
+                    latencias.percentil(0.50) / 1e6, latencias.percentil(0.99) / 1e6, mesmosObjetos ? "sim" : "não");
+        }
+        return requisicoes;
+    }
+}
\ No newline at end of file
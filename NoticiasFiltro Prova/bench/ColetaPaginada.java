@@ -0,0 +1,297 @@
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+// Verificação do ColetorNoticias contra uma API paginada falsa, rodando offline
+//
+// A API falsa (ApiPaginada) serve um acervo sintético das mais recentes para as mais antigas, respeitando
+// "de"/"ate" (yyyyMMdd), "q", "page" e "qtd", com o mesmo envelope da API do IBGE e gzip quando pedido.
+// O programa confere que:
+//   - as páginas são juntadas na ordem, sem ids repetidos, mesmo quando uma notícia nova chega no meio da
+//     coleta e empurra um item de uma página para a seguinte;
+//   - uma página que falha não cancela as outras: todas são pedidas, o erro diz quais páginas falharam e,
+//     com cache, a nova tentativa só busca de novo as que faltaram;
+// e mostra o tempo da coleta com uma requisição por vez e com várias em paralelo.
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -cp out:lib/gson-2.10.1.jar ColetaPaginada [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --noticias N      tamanho do acervo da API falsa (padrão 2000)
+//   --qtd N           notícias por página (padrão 100)
+//   --atraso ms       latência de cada página na API falsa (padrão 20)
+//   --requisicoes N   páginas buscadas ao mesmo tempo pelo coletor (padrão 4)
+
+public class ColetaPaginada {
+
+    public static void main(String[] args) throws Exception {
+        int noticias = 2000;
+        int qtd = 100;
+        int atraso = 20;
+        int requisicoes = 4;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--noticias":
+                    noticias = Integer.parseInt(args[++i]);
+                    break;
+                case "--qtd":
+                    qtd = Integer.parseInt(args[++i]);
+                    break;
+                case "--atraso":
+                    atraso = Integer.parseInt(args[++i]);
+                    break;
+                case "--requisicoes":
+                    requisicoes = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        File cache = Files.createTempDirectory("coleta-cache").toFile();
+        try (ApiPaginada api = new ApiPaginada(atraso)) {
+            // Antes de qualquer uso do IBGENoticiasAPI (inclusive ao montar o acervo), que lê a URL uma vez só
+            System.setProperty("ibge.api.url", api.url());
+            System.setProperty("ibge.cache.diretorio", cache.getPath());
+            System.setProperty("ibge.limite.taxa", "0");
+            System.setProperty("ibge.retry.atrasoBase", "10");
+            // O circuito não é o que está sendo verificado aqui: as falhas de propósito não podem abri-lo
+            System.setProperty("ibge.circuito.falhas", "1000");
+            List<Noticia> acervo = BenchNoticias.noticiasExpandidas(noticias);
+            api.acervo = acervo;
+
+            boolean ok = verificarOrdem(api, acervo, qtd, requisicoes);
+            ok &= verificarFalhas(api, acervo, qtd, requisicoes);
+            medir(api, acervo, qtd, requisicoes);
+            if (!ok) {
+                System.exit(1);
+            }
+        } finally {
+            BenchNoticias.apagar(cache);
+        }
+    }
+
+    // Uma notícia nova publicada depois da página 1 desloca o acervo em um item: cada página seguinte
+    // começa repetindo o último item da anterior. A última página fica incompleta, para o item empurrado
+    // não cair em uma página além do total informado pela página 1 (aí nem a API real o entregaria).
+    private static boolean verificarOrdem(ApiPaginada api, List<Noticia> acervo, int qtd, int requisicoes) throws IOException {
+        List<Noticia> esperadas = acervo.subList(0, acervo.size() - (acervo.size() % qtd == 0 ? qtd / 2 : 0));
+        api.acervo = esperadas;
+        api.deslocamento = 1;
+        List<Noticia> coletadas;
+        try {
+            coletadas = new ColetorNoticias(qtd, requisicoes, false).coletar(new HashMap<>());
+        } finally {
+            api.deslocamento = 0;
+            api.acervo = acervo;
+        }
+        boolean ok = ids(coletadas).equals(ids(esperadas));
+        System.out.printf(Locale.ROOT, "Ordem e repetidas: %d de %d notícias, na ordem da API: %s%n",
+                coletadas.size(), esperadas.size(), ok ? "ok" : "FALHOU");
+        return ok;
+    }
+
+    private static boolean verificarFalhas(ApiPaginada api, List<Noticia> acervo, int qtd, int requisicoes) throws IOException {
+        int totalPaginas = (acervo.size() + qtd - 1) / qtd;
+        List<Integer> quebradas = Arrays.asList(3, totalPaginas / 2 + 1);
+        api.paginasComFalha.addAll(quebradas);
+        api.pedidosPorPagina.clear();
+        ColetorNoticias coletor = new ColetorNoticias(qtd, requisicoes, true);
+        Map<String, String> params = Map.of("q", "");
+
+        String mensagem = null;
+        try {
+            coletor.coletar(params);
+        } catch (IOException e) {
+            mensagem = e.getMessage();
+        }
+        Set<Integer> pedidas = new TreeSet<>(api.pedidosPorPagina.keySet());
+        boolean todasPedidas = pedidas.size() == totalPaginas;
+        boolean mensagemOk = mensagem != null && mensagem.contains(quebradas.toString());
+        System.out.printf(Locale.ROOT, "Páginas %s quebradas: %d de %d páginas pedidas; erro: %s%n",
+                quebradas, pedidas.size(), totalPaginas, mensagem);
+
+        // Com as páginas boas no cache, a nova tentativa só vai à API pelas que faltaram
+        api.paginasComFalha.clear();
+        api.pedidosPorPagina.clear();
+        List<Noticia> coletadas = coletor.coletar(params);
+        Set<Integer> repetidas = new TreeSet<>(api.pedidosPorPagina.keySet());
+        boolean retomadaOk = repetidas.equals(new TreeSet<>(quebradas)) && ids(coletadas).equals(ids(acervo));
+        System.out.printf(Locale.ROOT, "Nova tentativa: páginas pedidas de novo %s, %d notícias%n", repetidas, coletadas.size());
+
+        boolean ok = todasPedidas && mensagemOk && retomadaOk;
+        System.out.printf(Locale.ROOT, "Falha de página isolada: %s%n%n", ok ? "ok" : "FALHOU");
+        return ok;
+    }
+
+    private static void medir(ApiPaginada api, List<Noticia> acervo, int qtd, int requisicoes) throws IOException {
+        int totalPaginas = (acervo.size() + qtd - 1) / qtd;
+        System.out.printf(Locale.ROOT, "%d notícias em %d páginas de %d, %d ms por página na API falsa%n",
+                acervo.size(), totalPaginas, qtd, api.atraso);
+        System.out.printf(Locale.ROOT, "%-24s %10s %10s%n", "coleta", "ms", "notícias");
+        for (int n : new int[]{1, requisicoes}) {
+            ColetorNoticias coletor = new ColetorNoticias(qtd, n, false);
+            coletor.coletar(new HashMap<>()); // Aquecimento
+            long inicio = System.nanoTime();
+            int total = coletor.coletar(new HashMap<>()).size();
+            double ms = (System.nanoTime() - inicio) / 1e6;
+            System.out.printf(Locale.ROOT, "%-24s %10.1f %10d%n", n + " requisição(ões) por vez", ms, total);
+        }
+    }
+
+    private static List<String> ids(List<Noticia> noticias) {
+        List<String> ids = new ArrayList<>(noticias.size());
+        for (Noticia n : noticias) {
+            ids.add(n.getId());
+        }
+        return ids;
+    }
+
+    // API de notícias falsa e paginada, servindo 'acervo' (das mais recentes para as mais antigas) em uma porta livre;
+    // o acervo pode ser trocado a qualquer momento (ex: para simular notícias novas)
+    static class ApiPaginada implements Closeable {
+        private static final DateTimeFormatter FORMATO_PARAMETRO = DateTimeFormatter.ofPattern("yyyyMMdd");
+        private static final DateTimeFormatter FORMATO_API = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+        volatile List<Noticia> acervo = Collections.emptyList();
+        final int atraso;
+        final Set<Integer> paginasComFalha = ConcurrentHashMap.newKeySet();
+        final Map<Integer, AtomicInteger> pedidosPorPagina = new ConcurrentHashMap<>();
+        final AtomicLong requisicoes = new AtomicLong();
+        final AtomicLong bytesEnviados = new AtomicLong();
+        volatile int deslocamento; // Notícias "publicadas" depois da página 1, que empurram as demais páginas
+        volatile LocalDate falharAPartirDe; // Buscas com "de" a partir deste dia respondem 500
+        private final HttpServer servidor;
+
+        ApiPaginada(int atraso) throws IOException {
+            this.atraso = atraso;
+            // Sem isso, o Nagle segura cada resposta por ~40 ms esperando o ACK atrasado do cliente
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+            servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            servidor.createContext("/", this::atender);
+            AtomicInteger contador = new AtomicInteger();
+            servidor.setExecutor(Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "api-paginada-" + contador.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }));
+            servidor.start();
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + servidor.getAddress().getPort() + "/api/v3/noticias/";
+        }
+
+        @Override
+        public void close() {
+            servidor.stop(0);
+        }
+
+        private void atender(HttpExchange troca) throws IOException {
+            requisicoes.incrementAndGet();
+            Map<String, String> params = parametros(troca.getRequestURI().getRawQuery());
+            int pagina = Integer.parseInt(params.getOrDefault("page", "1"));
+            int qtd = Integer.parseInt(params.getOrDefault("qtd", "10"));
+            pedidosPorPagina.computeIfAbsent(pagina, p -> new AtomicInteger()).incrementAndGet();
+            try {
+                Thread.sleep(atraso);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            LocalDate falha = falharAPartirDe;
+            if (paginasComFalha.contains(pagina) || (falha != null && params.containsKey("de")
+                    && !LocalDate.parse(params.get("de"), FORMATO_PARAMETRO).isBefore(falha))) {
+                troca.sendResponseHeaders(500, -1);
+                troca.close();
+                return;
+            }
+
+            List<Noticia> filtradas = filtrar(params);
+            int inicio = Math.max(0, (pagina - 1) * qtd - (pagina > 1 ? deslocamento : 0));
+            int fim = Math.min(filtradas.size(), inicio + qtd);
+            int totalPaginas = Math.max(1, (filtradas.size() + qtd - 1) / qtd);
+
+            ByteArrayOutputStream corpo = new ByteArrayOutputStream();
+            boolean gzip = String.valueOf(troca.getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip");
+            try (OutputStream saida = gzip ? new GZIPOutputStream(corpo) : corpo;
+                 JsonWriter out = new JsonWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8))) {
+                out.beginObject();
+                out.name("count").value(filtradas.size());
+                out.name("page").value(pagina);
+                out.name("totalPages").value(totalPaginas);
+                out.name("nextPage").value(Math.min(pagina + 1, totalPaginas));
+                out.name("previousPage").value(Math.max(pagina - 1, 1));
+                out.name("showingFrom").value(inicio + 1);
+                out.name("showingTo").value(fim);
+                out.name("items").beginArray();
+                for (int i = inicio; i < fim; i++) {
+                    Noticia n = filtradas.get(i);
+                    out.beginObject();
+                    out.name("id").value(Long.parseLong(n.getId()));
+                    out.name("tipo").value(n.getTipo());
+                    out.name("titulo").value(n.getTitulo());
+                    out.name("introducao").value(n.getIntroducao());
+                    out.name("data_publicacao").value(n.getDataPublicacao().format(FORMATO_API));
+                    out.name("link").value(n.getLink());
+                    out.endObject();
+                }
+                out.endArray();
+                out.endObject();
+            }
+            byte[] bytes = corpo.toByteArray();
+            bytesEnviados.addAndGet(bytes.length);
+            troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            if (gzip) {
+                troca.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            troca.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = troca.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+
+        // Notícias de "de" a "ate" (dias inclusivos) com "q" no título, na ordem do acervo
+        private List<Noticia> filtrar(Map<String, String> params) {
+            LocalDate de = params.containsKey("de") ? LocalDate.parse(params.get("de"), FORMATO_PARAMETRO) : LocalDate.MIN;
+            LocalDate ate = params.containsKey("ate") ? LocalDate.parse(params.get("ate"), FORMATO_PARAMETRO) : LocalDate.MAX;
+            String termo = params.getOrDefault("q", "").toLowerCase(Locale.ROOT);
+            List<Noticia> filtradas = new ArrayList<>();
+            for (Noticia n : acervo) {
+                LocalDate dia = n.getDataPublicacao().toLocalDate();
+                if (!dia.isBefore(de) && !dia.isAfter(ate) && n.getTitulo().toLowerCase(Locale.ROOT).contains(termo)) {
+                    filtradas.add(n);
+                }
+            }
+            return filtradas;
+        }
+
+        private static Map<String, String> parametros(String consulta) {
+            Map<String, String> params = new HashMap<>();
+            if (consulta != null) {
+                for (String par : consulta.split("&")) {
+                    int igual = par.indexOf('=');
+                    if (igual > 0) {
+                        params.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                                URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            return params;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.*;
+
+// Latência das buscas e memória do índice invertido local (IndiceNoticias, BM25), rodando offline
+//
+// Usa o acervo sintético de bench/RecomendacaoLSH (vocabulário com distribuição de Zipf, notícias agrupadas
+// por assunto). As consultas têm de 1 a 3 palavras tiradas de notícias sorteadas do acervo, então palavras
+// comuns aparecem nas consultas na mesma proporção em que aparecem no texto.
+//
+// Para cada tamanho de acervo mostra:
+//   - construção: tempo para indexar todas as notícias;
+//   - memória: heap ocupado pelo índice (depois de um GC completo, sem contar as notícias, que já existiam);
+//   - latência de buscar(consulta, 10): p50, p99 e máximo, depois de um aquecimento;
+//   - postings: média de ocorrências percorridas por consulta.
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -Xmx3g -cp out:lib/gson-2.10.1.jar IndiceBM25 [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --itens N,N...   tamanhos do acervo (padrão 100000,1000000)
+//   --consultas N    consultas medidas por tamanho (padrão 2000)
+//   --limite N       resultados pedidos por consulta (padrão 10)
+
+public class IndiceBM25 {
+
+    public static void main(String[] args) {
+        int[] tamanhos = {100_000, 1_000_000};
+        int consultas = 2000;
+        int limite = 10;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--itens":
+                    tamanhos = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "--consultas":
+                    consultas = Integer.parseInt(args[++i]);
+                    break;
+                case "--limite":
+                    limite = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%d consultas de 1 a 3 palavras por tamanho; top %d%n%n", consultas, limite);
+        System.out.printf(Locale.ROOT, "%10s %12s %12s %12s %10s %10s %10s %12s%n", "itens", "construção s",
+                "índice MB", "bytes/item", "p50 ms", "p99 ms", "máx ms", "postings");
+        for (int tamanho : tamanhos) {
+            medir(tamanho, consultas, limite);
+        }
+    }
+
+    private static void medir(int tamanho, int quantidadeConsultas, int limite) {
+        List<Noticia> noticias = RecomendacaoLSH.gerar(tamanho, 42).noticias;
+        Random aleatorio = new Random(7);
+        String[] consultas = new String[quantidadeConsultas];
+        for (int i = 0; i < consultas.length; i++) {
+            consultas[i] = consulta(noticias.get(aleatorio.nextInt(tamanho)), aleatorio);
+        }
+
+        long antes = heapUsado();
+        long inicio = System.nanoTime();
+        IndiceNoticias indice = new IndiceNoticias();
+        indice.adicionarTodas(noticias);
+        double construcao = (System.nanoTime() - inicio) / 1e9;
+        long memoria = heapUsado() - antes;
+
+        // Aquecimento com outras consultas, para o JIT compilar buscar antes das medidas
+        for (int i = 0; i < 2000; i++) {
+            BenchNoticias.sumidouro += indice.buscar(consulta(noticias.get(aleatorio.nextInt(tamanho)), aleatorio), limite).size();
+        }
+
+        Metricas.Histograma latencia = new Metricas.Histograma();
+        for (String consulta : consultas) {
+            long t = System.nanoTime();
+            BenchNoticias.sumidouro += indice.buscar(consulta, limite).size();
+            latencia.registrar(System.nanoTime() - t);
+        }
+        System.out.printf(Locale.ROOT, "%10d %12.1f %12.1f %12.1f %10.3f %10.3f %10.3f %12.0f%n", tamanho, construcao,
+                memoria / 1048576.0, memoria / (double) tamanho, latencia.percentil(0.50) / 1e6,
+                latencia.percentil(0.99) / 1e6, latencia.getMaximo() / 1e6, postingsPorConsulta(noticias, consultas));
+    }
+
+    // De 1 a 3 palavras seguidas de uma notícia, a partir de uma posição sorteada
+    private static String consulta(Noticia n, Random aleatorio) {
+        String[] palavras = (n.getTitulo() + " " + n.getIntroducao()).split(" ");
+        int quantidade = 1 + aleatorio.nextInt(3);
+        int inicio = aleatorio.nextInt(Math.max(1, palavras.length - quantidade + 1));
+        return String.join(" ", Arrays.asList(palavras).subList(inicio, Math.min(palavras.length, inicio + quantidade)));
+    }
+
+    // Média, por consulta, de quantas notícias contêm cada palavra dela (o trabalho da busca)
+    private static double postingsPorConsulta(List<Noticia> noticias, String[] consultas) {
+        Map<String, Integer> frequencia = new HashMap<>();
+        for (String consulta : consultas) {
+            for (String palavra : consulta.split(" ")) {
+                frequencia.put(palavra, 0);
+            }
+        }
+        for (Noticia n : noticias) {
+            for (String palavra : new HashSet<>(Arrays.asList((n.getTitulo() + " " + n.getIntroducao()).split(" ")))) {
+                frequencia.computeIfPresent(palavra, (p, f) -> f + 1);
+            }
+        }
+        long total = 0;
+        for (String consulta : consultas) {
+            for (String palavra : new HashSet<>(Arrays.asList(consulta.split(" ")))) {
+                total += frequencia.get(palavra);
+            }
+        }
+        return total / (double) consultas.length;
+    }
+
+    private static long heapUsado() {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+}
\ No newline at end of file
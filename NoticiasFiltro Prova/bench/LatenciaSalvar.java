@@ -0,0 +1,114 @@
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+
+// Latência de salvar o usuário (Persistencia) com 10, 10 mil e 1 milhão de notícias nas listas, rodando offline
+//
+// Para cada tamanho de perfil (montado como em BenchNoticias.usuarioCom) mede:
+//   - alteração: tirar e recolocar uma notícia dos favoritos, cada mudança anexada ao log com fsync, como o
+//     programa faz a cada ação do usuário; inclui as compactações em segundo plano a cada 1000 alterações;
+//   - snapshot: salvar o perfil inteiro (JSON + binário, com fsync e troca atômica), que era o que toda
+//     alteração custava antes do log e continua sendo o custo de salvar ao sair.
+// Os números dependem muito do disco (fsync); rode no disco onde ficam os dados de verdade (--diretorio).
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -Xmx3g -cp out:lib/gson-2.10.1.jar LatenciaSalvar [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --itens N,N...     tamanhos do perfil (padrão 10,10000,1000000)
+//   --alteracoes N     alterações medidas por tamanho (padrão 3000)
+//   --snapshots N      snapshots medidos por tamanho (padrão 5)
+//   --diretorio dir    onde criar os dados temporários (padrão: diretório temporário do sistema)
+
+public class LatenciaSalvar {
+
+    public static void main(String[] args) throws Exception {
+        int[] tamanhos = {10, 10_000, 1_000_000};
+        int alteracoes = 3000;
+        int snapshots = 5;
+        File base = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--itens":
+                    tamanhos = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "--alteracoes":
+                    alteracoes = Integer.parseInt(args[++i]);
+                    break;
+                case "--snapshots":
+                    snapshots = Integer.parseInt(args[++i]);
+                    break;
+                case "--diretorio":
+                    base = new File(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        File dados = (base == null ? Files.createTempDirectory("latencia-salvar")
+                : Files.createTempDirectory(base.toPath(), "latencia-salvar")).toFile();
+        try {
+            System.out.printf(Locale.ROOT, "%d alterações e %d snapshots por tamanho, em %s%n%n", alteracoes, snapshots, dados);
+            System.out.printf(Locale.ROOT, "%10s %14s %14s %14s %14s %14s %14s%n", "itens", "alteração p50",
+                    "alteração p99", "alteração máx", "snapshot p50", "snapshot máx", "arquivo MB");
+            for (int tamanho : tamanhos) {
+                medir(tamanho, alteracoes, snapshots, new File(dados, String.valueOf(tamanho)));
+            }
+        } finally {
+            BenchNoticias.apagar(dados);
+        }
+        System.exit(0);
+    }
+
+    private static void medir(int tamanho, int alteracoes, int snapshots, File diretorio) throws Exception {
+        Usuario usuario = BenchNoticias.usuarioCom(tamanho);
+        Persistencia persistencia = new Persistencia(diretorio, false);
+
+        // O primeiro snapshot também aquece o JIT; não entra nas medidas
+        persistencia.salvar(usuario);
+        Metricas.Histograma snapshot = new Metricas.Histograma();
+        for (int i = 0; i < snapshots; i++) {
+            long inicio = System.nanoTime();
+            persistencia.salvar(usuario);
+            snapshot.registrar(System.nanoTime() - inicio);
+        }
+        long bytesArquivo = new File(diretorio, "usuario.json").length();
+
+        // Aquecimento do log com as mesmas alterações, zerado por um snapshot antes das medidas
+        List<Noticia> favoritos = usuario.getFavoritos();
+        Random aleatorio = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            alternar(persistencia, usuario, favoritos.get(aleatorio.nextInt(favoritos.size())));
+        }
+        persistencia.salvar(usuario);
+
+        Metricas.Histograma alteracao = new Metricas.Histograma();
+        for (int i = 0; i < alteracoes; i += 2) {
+            Noticia n = favoritos.get(aleatorio.nextInt(favoritos.size()));
+            long inicio = System.nanoTime();
+            favoritos.remove(n);
+            persistencia.anotarRemocao(usuario, "favoritos", n);
+            long meio = System.nanoTime();
+            favoritos.add(n);
+            persistencia.anotarAdicao(usuario, "favoritos", n);
+            long fim = System.nanoTime();
+            alteracao.registrar(meio - inicio);
+            alteracao.registrar(fim - meio);
+        }
+        System.out.printf(Locale.ROOT, "%10d %14.3f %14.3f %14.3f %14.1f %14.1f %14.1f%n", tamanho,
+                alteracao.percentil(0.50) / 1e6, alteracao.percentil(0.99) / 1e6, alteracao.getMaximo() / 1e6,
+                snapshot.percentil(0.50) / 1e6, snapshot.getMaximo() / 1e6, bytesArquivo / 1048576.0);
+        // Espera a última compactação antes de apagar os arquivos
+        persistencia.salvar(usuario);
+    }
+
+    private static void alternar(Persistencia persistencia, Usuario usuario, Noticia n) {
+        usuario.getFavoritos().remove(n);
+        persistencia.anotarRemocao(usuario, "favoritos", n);
+        usuario.getFavoritos().add(n);
+        persistencia.anotarAdicao(usuario, "favoritos", n);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Latência da primeira busca depois da partida, com e sem a pré-busca (PreBuscaNoticias), rodando offline
+//
+// Cada medida roda numa JVM nova, porque o que interessa é a partida a frio: HttpClient e conexão ainda não
+// criados, classes do decodificador não carregadas, cache vazio. O processo principal sobe a API falsa do
+// CargaServidor e grava um usuário com notícias nos favoritos e em paraLerDepois; cada JVM filha carrega esse
+// usuário como o Main faz, inicia (ou não) a pré-busca, espera o tempo de "pensar" (a pessoa lendo o menu e
+// digitando o termo) e então mede a primeira busca por termo. São medidos dois termos: um que a pré-busca
+// escolhe a partir das listas do usuário e outro que ela não tem como prever.
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -cp out:lib/gson-2.10.1.jar PrimeiraBusca [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --rodadas N    medidas por combinação de termo e modo (padrão 10)
+//   --pensar ms    tempo entre carregar o usuário e a primeira busca (padrão 1500)
+//   --atraso ms    latência da API falsa (padrão 50)
+//   --noticias N   notícias do usuário (padrão 300)
+
+public class PrimeiraBusca {
+    private static final String TERMO_IMPREVISTO = "inflação";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--filho")) {
+            filho(args);
+            return;
+        }
+        int rodadas = 10;
+        int pensar = 1500;
+        int atraso = 50;
+        int noticias = 300;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--rodadas":
+                    rodadas = Integer.parseInt(args[++i]);
+                    break;
+                case "--pensar":
+                    pensar = Integer.parseInt(args[++i]);
+                    break;
+                case "--atraso":
+                    atraso = Integer.parseInt(args[++i]);
+                    break;
+                case "--noticias":
+                    noticias = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        File dados = Files.createTempDirectory("primeira-busca").toFile();
+        AtomicLong requisicoesApi = new AtomicLong();
+        HttpServer api = CargaServidor.apiFalsa(atraso, requisicoesApi);
+        try {
+            Usuario usuario = BenchNoticias.usuarioCom(noticias);
+            Persistencia persistencia = new Persistencia(new File(dados, "usuario"), false);
+            persistencia.salvar(usuario);
+            persistencia.carregar(); // Deixa o snapshot binário pronto, como numa partida normal
+            String previsto = PreBuscaNoticias.termosFrequentes(PreBuscaNoticias.amostra(usuario), 1).get(0);
+
+            System.out.printf(Locale.ROOT, "API falsa com %d ms de latência; usuário com %d notícias; %d ms até a primeira busca; %d rodadas%n%n",
+                    atraso, noticias, pensar, rodadas);
+            System.out.printf(Locale.ROOT, "%-26s %-10s %10s %10s %10s %12s%n",
+                    "termo", "pré-busca", "p50 ms", "média ms", "máx ms", "req. API");
+            for (String termo : new String[] {previsto, TERMO_IMPREVISTO}) {
+                String rotulo = termo + (termo.equals(previsto) ? " (previsto)" : " (imprevisto)");
+                for (boolean ativa : new boolean[] {false, true}) {
+                    double[] medidas = new double[rodadas];
+                    long apiAntes = requisicoesApi.get();
+                    for (int r = 0; r < rodadas; r++) {
+                        medidas[r] = rodarFilho(api, dados, r, ativa, pensar, termo);
+                    }
+                    Arrays.sort(medidas);
+                    System.out.printf(Locale.ROOT, "%-26s %-10s %10.2f %10.2f %10.2f %12.1f%n", rotulo, ativa ? "ligada" : "desligada",
+                            medidas[rodadas / 2], Arrays.stream(medidas).average().orElse(0), medidas[rodadas - 1],
+                            (requisicoesApi.get() - apiAntes) / (double) rodadas);
+                }
+            }
+            System.out.println("\nreq. API: requisições por partida, incluindo as da pré-busca.");
+        } finally {
+            api.stop(0);
+            BenchNoticias.apagar(dados);
+        }
+    }
+
+    // Roda uma partida numa JVM nova, com cache vazio; devolve a latência da primeira busca em ms
+    private static double rodarFilho(HttpServer api, File dados, int rodada, boolean preBusca, int pensar, String termo)
+            throws IOException, InterruptedException {
+        File cache = new File(dados, "cache-" + rodada + "-" + preBusca);
+        List<String> comando = Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                "-Dibge.api.url=http://127.0.0.1:" + api.getAddress().getPort() + "/api/v3/noticias/",
+                "-Dibge.cache.diretorio=" + cache.getPath(),
+                "-Dnoticias.prebusca=" + preBusca,
+                // O termo vai codificado: argumentos com acento dependem da localidade do sistema
+                "PrimeiraBusca", "--filho", new File(dados, "usuario").getPath(), String.valueOf(pensar),
+                URLEncoder.encode(termo, StandardCharsets.UTF_8));
+        Process processo = new ProcessBuilder(comando).redirectErrorStream(true).start();
+        String resultado = null;
+        StringBuilder saida = new StringBuilder();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(processo.getInputStream(), StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = in.readLine()) != null) {
+                if (linha.startsWith("RESULTADO ")) {
+                    resultado = linha.substring("RESULTADO ".length());
+                } else {
+                    saida.append(linha).append('\n');
+                }
+            }
+        }
+        if (processo.waitFor() != 0 || resultado == null) {
+            throw new IOException("A JVM filha falhou:\n" + saida);
+        }
+        BenchNoticias.apagar(cache);
+        return Double.parseDouble(resultado);
+    }
+
+    // Partida medida: carrega o usuário, inicia a pré-busca (se ligada), "pensa" e faz a primeira busca
+    private static void filho(String[] args) throws Exception {
+        File diretorio = new File(args[1]);
+        int pensar = Integer.parseInt(args[2]);
+        String termo = URLDecoder.decode(args[3], StandardCharsets.UTF_8);
+
+        Usuario usuario = new Persistencia(diretorio, false).carregar();
+        PreBuscaNoticias preBusca = PreBuscaNoticias.iniciar(usuario);
+        Thread.sleep(pensar);
+
+        // Como em GerenciadorNoticias.buscarNoticias
+        preBusca.parar();
+        long inicio = System.nanoTime();
+        List<Noticia> resultados = IBGENoticiasAPI.buscarNoticiasPorTermo(termo);
+        long nanos = System.nanoTime() - inicio;
+        if (resultados.isEmpty()) {
+            throw new IllegalStateException("Busca sem resultados.");
+        }
+        System.out.println(String.format(Locale.ROOT, "RESULTADO %.3f", nanos / 1e6));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,265 @@
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Recomendação por MinHash/LSH (SimilaridadeNoticias) contra a comparação exata por Jaccard, rodando offline
+//
+// Gera um acervo sintético com estrutura de assunto: cada assunto tem uma frase-base de 40 palavras, e cada
+// notícia copia a frase do seu assunto trocando ou tirando palavras ao acaso (de 5% a 70% delas), o que dá
+// pares com Jaccard espalhado entre 0 e 0,9, como as séries de divulgações parecidas do IBGE. Título = primeiras
+// 10 palavras, introdução = o resto. Cada perfil de usuário tem 10 favoritos e 10 lidas de 3 assuntos.
+//
+// Para cada tamanho de acervo mostra:
+//   - construção: tempo para calcular as assinaturas e montar as faixas do LSH;
+//   - LSH: latência de uma recomendação (10 itens), já com o Jaccard exato das candidatas revisadas, e quantas
+//     candidatas as faixas devolveram;
+//   - exato: latência da força bruta, com os shingles de todo o acervo já calculados (o melhor caso para ela);
+//   - recall@10: fração do top 10 exato (maior Jaccard com algum item do perfil, sem os do perfil) que o LSH
+//     devolveu; empates no corte contam como acerto.
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -Xmx3g -cp out:lib/gson-2.10.1.jar RecomendacaoLSH [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --itens N,N...   tamanhos do acervo (padrão 100000,1000000)
+//   --perfis N       perfis de usuário (padrão 20)
+//   --topo N         recomendações pedidas (padrão 10)
+
+public class RecomendacaoLSH {
+    private static final int VOCABULARIO = 30_000;
+    private static final int PALAVRAS_POR_NOTICIA = 40;
+    private static final int PALAVRAS_TITULO = 10;
+    private static final int NOTICIAS_POR_ASSUNTO = 40;
+    private static final String[] SILABAS = {"ba", "ce", "di", "fo", "gu", "la", "me", "ni", "po", "ru",
+            "sa", "te", "vi", "zo", "ca", "de", "li", "mo", "nu", "ra"};
+    private static final LocalDateTime DATA_INICIAL = LocalDateTime.of(2025, 6, 30, 18, 0);
+
+    // Acervo gerado: notícias e o assunto de cada uma (também usado por bench/IndiceBM25)
+    static class Acervo {
+        final List<Noticia> noticias;
+        final int[] assunto;
+        final int[][] porAssunto;
+
+        Acervo(List<Noticia> noticias, int[] assunto, int assuntos) {
+            this.noticias = noticias;
+            this.assunto = assunto;
+            int[] contagem = new int[assuntos];
+            for (int a : assunto) {
+                contagem[a]++;
+            }
+            porAssunto = new int[assuntos][];
+            for (int a = 0; a < assuntos; a++) {
+                porAssunto[a] = new int[contagem[a]];
+                contagem[a] = 0;
+            }
+            for (int doc = 0; doc < assunto.length; doc++) {
+                porAssunto[assunto[doc]][contagem[assunto[doc]]++] = doc;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] tamanhos = {100_000, 1_000_000};
+        int perfis = 20;
+        int topo = 10;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--itens":
+                    tamanhos = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "--perfis":
+                    perfis = Integer.parseInt(args[++i]);
+                    break;
+                case "--topo":
+                    topo = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "MinHash com %d valores, %d faixas de %d; %d perfis de 20 notícias; top %d%n%n",
+                SimilaridadeNoticias.TAMANHO, SimilaridadeNoticias.FAIXAS, SimilaridadeNoticias.LINHAS, perfis, topo);
+        System.out.printf(Locale.ROOT, "%10s %12s %12s %12s %12s %12s %12s %10s%n", "itens", "construção s",
+                "LSH p50 ms", "LSH p99 ms", "candidatas", "exato p50 ms", "exato p99 ms", "recall");
+        for (int tamanho : tamanhos) {
+            medir(tamanho, perfis, topo);
+        }
+    }
+
+    private static void medir(int tamanho, int perfis, int topo) {
+        Acervo acervo = gerar(tamanho, 42);
+
+        long inicio = System.nanoTime();
+        SimilaridadeNoticias similaridade = new SimilaridadeNoticias();
+        for (Noticia n : acervo.noticias) {
+            similaridade.adicionar(n);
+        }
+        double construcao = (System.nanoTime() - inicio) / 1e9;
+
+        // Shingles de todo o acervo, para a força bruta não pagar a tokenização a cada consulta
+        long[][] shingles = new long[tamanho][];
+        for (int doc = 0; doc < tamanho; doc++) {
+            shingles[doc] = SimilaridadeNoticias.shingles(acervo.noticias.get(doc));
+        }
+
+        Random aleatorio = new Random(7);
+        Metricas.Histograma lsh = new Metricas.Histograma();
+        Metricas.Histograma exato = new Metricas.Histograma();
+        long candidatas = 0;
+        double somaRecall = 0;
+        for (int p = 0; p < perfis; p++) {
+            int[] perfil = perfil(acervo, aleatorio);
+            List<Noticia> noticiasPerfil = new ArrayList<>();
+            Set<String> excluir = new HashSet<>();
+            for (int doc : perfil) {
+                noticiasPerfil.add(acervo.noticias.get(doc));
+                excluir.add(acervo.noticias.get(doc).getId());
+            }
+
+            // Aquecimento e medidas do LSH
+            List<SimilaridadeNoticias.Recomendacao> recomendadas = null;
+            for (int r = 0; r < 6; r++) {
+                long t = System.nanoTime();
+                recomendadas = similaridade.recomendar(noticiasPerfil, excluir, topo);
+                if (r > 0) {
+                    lsh.registrar(System.nanoTime() - t);
+                }
+            }
+            candidatas += similaridade.recomendar(noticiasPerfil, excluir, Integer.MAX_VALUE).size();
+
+            long t = System.nanoTime();
+            double[] pontuacoes = forcaBruta(shingles, perfil);
+            exato.registrar(System.nanoTime() - t);
+            somaRecall += recall(pontuacoes, perfil, recomendadas, topo);
+        }
+        System.out.printf(Locale.ROOT, "%10d %12.1f %12.2f %12.2f %12d %12.1f %12.1f %10.3f%n", tamanho, construcao,
+                lsh.percentil(0.50) / 1e6, lsh.percentil(0.99) / 1e6, candidatas / perfis,
+                exato.percentil(0.50) / 1e6, exato.percentil(0.99) / 1e6, somaRecall / perfis);
+    }
+
+    // Maior Jaccard de cada notícia do acervo com alguma do perfil
+    private static double[] forcaBruta(long[][] shingles, int[] perfil) {
+        double[] pontuacoes = new double[shingles.length];
+        for (int doc = 0; doc < shingles.length; doc++) {
+            double melhor = 0;
+            for (int p : perfil) {
+                melhor = Math.max(melhor, SimilaridadeNoticias.jaccard(shingles[doc], shingles[p]));
+            }
+            pontuacoes[doc] = melhor;
+        }
+        return pontuacoes;
+    }
+
+    // Fração do top exato que o LSH devolveu; quem empata com o último do top exato também conta
+    private static double recall(double[] pontuacoes, int[] perfil, List<SimilaridadeNoticias.Recomendacao> recomendadas, int topo) {
+        Set<Integer> doPerfil = new HashSet<>();
+        for (int doc : perfil) {
+            doPerfil.add(doc);
+        }
+        PriorityQueue<Double> melhores = new PriorityQueue<>();
+        for (int doc = 0; doc < pontuacoes.length; doc++) {
+            if (!doPerfil.contains(doc) && pontuacoes[doc] > 0) {
+                melhores.add(pontuacoes[doc]);
+                if (melhores.size() > topo) {
+                    melhores.poll();
+                }
+            }
+        }
+        if (melhores.isEmpty()) {
+            return 1;
+        }
+        double corte = melhores.peek();
+        int acertos = 0;
+        for (SimilaridadeNoticias.Recomendacao r : recomendadas) {
+            int doc = Integer.parseInt(r.getNoticia().getId());
+            if (pontuacoes[doc] >= corte) {
+                acertos++;
+            }
+        }
+        return Math.min(1.0, acertos / (double) melhores.size());
+    }
+
+    // 20 notícias de 3 assuntos sorteados (10 seriam favoritos e 10 lidas; para a recomendação dá no mesmo)
+    private static int[] perfil(Acervo acervo, Random aleatorio) {
+        int[] assuntos = new int[3];
+        for (int i = 0; i < assuntos.length; i++) {
+            do {
+                assuntos[i] = aleatorio.nextInt(acervo.porAssunto.length);
+            } while (acervo.porAssunto[assuntos[i]].length < 8);
+        }
+        Set<Integer> perfil = new LinkedHashSet<>();
+        while (perfil.size() < 20) {
+            int[] docs = acervo.porAssunto[assuntos[perfil.size() % assuntos.length]];
+            perfil.add(docs[aleatorio.nextInt(docs.length)]);
+        }
+        return perfil.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Acervo sintético; o id de cada notícia é a sua posição
+    static Acervo gerar(int tamanho, long semente) {
+        Random aleatorio = new Random(semente);
+        String[] palavras = new String[VOCABULARIO];
+        for (int i = 0; i < VOCABULARIO; i++) {
+            palavras[i] = palavra(i);
+        }
+        int assuntos = Math.max(1, tamanho / NOTICIAS_POR_ASSUNTO);
+        int[][] frases = new int[assuntos][PALAVRAS_POR_NOTICIA];
+        for (int[] frase : frases) {
+            for (int i = 0; i < frase.length; i++) {
+                frase[i] = zipf(aleatorio);
+            }
+        }
+
+        List<Noticia> noticias = new ArrayList<>(tamanho);
+        int[] assunto = new int[tamanho];
+        StringBuilder titulo = new StringBuilder();
+        StringBuilder introducao = new StringBuilder();
+        for (int doc = 0; doc < tamanho; doc++) {
+            assunto[doc] = aleatorio.nextInt(assuntos);
+            double mutacao = 0.05 + aleatorio.nextDouble() * 0.65;
+            titulo.setLength(0);
+            introducao.setLength(0);
+            int escritas = 0;
+            for (int palavra : frases[assunto[doc]]) {
+                double sorteio = aleatorio.nextDouble();
+                if (sorteio < mutacao / 4) {
+                    continue; // Palavra tirada
+                }
+                if (sorteio < mutacao) {
+                    palavra = zipf(aleatorio); // Palavra trocada
+                }
+                StringBuilder destino = escritas++ < PALAVRAS_TITULO ? titulo : introducao;
+                if (destino.length() > 0) {
+                    destino.append(' ');
+                }
+                destino.append(palavras[palavra]);
+            }
+            Noticia n = new Noticia();
+            n.setId(String.valueOf(doc));
+            n.setTitulo(titulo.toString());
+            n.setIntroducao(introducao.toString());
+            n.setTipo("Notícia");
+            n.setDataPublicacao(DATA_INICIAL.minusMinutes(doc));
+            noticias.add(n);
+        }
+        return new Acervo(noticias, assunto, assuntos);
+    }
+
+    // Índice de palavra com distribuição aproximadamente de Zipf (palavras comuns aparecem bem mais)
+    private static int zipf(Random aleatorio) {
+        return (int) Math.min(VOCABULARIO - 1, Math.floor(Math.pow(VOCABULARIO + 1, aleatorio.nextDouble())) - 1);
+    }
+
+    // Palavra pronunciável a partir do índice, só com letras
+    private static String palavra(int indice) {
+        StringBuilder sb = new StringBuilder();
+        int resto = indice;
+        do {
+            sb.append(SILABAS[resto % SILABAS.length]);
+            resto /= SILABAS.length;
+        } while (resto > 0);
+        return sb.toString();
+    }
+}
\ No newline at end of file
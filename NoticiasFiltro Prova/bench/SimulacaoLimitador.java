@@ -0,0 +1,260 @@
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.channels.ClosedByInterruptException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Simulação do LimitadorRequisicoes contra uma API falsa que impõe a própria cota, rodando offline
+//
+// A API falsa aceita no máximo 'cota' requisições por segundo (acima disso responde 429 com Retry-After: 1)
+// e atende 'capacidade' requisições por vez, cada uma em 'servico' ms; as demais esperam na fila do servidor,
+// então a latência sobe quando há requisições demais ao mesmo tempo. Vários clientes fazem GETs sem parar
+// pelo TransporteHttp, em três cenários:
+//   - sem controle: LimitadorRequisicoes.semLimite(), como era antes do limitador;
+//   - adaptativo: só o limite de concorrência AIMD;
+//   - adaptativo + taxa: o limite AIMD com o balde de fichas configurado na cota da API.
+// Mostra, por cenário, respostas boas por segundo, 429s, latência vista pelo cliente (incluindo a espera
+// no limitador) e o limite de concorrência ao final.
+//
+// Antes dos cenários confere o circuit breaker do ResilienciaHttp: com o circuito meio-aberto, uma chamada de
+// teste que não termina nem em sucesso nem em falha da API (recusada pelo limitador, RuntimeException ou Error)
+// não pode deixar o circuito preso esperando por ela, e uma
+// chamada interrompida (como as buscas de um lote cujo chamador foi interrompido) não pode ser repetida nem abrir o circuito.
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -cp out:lib/gson-2.10.1.jar SimulacaoLimitador [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --clientes N     threads fazendo requisições (padrão 32)
+//   --segundos N     duração de cada cenário (padrão 10)
+//   --cota N         requisições/s aceitas pela API falsa (padrão 40)
+//   --capacidade N   requisições atendidas ao mesmo tempo pela API falsa (padrão 4)
+//   --servico ms     tempo de atendimento de cada requisição (padrão 20)
+
+public class SimulacaoLimitador {
+
+    public static void main(String[] args) throws Exception {
+        int clientes = 32;
+        int segundos = 10;
+        int cota = 40;
+        int capacidade = 4;
+        int servico = 20;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--clientes":
+                    clientes = Integer.parseInt(args[++i]);
+                    break;
+                case "--segundos":
+                    segundos = Integer.parseInt(args[++i]);
+                    break;
+                case "--cota":
+                    cota = Integer.parseInt(args[++i]);
+                    break;
+                case "--capacidade":
+                    capacidade = Integer.parseInt(args[++i]);
+                    break;
+                case "--servico":
+                    servico = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        if (!verificarCircuito() | !verificarInterrupcao()) {
+            System.exit(1);
+        }
+        System.out.printf(Locale.ROOT, "API falsa: cota de %d req/s, %d por vez, %d ms cada; %d clientes, %d s por cenário%n%n",
+                cota, capacidade, servico, clientes, segundos);
+        System.out.printf(Locale.ROOT, "%-20s %8s %8s %8s %10s %10s %8s %9s%n",
+                "cenário", "ok/s", "429", "outros", "p50 ms", "p99 ms", "limite", "reduções");
+        cenario("sem controle", LimitadorRequisicoes.semLimite(), clientes, segundos, cota, capacidade, servico);
+        cenario("adaptativo", new LimitadorRequisicoes(0, 1, 8, 64, 30_000), clientes, segundos, cota, capacidade, servico);
+        cenario("adaptativo + taxa", new LimitadorRequisicoes(cota, capacidade, 8, 64, 30_000), clientes, segundos, cota, capacidade, servico);
+        System.exit(0);
+    }
+
+    private static void cenario(String nome, LimitadorRequisicoes limitador, int clientes, int segundos,
+                                int cota, int capacidade, int servico) throws Exception {
+        HttpServer api = apiComCota(cota, capacidade, servico);
+        URI uri = URI.create("http://127.0.0.1:" + api.getAddress().getPort() + "/api/v3/noticias/?q=teste");
+        TransporteHttp transporte = new TransporteHttp(Duration.ofSeconds(5), Duration.ofSeconds(10), limitador);
+
+        AtomicLong ok = new AtomicLong();
+        AtomicLong rejeitadas = new AtomicLong();
+        AtomicLong outros = new AtomicLong();
+        Metricas.Histograma latencias = new Metricas.Histograma();
+        AtomicBoolean parar = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(clientes);
+        for (int c = 0; c < clientes; c++) {
+            executor.submit(() -> {
+                while (!parar.get()) {
+                    long inicio = System.nanoTime();
+                    try (InputStream in = transporte.get(uri)) {
+                        in.readAllBytes();
+                        ok.incrementAndGet();
+                        latencias.registrar(System.nanoTime() - inicio);
+                    } catch (TransporteHttp.ErroHttp e) {
+                        (e.getStatus() == 429 ? rejeitadas : outros).incrementAndGet();
+                    } catch (IOException e) {
+                        outros.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        Thread.sleep(segundos * 1000L);
+        parar.set(true);
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        api.stop(0);
+
+        System.out.printf(Locale.ROOT, "%-20s %8.1f %8d %8d %10.2f %10.2f %8d %9d%n", nome, ok.get() / (double) segundos,
+                rejeitadas.get(), outros.get(), latencias.percentil(0.50) / 1e6, latencias.percentil(0.99) / 1e6,
+                limitador.getLimite(), limitador.getReducoes());
+    }
+
+    // Abre o circuito, deixa a chamada de teste ser recusada pelo limitador e confere que a seguinte passa
+    private static boolean verificarCircuito() throws InterruptedException {
+        Map<String, ResilienciaHttp.Chamada<String>> testes = new LinkedHashMap<>();
+        testes.put("limitador saturado", () -> {
+            throw new LimitadorRequisicoes.SaturadoException("limitador saturado");
+        });
+        testes.put("JsonParseException", () -> {
+            throw new JsonParseException("página malformada");
+        });
+        testes.put("Error", () -> {
+            throw new AssertionError("erro simulado");
+        });
+        boolean ok = true;
+        for (Map.Entry<String, ResilienciaHttp.Chamada<String>> teste : testes.entrySet()) {
+            ResilienciaHttp resiliencia = new ResilienciaHttp(1, 0, 0, 1, 50, false);
+            try {
+                resiliencia.executar(() -> {
+                    throw new IOException("falha simulada");
+                });
+            } catch (IOException e) {
+                // Esperado: abre o circuito
+            }
+            Thread.sleep(60); // Meio-aberto
+            try {
+                resiliencia.executar(teste.getValue());
+            } catch (IOException | RuntimeException | Error e) {
+                // Esperado: a chamada de teste não terminou nem em sucesso nem em falha da API
+            }
+            boolean passou;
+            try {
+                passou = "ok".equals(resiliencia.executar(() -> "ok"));
+            } catch (IOException e) {
+                passou = false;
+            }
+            System.out.println("Circuito meio-aberto, chamada de teste com " + teste.getKey() + ": "
+                    + (passou ? "ok, a chamada seguinte passou" : "FALHOU, o circuito ficou preso"));
+            ok &= passou;
+        }
+        System.out.println();
+        return ok;
+    }
+
+    // Interrompe uma chamada em andamento, que termina de dois jeitos: com o InterruptedIOException do transporte e
+    // com um IOException qualquer e a thread marcada como interrompida (ex: ClosedByInterruptException de um canal).
+    // Com um limite de 1 falha, qualquer falha contada abriria o circuito
+    private static boolean verificarInterrupcao() throws InterruptedException {
+        boolean ok = true;
+        for (boolean marcada : new boolean[] {false, true}) {
+            ResilienciaHttp resiliencia = new ResilienciaHttp(3, 0, 0, 1, 60_000, false);
+            AtomicInteger tentativas = new AtomicInteger();
+            IOException[] erro = new IOException[1];
+            Thread chamador = new Thread(() -> {
+                try {
+                    resiliencia.executar(() -> {
+                        tentativas.incrementAndGet();
+                        try {
+                            Thread.sleep(10_000);
+                            return "ok";
+                        } catch (InterruptedException e) {
+                            if (marcada) {
+                                Thread.currentThread().interrupt();
+                                throw new ClosedByInterruptException();
+                            }
+                            throw ResilienciaHttp.interrupcao("requisição interrompida", e);
+                        }
+                    });
+                } catch (IOException e) {
+                    erro[0] = e;
+                }
+            });
+            chamador.start();
+            Thread.sleep(50);
+            chamador.interrupt();
+            chamador.join(2000);
+            boolean passou = !chamador.isAlive() && erro[0] != null && tentativas.get() == 1 && !resiliencia.isCircuitoAberto();
+            System.out.println("Chamada interrompida (" + (marcada ? "thread marcada" : "InterruptedIOException") + "): "
+                    + (passou ? "ok, sem nova tentativa e com o circuito fechado"
+                    : "FALHOU (" + tentativas.get() + " tentativa(s), circuito " + (resiliencia.isCircuitoAberto() ? "aberto" : "fechado") + ")"));
+            ok &= passou;
+        }
+        System.out.println();
+        return ok;
+    }
+
+    // API falsa com cota (balde de fichas próprio) e capacidade limitada de atendimento
+    private static HttpServer apiComCota(int cota, int capacidade, int servico) throws IOException {
+        byte[] pagina = BenchNoticias.paginaExpandida(10);
+        Semaphore atendentes = new Semaphore(capacidade, true);
+        double[] fichas = {cota / 4.0};
+        long[] ultimaReposicao = {System.nanoTime()};
+        HttpServer api = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        api.createContext("/", troca -> {
+            boolean dentroDaCota;
+            synchronized (fichas) {
+                long agora = System.nanoTime();
+                fichas[0] = Math.min(cota / 4.0, fichas[0] + (agora - ultimaReposicao[0]) / 1e9 * cota);
+                ultimaReposicao[0] = agora;
+                dentroDaCota = fichas[0] >= 1;
+                if (dentroDaCota) {
+                    fichas[0] -= 1;
+                }
+            }
+            try {
+                if (!dentroDaCota) {
+                    troca.getResponseHeaders().set("Retry-After", "1");
+                    troca.sendResponseHeaders(429, -1);
+                    return;
+                }
+                atendentes.acquireUninterruptibly();
+                try {
+                    Thread.sleep(servico);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    atendentes.release();
+                }
+                troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                troca.sendResponseHeaders(200, pagina.length);
+                try (OutputStream out = troca.getResponseBody()) {
+                    out.write(pagina);
+                }
+            } finally {
+                troca.close();
+            }
+        });
+        api.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "api-cota");
+            t.setDaemon(true);
+            return t;
+        }));
+        api.start();
+        return api;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Relatório da sincronização do EspelhoNoticias contra a API paginada falsa (ColetaPaginada.ApiPaginada), offline
+//
+// A API falsa serve 'anos' anos de notícias sintéticas terminando agora. Mostra tempo, bytes recebidos e
+// requisições de:
+//   - uma sincronização completa (espelho vazio), sem as 'novas' notícias mais recentes;
+//   - uma incremental depois que as 'novas' notícias são publicadas;
+//   - uma incremental sem nada novo.
+// Depois confere o checkpoint por janela: com a API falhando a partir do meio do acervo, a sincronização
+// completa falha, mas as janelas anteriores ficam gravadas (inclusive recarregando do disco) e a próxima
+// sincronização continua da marca d'água, sem buscar tudo de novo.
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -cp out:lib/gson-2.10.1.jar SincronizacaoEspelho [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --anos N       anos de notícias na API falsa, uma a cada 37 minutos (padrão 3)
+//   --novas N      notícias publicadas entre a sincronização completa e a incremental (padrão 200)
+//   --atraso ms    latência de cada página na API falsa (padrão 5)
+//   --janela N     dias por janela de sincronização (padrão: o do EspelhoNoticias)
+
+public class SincronizacaoEspelho {
+
+    public static void main(String[] args) throws Exception {
+        int anos = 3;
+        int novas = 200;
+        int atraso = 5;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--anos":
+                    anos = Integer.parseInt(args[++i]);
+                    break;
+                case "--novas":
+                    novas = Integer.parseInt(args[++i]);
+                    break;
+                case "--atraso":
+                    atraso = Integer.parseInt(args[++i]);
+                    break;
+                case "--janela":
+                    System.setProperty("noticias.espelho.janela", args[++i]);
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        File base = Files.createTempDirectory("espelho-sinc").toFile();
+        try (ColetaPaginada.ApiPaginada api = new ColetaPaginada.ApiPaginada(atraso)) {
+            // Antes de qualquer uso do IBGENoticiasAPI, que lê a URL uma vez só
+            System.setProperty("ibge.api.url", api.url());
+            System.setProperty("ibge.cache.diretorio", new File(base, "cache").getPath());
+            System.setProperty("ibge.limite.taxa", "0");
+            System.setProperty("ibge.retry.atrasoBase", "10");
+            // O circuito não é o que está sendo verificado aqui: as falhas de propósito não podem abri-lo
+            System.setProperty("ibge.circuito.falhas", "1000");
+
+            List<Noticia> acervo = acervoAteAgora(anos);
+            List<Noticia> anteriores = acervo.subList(novas, acervo.size());
+            System.out.printf(Locale.ROOT, "API falsa: %d notícias de %s a %s, %d ms por página%n%n", acervo.size(),
+                    acervo.get(acervo.size() - 1).getDataPublicacao().toLocalDate(), acervo.get(0).getDataPublicacao().toLocalDate(), atraso);
+            System.out.printf(Locale.ROOT, "%-26s %10s %12s %12s %8s%n", "sincronização", "ms", "KiB", "requisições", "novas");
+
+            EspelhoNoticias espelho = new EspelhoNoticias(new File(base, "a"));
+            espelho.carregar();
+            api.acervo = anteriores;
+            imprimir("completa", api, espelho);
+            api.acervo = acervo;
+            imprimir("incremental (" + novas + " novas)", api, espelho);
+            imprimir("incremental (nada novo)", api, espelho);
+
+            EspelhoNoticias recarregado = new EspelhoNoticias(new File(base, "a"));
+            recarregado.carregar();
+            boolean ok = espelho.tamanho() == acervo.size() && recarregado.tamanho() == acervo.size();
+            System.out.printf(Locale.ROOT, "%nNo espelho: %d notícias (%d recarregando do disco), esperadas %d: %s%n%n",
+                    espelho.tamanho(), recarregado.tamanho(), acervo.size(), ok ? "ok" : "FALHOU");
+
+            ok &= verificarCheckpoint(api, anteriores, new File(base, "b"));
+            if (!ok) {
+                System.exit(1);
+            }
+        } finally {
+            BenchNoticias.apagar(base);
+        }
+    }
+
+    // As notícias sintéticas do BenchNoticias, com as datas deslocadas para a mais recente ser de agora
+    private static List<Noticia> acervoAteAgora(int anos) throws IOException {
+        List<Noticia> acervo = BenchNoticias.noticiasDeAnos(anos);
+        Duration deslocamento = Duration.between(acervo.get(0).getDataPublicacao(), LocalDateTime.now().withNano(0));
+        for (Noticia n : acervo) {
+            n.setDataPublicacao(n.getDataPublicacao().plus(deslocamento));
+        }
+        return acervo;
+    }
+
+    private static void imprimir(String nome, ColetaPaginada.ApiPaginada api, EspelhoNoticias espelho) throws IOException {
+        long requisicoes = api.requisicoes.get();
+        EspelhoNoticias.Sincronizacao s = espelho.sincronizar();
+        System.out.printf(Locale.ROOT, "%-26s %10d %12.1f %12d %8d%n", nome, s.getMillis(), s.getBytes() / 1024.0,
+                api.requisicoes.get() - requisicoes, s.getNovas());
+    }
+
+    private static boolean verificarCheckpoint(ColetaPaginada.ApiPaginada api, List<Noticia> acervo, File diretorio) throws IOException {
+        LocalDate falha = acervo.get(acervo.size() / 2).getDataPublicacao().toLocalDate();
+        api.acervo = acervo;
+        api.falharAPartirDe = falha;
+        EspelhoNoticias espelho = new EspelhoNoticias(diretorio);
+        espelho.carregar();
+        String erro = null;
+        try {
+            espelho.sincronizar();
+        } catch (IOException e) {
+            erro = e.getMessage();
+        }
+        EspelhoNoticias recarregado = new EspelhoNoticias(diretorio);
+        recarregado.carregar();
+        LocalDateTime marca = recarregado.getUltimaData();
+        System.out.printf(Locale.ROOT, "API falhando a partir de %s: erro \"%s\"%n", falha, erro);
+        System.out.printf(Locale.ROOT, "Gravadas antes da falha: %d notícias (%d recarregando do disco), marca d'água %s%n",
+                espelho.tamanho(), recarregado.tamanho(), marca);
+        boolean ok = erro != null && recarregado.tamanho() > 0 && recarregado.tamanho() == espelho.tamanho() && marca != null;
+
+        api.falharAPartirDe = null;
+        long requisicoes = api.requisicoes.get();
+        EspelhoNoticias.Sincronizacao s = recarregado.sincronizar();
+        System.out.printf(Locale.ROOT, "Retomada: %s, %d requisições; no espelho: %d de %d%n", s,
+                api.requisicoes.get() - requisicoes, recarregado.tamanho(), acervo.size());
+        // Só o que faltava é gravado de novo (a janela da marca d'água é pedida de novo, mas não regravada)
+        ok &= !s.isCompleta() && recarregado.tamanho() == acervo.size()
+                && espelho.tamanho() + s.getNovas() == acervo.size();
+        System.out.printf(Locale.ROOT, "Checkpoint por janela: %s%n", ok ? "ok" : "FALHOU");
+        return ok;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,199 @@
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+// Latência do transporte HTTP (TransporteHttp) contra o HttpURLConnection por chamada usado antes, rodando offline
+//
+// A API falsa responde uma página de bench/fixtures com 'itens' notícias depois de 'atraso' ms, compactada com
+// gzip quando o cliente pede (Accept-Encoding), como a API do IBGE, e mais o tempo de transmissão do corpo
+// se 'banda' for dada (no loopback a banda é praticamente infinita e o gzip só custaria CPU). Com 1, 8 e 64 chamadores ao mesmo tempo,
+// cada um faz 'requisicoes' GETs seguidos e lê o corpo inteiro:
+//   - HttpURLConnection: uma conexão aberta por chamada, sem gzip nem timeouts, como IBGENoticiasAPI fazia;
+//   - TransporteHttp: o HttpClient compartilhado, sem o limitador de requisições (só o transporte é medido).
+// Mostra a latência por requisição (p50, p99, máximo), a vazão, os bytes recebidos por requisição e quantas
+// conexões TCP novas a API falsa recebeu (as que já vieram abertas do pool não contam).
+//
+// Compilar e rodar a partir de "NoticiasFiltro Prova":
+//   javac -encoding UTF-8 -cp lib/gson-2.10.1.jar -d out *.java bench/*.java
+//   java -cp out:lib/gson-2.10.1.jar TransporteLatencia [opções]        (no Windows, use ; no classpath)
+//
+// Opções:
+//   --chamadores N,N...   chamadores simultâneos (padrão 1,8,64)
+//   --requisicoes N       GETs por chamador (padrão 50)
+//   --atraso ms           latência da API falsa (padrão 20)
+//   --itens N             notícias por página (padrão 100)
+//   --banda Mbit/s        banda simulada de cada resposta (padrão 0 = sem limite)
+
+public class TransporteLatencia {
+
+    // Um GET que lê o corpo inteiro; devolve quantos bytes (descompactados) leu
+    private interface Transporte {
+        long get(URI uri) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] chamadores = {1, 8, 64};
+        int requisicoes = 50;
+        int atraso = 20;
+        int itens = 100;
+        double banda = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--chamadores":
+                    chamadores = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "--requisicoes":
+                    requisicoes = Integer.parseInt(args[++i]);
+                    break;
+                case "--atraso":
+                    atraso = Integer.parseInt(args[++i]);
+                    break;
+                case "--itens":
+                    itens = Integer.parseInt(args[++i]);
+                    break;
+                case "--banda":
+                    banda = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        // Sem TCP_NODELAY, o HttpServer do JDK manda cabeçalhos e corpo em escritas separadas e o algoritmo de Nagle
+        // segura o corpo até o ACK atrasado do cliente (~40 ms no Linux); servidores de verdade, como o da API, não
+        // têm esse atraso. Precisa estar definida antes de criar o primeiro HttpServer
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        AtomicLong bytesEnviados = new AtomicLong();
+        Set<Integer> conexoes = ConcurrentHashMap.newKeySet();
+        HttpServer api = apiFalsa(atraso, itens, banda, bytesEnviados, conexoes);
+        URI uri = URI.create("http://127.0.0.1:" + api.getAddress().getPort() + "/api/v3/noticias/?q=censo");
+
+        Transporte antigo = TransporteLatencia::getAntigo;
+        TransporteHttp transporteHttp = new TransporteHttp(Duration.ofSeconds(10), Duration.ofSeconds(30), LimitadorRequisicoes.semLimite());
+        Transporte novo = u -> {
+            try (InputStream in = transporteHttp.get(u)) {
+                return in.readAllBytes().length;
+            }
+        };
+
+        int maximo = Arrays.stream(chamadores).max().orElse(1);
+        ExecutorService executor = Executors.newFixedThreadPool(maximo);
+        try {
+            // Aquecimento dos dois transportes (JIT e conexões)
+            rodar(antigo, executor, uri, 8, requisicoes);
+            rodar(novo, executor, uri, 8, requisicoes);
+
+            System.out.printf(Locale.ROOT, "API com %d ms de latência, %s, %d notícias por página, %d GETs por chamador%n%n",
+                    atraso, banda > 0 ? banda + " Mbit/s por resposta" : "sem limite de banda", itens, requisicoes);
+            System.out.printf(Locale.ROOT, "%-18s %10s %10s %10s %10s %10s %12s %12s%n", "transporte", "chamadores",
+                    "p50 ms", "p99 ms", "máx ms", "req/s", "bytes/req", "conex. novas");
+            for (int n : chamadores) {
+                Map<String, Transporte> transportes = new LinkedHashMap<>();
+                transportes.put("HttpURLConnection", antigo);
+                transportes.put("TransporteHttp", novo);
+                for (Map.Entry<String, Transporte> t : transportes.entrySet()) {
+                    bytesEnviados.set(0);
+                    int conexoesAntes = conexoes.size();
+                    long inicio = System.nanoTime();
+                    Metricas.Histograma latencias = rodar(t.getValue(), executor, uri, n, requisicoes);
+                    double segundos = (System.nanoTime() - inicio) / 1e9;
+                    System.out.printf(Locale.ROOT, "%-18s %10d %10.2f %10.2f %10.2f %10.0f %12.0f %12d%n", t.getKey(), n,
+                            latencias.percentil(0.50) / 1e6, latencias.percentil(0.99) / 1e6, latencias.getMaximo() / 1e6,
+                            latencias.getContagem() / segundos, bytesEnviados.get() / (double) latencias.getContagem(),
+                            conexoes.size() - conexoesAntes);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            api.stop(0);
+        }
+        System.exit(0);
+    }
+
+    // 'chamadores' threads, cada uma com 'requisicoes' GETs seguidos; devolve a latência de cada GET
+    private static Metricas.Histograma rodar(Transporte transporte, ExecutorService executor, URI uri,
+                                             int chamadores, int requisicoes) throws Exception {
+        Metricas.Histograma latencias = new Metricas.Histograma();
+        CyclicBarrier largada = new CyclicBarrier(chamadores);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int c = 0; c < chamadores; c++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                for (int r = 0; r < requisicoes; r++) {
+                    long inicio = System.nanoTime();
+                    BenchNoticias.sumidouro += transporte.get(uri);
+                    latencias.registrar(System.nanoTime() - inicio);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        return latencias;
+    }
+
+    // O GET de antes: HttpURLConnection novo a cada chamada, sem timeouts nem Accept-Encoding
+    private static long getAntigo(URI uri) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) uri.toURL().openConnection();
+        conn.setRequestMethod("GET");
+        if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Erro na requisição à API: Código " + conn.getResponseCode());
+        }
+        try (InputStream in = conn.getInputStream()) {
+            return in.readAllBytes().length;
+        }
+    }
+
+    // API falsa: a página depois de 'atraso' ms (mais a transmissão, com 'banda' > 0), com gzip se o cliente aceitar;
+    // conta bytes e conexões (porta do cliente)
+    private static HttpServer apiFalsa(int atraso, int itens, double banda, AtomicLong bytesEnviados, Set<Integer> conexoes) throws IOException {
+        byte[] pagina = BenchNoticias.paginaExpandida(itens);
+        ByteArrayOutputStream compactada = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compactada)) {
+            gzip.write(pagina);
+        }
+        byte[] paginaGzip = compactada.toByteArray();
+
+        HttpServer api = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        api.createContext("/", troca -> {
+            conexoes.add(troca.getRemoteAddress().getPort());
+            String aceita = troca.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean gzip = aceita != null && aceita.contains("gzip");
+            byte[] corpo = gzip ? paginaGzip : pagina;
+            try {
+                Thread.sleep(atraso + (banda > 0 ? Math.round(corpo.length * 8 / (banda * 1000)) : 0));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            if (gzip) {
+                troca.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            troca.sendResponseHeaders(200, corpo.length);
+            try (OutputStream out = troca.getResponseBody()) {
+                out.write(corpo);
+            }
+            bytesEnviados.addAndGet(corpo.length);
+        });
+        api.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "api-falsa");
+            t.setDaemon(true);
+            return t;
+        }));
+        api.start();
+        return api;
+    }
+}
\ No newline at end of file